@@ -0,0 +1,111 @@
+/**
+ * La classe AffectationHongroise résout le problème d'affectation de coût minimal
+ * (algorithme hongrois, en O(n² m) pour une matrice n x m avec n <= m).
+ *
+ * Chaque ligne (robot) reçoit au plus une colonne (incendie) distincte, de façon à minimiser
+ * la somme des coûts. Une matrice avec plus de lignes que de colonnes est traitée en la transposant.
+ */
+
+public class AffectationHongroise {
+
+    /** Coût à utiliser pour une affectation impossible (robot ne pouvant pas atteindre l'incendie) */
+    public static final double IMPOSSIBLE = 1e15;
+
+    private AffectationHongroise() {
+    }
+
+    /**
+     * Calcule une affectation de coût total minimal.
+     *
+     * @param couts Matrice des coûts, couts[ligne][colonne].
+     * @return Pour chaque ligne, la colonne affectée, ou -1 si la ligne n'est pas affectée
+     *         (plus de lignes que de colonnes, ou affectation impossible).
+     */
+
+    public static int[] resoudre(double[][] couts) {
+        int n = couts.length;
+        int m = n == 0 ? 0 : couts[0].length;
+        int[] affectation = new int[n];
+        java.util.Arrays.fill(affectation, -1);
+        if (n == 0 || m == 0) {
+            return affectation;
+        }
+
+        boolean transposee = n > m;
+        double[][] a = transposee ? transposer(couts) : couts;
+        int lignes = transposee ? m : n;
+        int colonnes = transposee ? n : m;
+
+        // Potentiels u (lignes) et v (colonnes), indices décalés de 1 ; p[j] = ligne affectée à la colonne j
+        double[] u = new double[lignes + 1];
+        double[] v = new double[colonnes + 1];
+        int[] p = new int[colonnes + 1];
+        int[] chemin = new int[colonnes + 1];
+        double[] minimums = new double[colonnes + 1];
+        boolean[] utilisees = new boolean[colonnes + 1];
+
+        for (int i = 1; i <= lignes; i++) {
+            p[0] = i;
+            int j0 = 0;
+            java.util.Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+            java.util.Arrays.fill(utilisees, false);
+            do {
+                utilisees[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= colonnes; j++) {
+                    if (!utilisees[j]) {
+                        double reduit = a[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (reduit < minimums[j]) {
+                            minimums[j] = reduit;
+                            chemin[j] = j0;
+                        }
+                        if (minimums[j] < delta) {
+                            delta = minimums[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= colonnes; j++) {
+                    if (utilisees[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimums[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            // Remonte le chemin augmentant
+            do {
+                int j1 = chemin[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        for (int j = 1; j <= colonnes; j++) {
+            if (p[j] == 0) {
+                continue;
+            }
+            int ligne = transposee ? j - 1 : p[j] - 1;
+            int colonne = transposee ? p[j] - 1 : j - 1;
+            if (couts[ligne][colonne] < IMPOSSIBLE) {
+                affectation[ligne] = colonne;
+            }
+        }
+        return affectation;
+    }
+
+    private static double[][] transposer(double[][] couts) {
+        double[][] t = new double[couts[0].length][couts.length];
+        for (int i = 0; i < couts.length; i++) {
+            for (int j = 0; j < couts[0].length; j++) {
+                t[j][i] = couts[i][j];
+            }
+        }
+        return t;
+    }
+}
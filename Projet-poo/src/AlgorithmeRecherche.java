@@ -0,0 +1,10 @@
+/**
+ * L'énumération AlgorithmeRecherche liste les algorithmes de plus court chemin
+ * proposés par {@link RechercheChemin}.
+ *
+ * Tous donnent un chemin de durée minimale ; ils diffèrent par le nombre de cases explorées.
+ */
+
+public enum AlgorithmeRecherche {
+    DIJKSTRA, A_ETOILE, BIDIRECTIONNEL
+}
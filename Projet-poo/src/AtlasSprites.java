@@ -0,0 +1,139 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * La classe AtlasSprites regroupe dans une seule image toutes les images de l'affichage
+ * (terrains, incendie, robots), déjà mises à l'échelle pour une taille de case donnée.
+ *
+ * Chaque image occupe un emplacement carré de la taille d'une case, où elle est centrée sur fond
+ * transparent : dessiner une case revient à copier un carré de l'atlas. Les fichiers du
+ * répertoire images/ ne sont lus et décodés qu'une fois par programme, et l'atlas d'une taille de
+ * case n'est construit qu'une fois, puis partagé par tous les affichages.
+ */
+
+public class AtlasSprites {
+    // Emplacements : les terrains dans l'ordre de NatureTerrain, puis l'incendie et les robots
+    public static final int INCENDIE = NatureTerrain.values().length;
+    public static final int DRONE = INCENDIE + 1;
+    public static final int ROUES = INCENDIE + 2;
+    public static final int CHENILLES = INCENDIE + 3;
+    public static final int PATTES = INCENDIE + 4;
+    private static final int NB_EMPLACEMENTS = PATTES + 1;
+
+    // Fichier et taille (en fraction de case) de chaque emplacement
+    private static final String[] FICHIERS = {
+        "images/terrain_libre.png", "images/foret.png", "images/roche.png", "images/eau.png", "images/habitat.png",
+        "images/fire.png", "images/drone.png", "images/roues.png", "images/chenille.png", "images/pattes.png"
+    };
+    private static final int[][] ECHELLES = { { 1, 1 }, { 1, 1 }, { 1, 1 }, { 1, 1 }, { 1, 1 },
+        { 5, 6 }, { 3, 4 }, { 3, 4 }, { 3, 4 }, { 3, 4 } };
+
+    private static final Map<String, BufferedImage> SOURCES = new HashMap<>();
+    private static final Map<Integer, AtlasSprites> ATLAS = new HashMap<>();
+
+    private final int cellSize;
+    private final BufferedImage image;
+
+    private AtlasSprites(int cellSize) {
+        this.cellSize = cellSize;
+        this.image = new BufferedImage(NB_EMPLACEMENTS * cellSize, cellSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        for (int e = 0; e < NB_EMPLACEMENTS; e++) {
+            BufferedImage source = source(FICHIERS[e]);
+            int taille = Math.max(1, ECHELLES[e][0] * cellSize / ECHELLES[e][1]);
+            int gauche = e * cellSize + (cellSize - taille) / 2;
+            int haut = (cellSize - taille) / 2;
+            if (e < INCENDIE) {
+                // Les terrains sont opaques : ils recouvrent tout le fond de la case
+                g.setColor(Color.BLACK);
+                g.fillRect(e * cellSize, 0, cellSize, cellSize);
+            }
+            if (source != null) {
+                g.drawImage(source, gauche, haut, taille, taille, null);
+            }
+        }
+        g.dispose();
+    }
+
+    /**
+     * Atlas pour une taille de case, construit au premier appel puis partagé.
+     *
+     * @param cellSize Taille d'une case en pixels.
+     * @return L'atlas.
+     */
+
+    public static synchronized AtlasSprites pour(int cellSize) {
+        return ATLAS.computeIfAbsent(cellSize, AtlasSprites::new);
+    }
+
+    // Image décodée une seule fois ; null si le fichier est illisible
+    private static synchronized BufferedImage source(String chemin) {
+        if (!SOURCES.containsKey(chemin)) {
+            BufferedImage source = null;
+            try {
+                source = ImageIO.read(new File(chemin));
+            } catch (IOException e) {
+                Journal.avertissement(-1, "affichage", "Image introuvable : {}", chemin);
+            }
+            SOURCES.put(chemin, source);
+        }
+        return SOURCES.get(chemin);
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Emplacement de l'image d'un robot.
+     *
+     * @return DRONE, ROUES, CHENILLES ou PATTES, ou -1 pour un type inconnu.
+     */
+
+    public static int emplacementRobot(Robot robot) {
+        if (robot instanceof Drone) {
+            return DRONE;
+        } else if (robot instanceof Roues) {
+            return ROUES;
+        } else if (robot instanceof Chenilles) {
+            return CHENILLES;
+        } else if (robot instanceof Pattes) {
+            return PATTES;
+        }
+        return -1;
+    }
+
+    /**
+     * Dessine un emplacement de l'atlas sur une case.
+     *
+     * @param g Le contexte graphique.
+     * @param emplacement L'emplacement (ordinal d'un terrain, INCENDIE ou un robot).
+     * @param gauche Abscisse du coin haut gauche de la case.
+     * @param haut Ordonnée du coin haut gauche de la case.
+     */
+
+    public void dessiner(Graphics2D g, int emplacement, int gauche, int haut) {
+        int source = emplacement * cellSize;
+        g.drawImage(image, gauche, haut, gauche + cellSize, haut + cellSize,
+                source, 0, source + cellSize, cellSize, null);
+    }
+
+    /**
+     * Pixels (RGB) d'un terrain, ligne par ligne, pour remplir directement une image de fond.
+     *
+     * @param nature La nature du terrain.
+     * @return Un tableau de cellSize * cellSize pixels.
+     */
+
+    public int[] getPixelsTerrain(NatureTerrain nature) {
+        return image.getRGB(nature.ordinal() * cellSize, 0, cellSize, cellSize, null, 0, cellSize);
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * La classe BancEssai mesure le temps d'exécution d'opérations élémentaires de la simulation
+ * (plus court chemin, stratégie, traitement des événements, lecture de carte).
+ *
+ * Chaque mesure suit le même protocole : des itérations de chauffe, non comptées, laissent la
+ * JVM compiler le code, puis chaque itération mesurée enchaîne des opérations pendant une durée
+ * minimale. Une préparation optionnelle, exécutée avant chaque opération, n'est pas chronométrée :
+ * elle sert à remettre l'état à neuf (par exemple restaurer un instantané) quand l'opération le
+ * modifie. Le résultat est le temps moyen par opération, avec l'écart-type entre itérations.
+ */
+
+public class BancEssai {
+    private int nbIterationsChauffe = 3;
+    private int nbIterations = 5;
+    private long dureeIterationNanos = 200_000_000L;
+    private final List<Resultat> resultats = new ArrayList<>();
+
+    // Valeur accumulée pour que le compilateur ne puisse pas supprimer les opérations mesurées
+    private volatile long puits;
+
+    /**
+     * Résultat d'une mesure : temps moyen par opération et dispersion entre itérations.
+     */
+
+    public static class Resultat {
+        private final String nom;
+        private final String parametres;
+        private final long nbOperations;
+        private final double moyenneNanos;
+        private final double ecartTypeNanos;
+
+        Resultat(String nom, String parametres, long nbOperations, double moyenneNanos, double ecartTypeNanos) {
+            this.nom = nom;
+            this.parametres = parametres;
+            this.nbOperations = nbOperations;
+            this.moyenneNanos = moyenneNanos;
+            this.ecartTypeNanos = ecartTypeNanos;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public String getParametres() {
+            return parametres;
+        }
+
+        public long getNbOperations() {
+            return nbOperations;
+        }
+
+        // Temps moyen par opération, en nanosecondes
+        public double getMoyenneNanos() {
+            return moyenneNanos;
+        }
+
+        public double getEcartTypeNanos() {
+            return ecartTypeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %-36s %10d %14.3f +- %10.3f us/op",
+                    nom, parametres, nbOperations, moyenneNanos / 1e3, ecartTypeNanos / 1e3);
+        }
+    }
+
+    public void setNbIterationsChauffe(int nbIterationsChauffe) {
+        this.nbIterationsChauffe = nbIterationsChauffe;
+    }
+
+    public void setNbIterations(int nbIterations) {
+        this.nbIterations = Math.max(1, nbIterations);
+    }
+
+    public void setDureeIterationMillis(long dureeIterationMillis) {
+        this.dureeIterationNanos = dureeIterationMillis * 1_000_000L;
+    }
+
+    public List<Resultat> getResultats() {
+        return resultats;
+    }
+
+    /**
+     * Mesure une opération sans préparation.
+     *
+     * @param nom Nom de la mesure.
+     * @param parametres Description des paramètres (taille de carte, nombre de robots...).
+     * @param operation L'opération ; elle renvoie le nombre d'opérations élémentaires effectuées.
+     * @return Le résultat, également ajouté à la liste des résultats.
+     */
+
+    public Resultat mesurer(String nom, String parametres, LongSupplier operation) {
+        return mesurer(nom, parametres, null, operation);
+    }
+
+    /**
+     * Mesure une opération précédée d'une préparation non chronométrée.
+     *
+     * @param nom Nom de la mesure.
+     * @param parametres Description des paramètres (taille de carte, nombre de robots...).
+     * @param preparation Exécutée avant chaque opération, hors chronométrage (peut être null).
+     * @param operation L'opération ; elle renvoie le nombre d'opérations élémentaires effectuées
+     *                  (1 pour une opération unique), sur lequel le temps est ramené.
+     * @return Le résultat, également ajouté à la liste des résultats.
+     */
+
+    public Resultat mesurer(String nom, String parametres, Runnable preparation, LongSupplier operation) {
+        for (int i = 0; i < nbIterationsChauffe; i++) {
+            iteration(preparation, operation);
+        }
+
+        double[] tempsParOperation = new double[nbIterations];
+        long nbOperations = 0;
+        for (int i = 0; i < nbIterations; i++) {
+            long[] mesure = iteration(preparation, operation);
+            tempsParOperation[i] = (double) mesure[0] / mesure[1];
+            nbOperations += mesure[1];
+        }
+
+        double moyenne = 0;
+        for (double t : tempsParOperation) {
+            moyenne += t;
+        }
+        moyenne /= nbIterations;
+        double variance = 0;
+        for (double t : tempsParOperation) {
+            variance += (t - moyenne) * (t - moyenne);
+        }
+        double ecartType = nbIterations > 1 ? Math.sqrt(variance / (nbIterations - 1)) : 0;
+
+        Resultat resultat = new Resultat(nom, parametres, nbOperations, moyenne, ecartType);
+        resultats.add(resultat);
+        return resultat;
+    }
+
+    // Une itération : enchaîne les opérations jusqu'à la durée voulue ; renvoie {temps total, nb d'opérations}
+    private long[] iteration(Runnable preparation, LongSupplier operation) {
+        long tempsTotal = 0;
+        long nbOperations = 0;
+        long somme = 0;
+        do {
+            if (preparation != null) {
+                preparation.run();
+            }
+            long debut = System.nanoTime();
+            long n = operation.getAsLong();
+            tempsTotal += System.nanoTime() - debut;
+            nbOperations += Math.max(1, n);
+            somme += n;
+        } while (tempsTotal < dureeIterationNanos);
+        puits += somme;
+        return new long[] { tempsTotal, nbOperations };
+    }
+}
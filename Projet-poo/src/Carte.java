@@ -1,32 +1,134 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * La classe Carte représente une carte composée de cases organisées en grille.
  * Elle contient des informations sur le nombre de lignes, de colonnes, et la taille de chaque case.
  * Elle permet de gérer et de manipuler les cases de la carte, y compris l'ajout de cases, la vérification des voisins,
  * et la recherche de cases contenant de l'eau.
+ *
+ * Pour tenir en mémoire des cartes de plusieurs millions de cases, la carte est stockée de façon
+ * compacte : un octet par case pour la nature du terrain (son ordinal dans {@link NatureTerrain})
+ * et une table creuse des incendies. Les objets {@link Case} ne sont créés qu'à la demande par
+ * {@link #getCase(int, int)} ; deux instances de la même case sont égales au sens de equals.
  */
 
 public class Carte {
+    private static final NatureTerrain[] NATURES = NatureTerrain.values();
+
     private int nbLignes;
     private int nbColonnes;
     private int tailleCases;
-    private Case[][] cases;
+    private byte[] terrains;
+    private Map<Integer, Incendie> incendies;
+    private Map<String, GrilleCouts> grillesCouts;
+    private RechercheChemin rechercheChemin;
+    private List<Case> casesEau;
 
     public Carte(int nbLignes, int nbColonnes, int tailleCases) {
         this.nbLignes = nbLignes;
         this.nbColonnes = nbColonnes;
         this.tailleCases = tailleCases;
-        this.cases = new Case[nbLignes][nbColonnes];
+        this.terrains = new byte[nbLignes * nbColonnes];
+        this.incendies = new HashMap<>();
+        this.grillesCouts = new ConcurrentHashMap<>();
+    }
+
+    // Terrain brut (un octet par case, ordinal de NatureTerrain), partagé avec InstantaneSimulation
+    byte[] getTerrains() {
+        return terrains;
     }
 
     public void ajouterCase(int ligne, int colonne, NatureTerrain nature) {
-        this.cases[ligne][colonne] = new Case(ligne, colonne, nature);
+        verifierPosition(ligne, colonne);
+        this.terrains[ligne * nbColonnes + colonne] = (byte) nature.ordinal();
     }
 
     public Case getCase(int ligne, int colonne) {
-        return cases[ligne][colonne];
+        verifierPosition(ligne, colonne);
+        return new Case(this, ligne, colonne);
+    }
+
+    // Comme l'ancien tableau à deux dimensions : une colonne hors de la carte ne déborde pas sur la ligne suivante
+    private void verifierPosition(int ligne, int colonne) {
+        if (ligne < 0 || ligne >= nbLignes || colonne < 0 || colonne >= nbColonnes) {
+            throw new IndexOutOfBoundsException("Case (" + ligne + ", " + colonne + ") hors de la carte "
+                    + nbLignes + "x" + nbColonnes);
+        }
+    }
+
+    // Indice d'une case dans les grilles à plat : ligne * nbColonnes + colonne
+    public int getIndice(Case c) {
+        return c.getLigne() * nbColonnes + c.getColonne();
+    }
+
+    public Case getCase(int indice) {
+        return new Case(this, indice / nbColonnes, indice % nbColonnes);
+    }
+
+    public NatureTerrain getNature(int indice) {
+        return NATURES[terrains[indice]];
+    }
+
+    public NatureTerrain getNature(int ligne, int colonne) {
+        verifierPosition(ligne, colonne);
+        return NATURES[terrains[ligne * nbColonnes + colonne]];
+    }
+
+    public Incendie getIncendie(int indice) {
+        return incendies.get(indice);
+    }
+
+    // Place (ou retire si null) l'incendie d'une case
+    public void setIncendie(int indice, Incendie incendie) {
+        if (incendie == null) {
+            incendies.remove(indice);
+        } else {
+            incendies.put(indice, incendie);
+        }
+    }
+
+    /**
+     * Parcourt les voisins d'une case sans allocation : le voisin d'indice donné dans une direction.
+     *
+     * @param indice Indice de la case.
+     * @param dir La direction.
+     * @return L'indice du voisin, ou -1 s'il sort de la carte.
+     */
+
+    public int getVoisin(int indice, Direction dir) {
+        int lig = indice / nbColonnes;
+        int col = indice - lig * nbColonnes;
+        switch (dir) {
+            case NORD: return lig > 0 ? indice - nbColonnes : -1;
+            case SUD: return lig < nbLignes - 1 ? indice + nbColonnes : -1;
+            case EST: return col < nbColonnes - 1 ? indice + 1 : -1;
+            case OUEST: return col > 0 ? indice - 1 : -1;
+            default: return -1;
+        }
+    }
+
+    /**
+     * Écrit les indices des voisins d'une case (nord, sud, est, ouest) dans un tableau fourni.
+     *
+     * @param indice Indice de la case.
+     * @param voisins Tableau d'au moins 4 éléments recevant les indices des voisins.
+     * @return Le nombre de voisins écrits.
+     */
+
+    public int getVoisins(int indice, int[] voisins) {
+        int lig = indice / nbColonnes;
+        int col = indice - lig * nbColonnes;
+        int nb = 0;
+        if (lig > 0) voisins[nb++] = indice - nbColonnes;
+        if (lig < nbLignes - 1) voisins[nb++] = indice + nbColonnes;
+        if (col < nbColonnes - 1) voisins[nb++] = indice + 1;
+        if (col > 0) voisins[nb++] = indice - 1;
+        return nb;
     }
 
     public int getNbLignes() {
@@ -61,10 +163,10 @@ public class Carte {
 
         List<Case> listVoisins = new ArrayList<>();
 
-        if (voisinExiste(src, Direction.NORD)) listVoisins.add(cases[lig - 1][col]);
-        if (voisinExiste(src, Direction.SUD)) listVoisins.add(cases[lig + 1][col]);
-        if (voisinExiste(src, Direction.EST)) listVoisins.add(cases[lig][col + 1]);
-        if (voisinExiste(src, Direction.OUEST)) listVoisins.add(cases[lig][col - 1]);
+        if (voisinExiste(src, Direction.NORD)) listVoisins.add(getCase(lig - 1, col));
+        if (voisinExiste(src, Direction.SUD)) listVoisins.add(getCase(lig + 1, col));
+        if (voisinExiste(src, Direction.EST)) listVoisins.add(getCase(lig, col + 1));
+        if (voisinExiste(src, Direction.OUEST)) listVoisins.add(getCase(lig, col - 1));
 
         return listVoisins;
     }
@@ -74,17 +176,39 @@ public class Carte {
         return ligne >= 0 && ligne < nbLignes && colonne >= 0 && colonne < nbColonnes;
     }
 
-    // Retourne une liste de toutes les cases contenant de l'eau
+    // Retourne la liste (non modifiable) de toutes les cases contenant de l'eau, calculée une seule fois
     public List<Case> getCasesEau() {
-        List<Case> casesEau = new ArrayList<>();
-        for (int i = 0; i < this.nbLignes; i++) {
-            for (int j = 0; j < this.nbColonnes; j++) {
-                Case caseCourante = this.getCase(i, j);
-                if (caseCourante.getNature() == NatureTerrain.EAU) {
-                    casesEau.add(caseCourante);
+        if (casesEau == null) {
+            List<Case> liste = new ArrayList<>();
+            byte eau = (byte) NatureTerrain.EAU.ordinal();
+            for (int i = 0; i < terrains.length; i++) {
+                if (terrains[i] == eau) {
+                    liste.add(getCase(i));
                 }
             }
+            casesEau = Collections.unmodifiableList(liste);
         }
         return casesEau;
     }
+
+    /**
+     * Retourne la grille des coûts de déplacement d'un robot sur cette carte. Elle est calculée
+     * au premier appel puis partagée par tous les robots de même type et de même vitesse. Le
+     * cache peut être consulté depuis les threads d'un lot parallèle (voir {@link EcheancierEvenements}).
+     *
+     * @param robot Le robot considéré.
+     * @return La grille des temps d'entrée dans chaque case pour ce robot.
+     */
+
+    public GrilleCouts getGrilleCouts(Robot robot) {
+        return grillesCouts.computeIfAbsent(robot.getCleCouts(), cle -> new GrilleCouts(this, robot));
+    }
+
+    // Recherche de plus court chemin réutilisable, propre à cette carte
+    public RechercheChemin getRechercheChemin() {
+        if (rechercheChemin == null) {
+            rechercheChemin = new RechercheChemin(this);
+        }
+        return rechercheChemin;
+    }
 }
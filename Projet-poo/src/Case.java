@@ -2,19 +2,20 @@
  * La classe Case représente une case individuelle sur une carte.
  * Une case est définie par ses coordonnées (ligne, colonne), sa nature (type de terrain),
  * et un incendie éventuel qui peut s'y trouver.
+ *
+ * Une Case n'est qu'une vue légère sur sa {@link Carte}, qui stocke la nature et l'incendie :
+ * elle est créée à la demande, et deux Case de mêmes coordonnées sur la même carte sont égales.
  */
 
 public class Case {
-    private int ligne;
-    private int colonne;
-    private NatureTerrain nature;
-    private Incendie incendie;
+    private final Carte carte;
+    private final int ligne;
+    private final int colonne;
 
-    public Case(int ligne, int colonne, NatureTerrain nature) {
+    public Case(Carte carte, int ligne, int colonne) {
+        this.carte = carte;
         this.ligne = ligne;
         this.colonne = colonne;
-        this.nature = nature;
-        this.incendie = null; // Par défaut, sans incendie
     }
 
     public int getLigne() {
@@ -26,20 +27,20 @@ public class Case {
     }
 
     public NatureTerrain getNature() {
-        return nature;
+        return carte.getNature(ligne, colonne);
     }
 
     public void setIncendie(Incendie incendie) {
-        this.incendie = incendie;
+        carte.setIncendie(carte.getIndice(this), incendie);
     }
 
     public Incendie getIncendie() {
-        return incendie;
+        return carte.getIncendie(carte.getIndice(this));
     }
 
     // Vérifie si la case contient de l'eau
     public boolean estCaseEau() {
-        return this.nature == NatureTerrain.EAU;
+        return getNature() == NatureTerrain.EAU;
     }
 
     // Calcule la distance entre deux cases
@@ -48,4 +49,22 @@ public class Case {
         int dy = this.colonne - autre.getColonne();
         return Math.sqrt(dx * dx + dy * dy);
     }
+
+    @Override
+    public boolean equals(Object autre) {
+        if (this == autre) {
+            return true;
+        }
+        if (!(autre instanceof Case)) {
+            return false;
+        }
+        Case c = (Case) autre;
+        return carte == c.carte && ligne == c.ligne && colonne == c.colonne;
+    }
+
+    // Indice à plat de la case, distinct pour chaque case de la carte
+    @Override
+    public int hashCode() {
+        return carte.getIndice(this);
+    }
 }
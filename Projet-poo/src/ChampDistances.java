@@ -0,0 +1,85 @@
+/**
+ * La classe ChampDistances donne, pour chaque case de la carte, le temps de trajet d'un robot
+ * jusqu'à la plus proche d'un ensemble de cases cibles, ainsi que cette cible.
+ *
+ * Le champ est obtenu par un seul Dijkstra "inverse" lancé simultanément depuis toutes les cibles :
+ * on remonte les arêtes, le coût d'un pas étant celui de l'entrée dans la case d'où l'on vient.
+ * Une fois calculé, la recherche de la cible la plus proche se fait en temps constant.
+ */
+
+public class ChampDistances {
+    /** Mémoire d'un champ par case de la carte : une distance, une cible et une case suivante */
+    public static final int OCTETS_PAR_CASE = 8 + 4 + 4;
+
+    private final double[] distances;
+    private final int[] cibles;         // cible la plus proche de chaque case, -1 si aucune
+    private final int[] suivants;       // case suivante sur le chemin vers cette cible
+
+    /**
+     * Calcule le champ des distances vers un ensemble de cibles.
+     *
+     * @param carte La carte.
+     * @param grille Les coûts d'entrée dans chaque case pour le type de robot considéré.
+     * @param sources Indices des cases cibles (elles doivent être franchissables par le robot).
+     */
+
+    public ChampDistances(Carte carte, GrilleCouts grille, int[] sources) {
+        int nbLignes = carte.getNbLignes();
+        int nbColonnes = carte.getNbColonnes();
+        int taille = nbLignes * nbColonnes;
+        this.distances = new double[taille];
+        this.cibles = new int[taille];
+        this.suivants = new int[taille];
+        java.util.Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        java.util.Arrays.fill(cibles, -1);
+        java.util.Arrays.fill(suivants, -1);
+
+        TasBinaireIndexe tas = new TasBinaireIndexe(taille);
+        for (int source : sources) {
+            distances[source] = 0.0;
+            cibles[source] = source;
+            tas.insererOuDiminuer(source, 0.0);
+        }
+
+        while (!tas.estVide()) {
+            int courant = tas.extraireMin();
+            // Depuis une case infranchissable (le départ d'un robot), on ne va pas plus loin
+            double cout = grille.getCout(courant);
+            if (cout == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            double nouvelleDistance = distances[courant] + cout;
+            int ligne = courant / nbColonnes;
+            int colonne = courant - ligne * nbColonnes;
+
+            if (ligne > 0) relacher(tas, courant, courant - nbColonnes, nouvelleDistance);
+            if (ligne < nbLignes - 1) relacher(tas, courant, courant + nbColonnes, nouvelleDistance);
+            if (colonne < nbColonnes - 1) relacher(tas, courant, courant + 1, nouvelleDistance);
+            if (colonne > 0) relacher(tas, courant, courant - 1, nouvelleDistance);
+        }
+    }
+
+    private void relacher(TasBinaireIndexe tas, int courant, int voisin, double nouvelleDistance) {
+        if (nouvelleDistance < distances[voisin]) {
+            distances[voisin] = nouvelleDistance;
+            cibles[voisin] = cibles[courant];
+            suivants[voisin] = courant;
+            tas.insererOuDiminuer(voisin, nouvelleDistance);
+        }
+    }
+
+    // Temps de trajet (en secondes) depuis la case jusqu'à la cible la plus proche
+    public double getDistance(int indice) {
+        return distances[indice];
+    }
+
+    // Indice de la cible la plus proche, -1 si aucune n'est accessible
+    public int getCible(int indice) {
+        return cibles[indice];
+    }
+
+    // Case suivante sur un plus court chemin vers la cible, -1 si la case est elle-même une cible
+    public int getSuivant(int indice) {
+        return suivants[indice];
+    }
+}
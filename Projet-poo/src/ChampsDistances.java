@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe ChampsDistances est un cache de {@link ChampDistances} pour une simulation donnée
+ * (donc pour une carte donnée), par type de robot : un champ vers les incendies actifs et un
+ * champ vers les cases où le robot peut se remplir.
+ *
+ * Un champ occupe {@link ChampDistances#OCTETS_PAR_CASE} octets par case : 64 Mo sur une carte de
+ * 2000x2000. Les champs les moins récemment utilisés sont donc évincés au-delà d'une capacité
+ * déduite de la taille de la carte et d'un budget mémoire, le quart de la mémoire maximale de la
+ * JVM ; elle reste comprise entre 2 et {@link #CAPACITE_MAX} champs.
+ *
+ * Les champs vers les incendies sont invalidés à chaque extinction et à chaque nouvel incendie ;
+ * ceux vers l'eau ne changent jamais. Le prochain usage recalcule le champ de chaque type de robot
+ * par un Dijkstra sur toute la carte : pour les quatre types, une extinction coûte de l'ordre de
+ * 50 ms à 300x300, 0,8 s à 1000x1000 et 3,4 s à 2000x2000 (mesure <code>champs</code> de
+ * {@link TestPerformances}). Une mise à jour partielle pourrait départager autrement qu'un calcul
+ * complet les cibles à égale distance, et une simulation reprise d'un instantané, qui recalcule
+ * ses champs, ne serait plus identique.
+ */
+
+public class ChampsDistances implements ObservateurIncendies {
+    /** Nombre maximal de champs gardés, atteint sur les petites cartes */
+    public static final int CAPACITE_MAX = 32;
+
+    private static final String INCENDIES = "|INCENDIES";
+    private static final String REMPLISSAGE = "|REMPLISSAGE";
+
+    private final DonneesSimulation donnees;
+    private final Map<String, ChampDistances> cache;
+
+    public ChampsDistances(DonneesSimulation donnees) {
+        this(donnees, capacite(donnees.getCarte(), Runtime.getRuntime().maxMemory() / 4));
+    }
+
+    public ChampsDistances(DonneesSimulation donnees, int capacite) {
+        this.donnees = donnees;
+        // LinkedHashMap dans l'ordre des accès : l'entrée la plus ancienne est la moins récemment utilisée
+        this.cache = new LinkedHashMap<String, ChampDistances>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChampDistances> plusAncienne) {
+                return size() > capacite;
+            }
+        };
+    }
+
+    /**
+     * Nombre de champs d'une carte qui tiennent dans un budget mémoire.
+     *
+     * @param carte La carte.
+     * @param memoire Le budget, en octets.
+     * @return La capacité, entre 2 (un champ vers les incendies et un vers l'eau) et {@link #CAPACITE_MAX}.
+     */
+
+    public static int capacite(Carte carte, long memoire) {
+        long parChamp = (long) ChampDistances.OCTETS_PAR_CASE * carte.getNbLignes() * carte.getNbColonnes();
+        return (int) Math.max(2, Math.min(CAPACITE_MAX, memoire / parChamp));
+    }
+
+    /**
+     * Champ des temps de trajet vers l'incendie actif le plus proche.
+     *
+     * @param robot Le robot considéré (seuls son type et sa vitesse comptent).
+     * @return Le champ, calculé au besoin.
+     */
+
+    public ChampDistances getChampIncendies(Robot robot) {
+        String cle = robot.getCleCouts() + INCENDIES;
+        ChampDistances champ = cache.get(cle);
+        if (champ == null) {
+            Carte carte = donnees.getCarte();
+            GrilleCouts grille = carte.getGrilleCouts(robot);
+            List<Integer> sources = new ArrayList<>();
+            for (int indice : donnees.getIndexIncendies().versTableau()) {
+                if (grille.estFranchissable(indice)) {
+                    sources.add(indice);
+                }
+            }
+            champ = new ChampDistances(carte, grille, versTableau(sources));
+            cache.put(cle, champ);
+        }
+        return champ;
+    }
+
+    /**
+     * Champ des temps de trajet vers la case de remplissage la plus proche : une case d'eau si le
+     * robot peut s'y rendre, sinon une case franchissable voisine d'une case d'eau.
+     *
+     * @param robot Le robot considéré (seuls son type et sa vitesse comptent).
+     * @return Le champ, calculé au besoin.
+     */
+
+    public ChampDistances getChampRemplissage(Robot robot) {
+        String cle = robot.getCleCouts() + REMPLISSAGE;
+        ChampDistances champ = cache.get(cle);
+        if (champ == null) {
+            Carte carte = donnees.getCarte();
+            GrilleCouts grille = carte.getGrilleCouts(robot);
+            champ = new ChampDistances(carte, grille, casesRemplissage(carte, grille));
+            cache.put(cle, champ);
+        }
+        return champ;
+    }
+
+    // Cases où un robot de cette grille peut se remplir, sans doublon
+    static int[] casesRemplissage(Carte carte, GrilleCouts grille) {
+        List<Integer> cases = new ArrayList<>();
+        boolean[] dejaVue = new boolean[grille.getTaille()];
+        for (Case caseEau : carte.getCasesEau()) {
+            List<Case> candidates = grille.estFranchissable(carte.getIndice(caseEau))
+                    ? List.of(caseEau) : carte.getVoisins(caseEau);
+            for (Case candidate : candidates) {
+                int indice = carte.getIndice(candidate);
+                if (!dejaVue[indice] && grille.estFranchissable(indice)) {
+                    dejaVue[indice] = true;
+                    cases.add(indice);
+                }
+            }
+        }
+        return versTableau(cases);
+    }
+
+    // Un incendie éteint change les cibles : on oublie tous les champs vers les incendies
+    @Override
+    public void incendieEteint(Incendie incendie) {
+        cache.keySet().removeIf(cle -> cle.endsWith(INCENDIES));
+    }
+
+    // De même pour un nouvel incendie
+    @Override
+    public void nouvelIncendie(Incendie incendie) {
+        cache.keySet().removeIf(cle -> cle.endsWith(INCENDIES));
+    }
+
+    public int getTaille() {
+        return cache.size();
+    }
+
+    private static int[] versTableau(List<Integer> liste) {
+        int[] tableau = new int[liste.size()];
+        for (int i = 0; i < tableau.length; i++) {
+            tableau[i] = liste.get(i);
+        }
+        return tableau;
+    }
+}
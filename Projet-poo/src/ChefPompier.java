@@ -1,15 +1,65 @@
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
  * La classe ChefPompier représente une entité responsable de la gestion des robots pompiers.
  * Elle utilise différentes stratégies pour affecter les robots aux incendies et optimiser leurs déplacements et interventions.
+ *
+ * Le chef pompier ne replanifie que lorsque l'état de la simulation a changé : il tient l'ensemble
+ * des robots "modifiés" (libérés depuis la dernière planification, ou restés libres alors qu'un
+ * incendie leur est accessible) et l'ensemble des incendies encore actifs. Une planification ne
+ * considère que ces robots, son coût dépend donc du nombre de changements et non de la taille de la flotte.
+ *
+ * Quand un incendie s'éteint, le plan des robots qui s'y rendaient encore est annulé (voir
+ * {@link Robot#abandonnerIncendie()}) : au lieu de revenir sur un incendie éteint, ils
+ * redeviennent disponibles là où ils se trouvent, après un remplissage si leur réservoir est vide.
  */
 
-public class ChefPompier {
+public class ChefPompier implements ObservateurIncendies {
     /** Données de la simulation, contenant les informations sur les incendies, robots, et la carte */
     private DonneesSimulation donnees;
 
+    /** Robots à reconsidérer lors de la prochaine planification */
+    private Set<Robot> robotsModifies;
+
+    /** Robots laissés libres par les stratégies optimale et coopérative, reconsidérés au prochain robot libéré ou incendie éteint */
+    private Set<Robot> robotsEnAttente;
+
+    /** Incendies d'intensité non nulle, dans l'ordre des données */
+    private Set<Incendie> incendiesActifs;
+
+    /** Rang de chaque robot dans la liste des données, pour les parcourir dans le même ordre */
+    private Map<Robot, Integer> rangs;
+
+    /** Incendies des données, suivis des nouveaux incendies, et rang de chacun dans cette liste */
+    private List<Incendie> incendiesParRang;
+    private Map<Incendie, Integer> rangsIncendies;
+
+    /** Trajets connus vers les incendies, par type de robot et case de départ (voir trajetsProches) */
+    private Map<String, TrajetsConnus> trajetsConnus;
+
+    /** Pénalité (en secondes) d'un robot qui ne pourrait pas remplir son réservoir près d'un incendie */
+    private static final double PENALITE_SANS_REMPLISSAGE = 1e9;
+
+    /** Nombre d'incendies, les plus proches, qu'un robot peut rejoindre dans la stratégie coopérative */
+    private static final int NB_INCENDIES_PROCHES = 16;
+
+    /** Marge relative sur la date au-delà de laquelle un incendie est urgent (voir imposerUrgences) */
+    private static final double MARGE_URGENCE = 0.25;
+
+    /** Avance (en secondes) donnée au coût de l'envoi d'un robot sur un incendie urgent */
+    private static final double PRIORITE_URGENCE = 1e12;
+
     /**
      * Constructeur de la classe ChefPompier.
      *
@@ -18,6 +68,150 @@ public class ChefPompier {
 
     public ChefPompier(DonneesSimulation donnees) {
         this.donnees = donnees;
+        this.robotsModifies = new HashSet<>(donnees.getRobots());
+        this.robotsEnAttente = new HashSet<>();
+        this.incendiesActifs = new LinkedHashSet<>();
+        this.rangs = new HashMap<>();
+        this.incendiesParRang = new ArrayList<>();
+        this.rangsIncendies = new HashMap<>();
+        this.trajetsConnus = new HashMap<>();
+        for (Incendie incendie : donnees.getIncendies()) {
+            rangsIncendies.put(incendie, incendiesParRang.size());
+            incendiesParRang.add(incendie);
+            if (incendie.getIntensite() > 0) {
+                incendiesActifs.add(incendie);
+            }
+        }
+        for (Robot robot : donnees.getRobots()) {
+            rangs.put(robot, rangs.size());
+        }
+        donnees.ajouterObservateur(this);
+    }
+
+    /**
+     * Signale qu'un robot vient de terminer son intervention et peut être réaffecté.
+     *
+     * @param robot Le robot libéré.
+     */
+
+    public void signalerRobotLibere(Robot robot) {
+        robotsModifies.add(robot);
+        reconsidererRobotsEnAttente();
+    }
+
+    /**
+     * Signale l'apparition d'un nouvel incendie : tous les robots libres doivent être reconsidérés.
+     *
+     * @param incendie Le nouvel incendie.
+     */
+
+    public void signalerNouvelIncendie(Incendie incendie) {
+        incendiesActifs.add(incendie);
+        if (!rangsIncendies.containsKey(incendie)) {
+            rangsIncendies.put(incendie, incendiesParRang.size());
+            incendiesParRang.add(incendie);
+        }
+        trajetsConnus.clear();
+        for (Robot robot : donnees.getRobots()) {
+            if (robot.estDisponible()) {
+                robotsModifies.add(robot);
+            }
+        }
+    }
+
+    @Override
+    public void incendieEteint(Incendie incendie) {
+        incendiesActifs.remove(incendie);
+        for (Robot robot : donnees.getRobots()) {
+            if (!robot.estDisponible() && robot.getIncendieEnCours() == incendie) {
+                robot.abandonnerIncendie();
+            }
+        }
+        reconsidererRobotsEnAttente();
+    }
+
+    // La libération d'un robot ou l'extinction d'un incendie change les équipes que les robots en
+    // attente pourraient renforcer
+    private void reconsidererRobotsEnAttente() {
+        robotsModifies.addAll(robotsEnAttente);
+        robotsEnAttente.clear();
+    }
+
+    @Override
+    public void nouvelIncendie(Incendie incendie) {
+        signalerNouvelIncendie(incendie);
+    }
+
+    // Robots à reconsidérer, dans l'ordre des données (voir InstantaneSimulation)
+    List<Robot> getRobotsModifies() {
+        List<Robot> liste = new ArrayList<>(robotsModifies);
+        liste.sort((r1, r2) -> Integer.compare(rangs.get(r1), rangs.get(r2)));
+        return liste;
+    }
+
+    void restaurerRobotsModifies(Collection<Robot> robots) {
+        robotsModifies.clear();
+        robotsModifies.addAll(robots);
+    }
+
+    // Robots en attente d'un changement, dans l'ordre des données (voir InstantaneSimulation)
+    List<Robot> getRobotsEnAttente() {
+        List<Robot> liste = new ArrayList<>(robotsEnAttente);
+        liste.sort((r1, r2) -> Integer.compare(rangs.get(r1), rangs.get(r2)));
+        return liste;
+    }
+
+    void restaurerRobotsEnAttente(Collection<Robot> robots) {
+        robotsEnAttente.clear();
+        robotsEnAttente.addAll(robots);
+    }
+
+    // Vrai si une planification peut changer quelque chose
+    public boolean aReplanifier() {
+        return !robotsModifies.isEmpty();
+    }
+
+    /**
+     * Planifie les robots modifiés depuis la dernière planification avec la stratégie demandée.
+     * Les robots restés libres alors qu'un incendie leur est encore accessible sont gardés pour
+     * la planification suivante ; les autres ne seront reconsidérés qu'au prochain changement.
+     * Les stratégies optimale et coopérative laissent libre un robot qui n'avancerait aucune
+     * extinction : le replanifier à chaque fois ne changerait rien, il attend donc qu'un robot
+     * soit libéré ou qu'un incendie s'éteigne.
+     *
+     * @param strategie Nom de la stratégie : Elementaire, Evoluee, Optimale ou Cooperative.
+     */
+
+    public void planifier(String strategie) {
+        if (robotsModifies.isEmpty()) {
+            return;
+        }
+        List<Robot> candidats = new ArrayList<>(robotsModifies);
+        candidats.sort((r1, r2) -> Integer.compare(rangs.get(r1), rangs.get(r2)));
+        robotsModifies.clear();
+
+        if (strategie.equals("Elementaire")) {
+            strategieElementaire(candidats);
+        } else if (strategie.equals("Evoluee")) {
+            strategieEvoluee(candidats);
+        } else if (strategie.equals("Optimale")) {
+            strategieOptimale(candidats);
+        } else if (strategie.equals("Cooperative")) {
+            strategieCooperative(candidats);
+        }
+
+        boolean attendreChangement = strategie.equals("Optimale") || strategie.equals("Cooperative");
+        for (Robot robot : candidats) {
+            if (robot.estDisponible() && peutIntervenir(robot)) {
+                (attendreChangement ? robotsEnAttente : robotsModifies).add(robot);
+            }
+        }
+    }
+
+    // Vrai si au moins un incendie actif est accessible au robot
+    private boolean peutIntervenir(Robot robot) {
+        ChampDistances champ = donnees.getChampsDistances().getChampIncendies(robot);
+        return champ.getCible(donnees.getCarte().getIndice(robot.getPosition())) >= 0;
     }
 
     /**
@@ -28,11 +222,13 @@ public class ChefPompier {
      */
 
     public void strategieElementaire() {
-        List<Incendie> incendies = donnees.getIncendies();
-        
-        for (Incendie incendie : incendies) {
+        strategieElementaire(donnees.getRobots());
+    }
+
+    private void strategieElementaire(Collection<Robot> robots) {
+        for (Incendie incendie : incendiesActifs) {
             if (incendie.getIntensite() > 0) {
-                for (Robot robot : donnees.getRobots()) {
+                for (Robot robot : robots) {
                     if (robot.estDisponible() && robot.peutSeDeplacerVers(incendie.getPosition())) {
                         // Affecter le robot à l'incendie, ce qui programme le déplacement et l'intervention différée
                         robot.affecterIncendie(incendie);
@@ -46,18 +242,22 @@ public class ChefPompier {
     /**
      * Stratégie évoluée : affecte chaque robot disponible à l'incendie le plus proche et accessible.
      *
-     * Cette stratégie améliore l'efficacité en minimisant les distances parcourues par les robots.
+     * Cette stratégie améliore l'efficacité en minimisant les temps de trajet des robots, calculés
+     * sur les vrais chemins grâce aux champs de distances.
      * Elle utilise une liste pour suivre les incendies déjà assignés afin d'éviter des affectations multiples.
      */
 
     public void strategieEvoluee() {
-        List<Incendie> incendies = donnees.getIncendies();
+        strategieEvoluee(donnees.getRobots());
+    }
+
+    private void strategieEvoluee(Collection<Robot> robots) {
         List<Incendie> incendiesAssignes = new ArrayList<>();
 
-        for (Robot robot : donnees.getRobots()) {
+        for (Robot robot : robots) {
             if (robot.estDisponible()) {
                 // Cherche l'incendie le plus proche et accessible
-                Incendie incendieLePlusProche = robot.findNearestAccessibleIncendie(incendies);
+                Incendie incendieLePlusProche = robot.findNearestAccessibleIncendie();
 
                 // Vérifie que l'incendie n'est pas déjà en cours de traitement
                 if (incendieLePlusProche != null && !incendiesAssignes.contains(incendieLePlusProche)) {
@@ -70,4 +270,460 @@ public class ChefPompier {
             }
         }
     }
+
+    /**
+     * Stratégie optimale : affecte les robots disponibles aux incendies par tours, au plus un
+     * nouveau robot par incendie et par tour, de façon à minimiser la somme des dates d'extinction
+     * estimées, par l'algorithme hongrois. Les robots affectés à un tour comptent dans les équipes
+     * du suivant ; les tours s'arrêtent quand plus aucun robot n'est affecté.
+     *
+     * La date d'extinction d'un couple (robot, incendie) est celle de l'équipe de l'incendie
+     * ({@link EquipeIncendie}) une fois le robot ajouté : vrai temps de trajet du robot, eau de son
+     * réservoir, allers-retours de remplissage, et robots déjà engagés sur l'incendie à la date de
+     * leur prochaine intervention. Renforcer un incendie proche peut donc coûter moins qu'en
+     * rejoindre seul un éloigné ; un robot qui n'avancerait pas l'extinction n'y est pas envoyé.
+     * Chaque robot ne considère que des incendies proches de lui (voir trajetsProches).
+     *
+     * La somme seule fait passer les petits incendies d'abord, quitte à laisser à un robot lent
+     * celui qui retardera la fin de la simulation : les incendies urgents passent donc avant les
+     * autres (voir imposerUrgences).
+     */
+
+    public void strategieOptimale() {
+        strategieOptimale(donnees.getRobots());
+    }
+
+    private void strategieOptimale(Collection<Robot> robots) {
+        List<Robot> robotsLibres = new ArrayList<>();
+        for (Robot robot : robots) {
+            if (robot.estDisponible()) {
+                robotsLibres.add(robot);
+            }
+        }
+        List<Incendie> actifs = new ArrayList<>(incendiesActifs);
+        if (robotsLibres.isEmpty() || actifs.isEmpty()) {
+            return;
+        }
+
+        EquipeIncendie[] equipes = equipesEngagees(actifs);
+        double[][] trajets = new double[robotsLibres.size()][];
+        for (int i = 0; i < robotsLibres.size(); i++) {
+            trajets[i] = trajetsProches(robotsLibres.get(i), actifs);
+        }
+
+        // Une affectation par tour, les robots affectés renforçant leur équipe pour le tour suivant
+        boolean affectes = true;
+        while (affectes && !robotsLibres.isEmpty()) {
+            double[][] couts = new double[robotsLibres.size()][actifs.size()];
+            for (int i = 0; i < robotsLibres.size(); i++) {
+                for (int j = 0; j < actifs.size(); j++) {
+                    couts[i][j] = estimerCout(equipes[j], robotsLibres.get(i), trajets[i][j],
+                            actifs.get(j).getPosition());
+                }
+            }
+            imposerUrgences(couts, equipes, actifs);
+            int[] affectation = AffectationHongroise.resoudre(couts);
+            List<Robot> restants = new ArrayList<>();
+            List<double[]> trajetsRestants = new ArrayList<>();
+            affectes = false;
+            for (int i = 0; i < affectation.length; i++) {
+                Robot robot = robotsLibres.get(i);
+                int j = affectation[i];
+                if (j >= 0) {
+                    robot.affecterIncendie(actifs.get(j));
+                    ajouterMembre(equipes[j], robot, Temps.depuisSecondes(trajets[i][j]), robot.getReservoir(),
+                            actifs.get(j).getPosition());
+                    affectes = true;
+                } else {
+                    restants.add(robot);
+                    trajetsRestants.add(trajets[i]);
+                }
+            }
+            robotsLibres = restants;
+            trajets = trajetsRestants.toArray(new double[0][]);
+        }
+    }
+
+    /**
+     * Donne la priorité, dans les coûts de la stratégie optimale, aux incendies qui retarderaient
+     * la fin de la simulation.
+     *
+     * Sans nouveau robot, un incendie finirait à la date de son équipe ou, s'il n'en a pas, quand
+     * un robot engagé ailleurs pourrait l'éteindre seul (voir datesSansRenfort). On cherche la plus
+     * petite date telle que chaque incendie qui finirait après elle puisse recevoir son propre robot
+     * libre, qui l'éteigne avant. Les incendies qui finiraient encore après cette date augmentée de
+     * {@link #MARGE_URGENCE} sont urgents : ils passent avant les autres, avec un robot qui les
+     * éteint avant elle. La marge laisse la somme des dates décider quand l'écart est faible.
+     *
+     * @param couts Les coûts des couples (robot libre, incendie), modifiés en place.
+     * @param equipes Les équipes des incendies.
+     * @param actifs Les incendies.
+     */
+
+    private void imposerUrgences(double[][] couts, EquipeIncendie[] equipes, List<Incendie> actifs) {
+        double[] sansRenfort = datesSansRenfort(equipes, actifs);
+        List<Double> dates = new ArrayList<>();
+        for (int j = 0; j < actifs.size(); j++) {
+            dates.add(sansRenfort[j]);
+            for (double[] ligne : couts) {
+                if (ligne[j] < AffectationHongroise.IMPOSSIBLE) {
+                    dates.add(ligne[j]);
+                }
+            }
+        }
+        Collections.sort(dates);
+
+        // La plus grande des dates convient toujours : aucun incendie ne finit après elle
+        int bas = 0;
+        int haut = dates.size() - 1;
+        while (bas < haut) {
+            int milieu = (bas + haut) / 2;
+            if (couvrir(couts, sansRenfort, dates.get(milieu))) {
+                haut = milieu;
+            } else {
+                bas = milieu + 1;
+            }
+        }
+        double limite = dates.get(bas) * (1 + MARGE_URGENCE);
+        for (int j = 0; j < actifs.size(); j++) {
+            if (sansRenfort[j] > limite) {
+                for (double[] ligne : couts) {
+                    ligne[j] = ligne[j] <= limite ? ligne[j] - PRIORITE_URGENCE : AffectationHongroise.IMPOSSIBLE;
+                }
+            }
+        }
+    }
+
+    // Date d'extinction de chaque incendie sans nouveau robot libre : celle de son équipe, ou pour un
+    // incendie sans équipe la plus tôt où un robot engagé l'éteindrait seul, parti de son incendie
+    // une fois celui-ci éteint
+    private double[] datesSansRenfort(EquipeIncendie[] equipes, List<Incendie> actifs) {
+        Map<Incendie, Integer> indices = new HashMap<>();
+        double[] dates = new double[actifs.size()];
+        for (int j = 0; j < actifs.size(); j++) {
+            indices.put(actifs.get(j), j);
+            dates[j] = equipes[j].getNbMembres() > 0 ? valeur(equipes[j].getDateExtinction()) : PENALITE_SANS_REMPLISSAGE;
+        }
+        for (Robot robot : donnees.getRobots()) {
+            Integer k = robot.estDisponible() ? null : indices.get(robot.getIncendieEnCours());
+            if (k == null || equipes[k].getDateExtinction() == Temps.INFINI) {
+                continue;
+            }
+            double liberation = Temps.enSecondes(equipes[k].getDateExtinction());
+            double[] trajets = trajetsProches(robot, actifs.get(k).getPosition(), actifs);
+            for (int j = 0; j < actifs.size(); j++) {
+                if (equipes[j].getNbMembres() == 0 && !Double.isInfinite(trajets[j])) {
+                    double seul = estimerCout(new EquipeIncendie(actifs.get(j).getIntensite()), robot, trajets[j],
+                            actifs.get(j).getPosition());
+                    dates[j] = Math.min(dates[j], liberation + seul);
+                }
+            }
+        }
+        return dates;
+    }
+
+    // Vrai si chaque incendie qui finirait après la date peut recevoir son propre robot libre qui
+    // l'éteigne avant elle, par chemins augmentants
+    private static boolean couvrir(double[][] couts, double[] sansRenfort, double date) {
+        int[] incendieDe = new int[couts.length];
+        Arrays.fill(incendieDe, -1);
+        for (int j = 0; j < sansRenfort.length; j++) {
+            if (sansRenfort[j] > date && !couvrir(couts, j, date, incendieDe, new boolean[couts.length])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean couvrir(double[][] couts, int j, double date, int[] incendieDe, boolean[] vus) {
+        for (int i = 0; i < couts.length; i++) {
+            if (!vus[i] && couts[i][j] <= date) {
+                vus[i] = true;
+                if (incendieDe[i] < 0 || couvrir(couts, incendieDe[i], date, incendieDe, vus)) {
+                    incendieDe[i] = j;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Coût de l'envoi d'un robot sur un incendie pour la stratégie optimale : la date d'extinction
+     * estimée de l'incendie avec lui.
+     *
+     * @param equipe L'équipe de l'incendie.
+     * @param robot Le robot.
+     * @param trajet Temps de trajet du robot jusqu'à l'incendie, infini s'il ne le considère pas.
+     * @param cible La case de l'incendie.
+     * @return Le coût en secondes, ou {@link AffectationHongroise#IMPOSSIBLE} si le robot ne peut
+     *         pas avancer l'extinction.
+     */
+
+    private double estimerCout(EquipeIncendie equipe, Robot robot, double trajet, Case cible) {
+        if (Double.isInfinite(trajet)) {
+            return AffectationHongroise.IMPOSSIBLE;
+        }
+        long[] membre = membre(robot, Temps.depuisSecondes(trajet), robot.getReservoir(), cible);
+        long avec = equipe.getDateExtinctionAvec(membre[0], membre[1], membre[2], membre[3]);
+        if (avec == Temps.INFINI) {
+            // Le robot ne pourra pas se remplir : il n'apporte que ce qu'il a déjà
+            return robot.getReservoir() > 0 ? trajet + PENALITE_SANS_REMPLISSAGE : AffectationHongroise.IMPOSSIBLE;
+        }
+        if (equipe.getNbMembres() > 0 && avec >= equipe.getDateExtinction()) {
+            return AffectationHongroise.IMPOSSIBLE;
+        }
+        return Temps.enSecondes(avec);
+    }
+
+    /**
+     * Stratégie coopérative : plusieurs robots peuvent attaquer ensemble un même incendie.
+     *
+     * Chaque incendie a une équipe ({@link EquipeIncendie}) dont on estime la date d'extinction à
+     * partir de l'intensité, des dates d'arrivée, des réservoirs et des cycles de remplissage de ses
+     * membres ; les robots déjà engagés y comptent à la date de la prochaine intervention de leur
+     * plan. Les robots libres sont ajoutés un à un, glouton : parmi les équipes dont il avance
+     * l'extinction, un robot va à celle qui finira le plus tôt avec lui, si bien que les incendies
+     * vite éteints passent d'abord et libèrent leurs robots pour les suivants. Un robot qui
+     * arriverait après l'extinction prévue n'apporte rien et reste libre. Chaque robot ne considère
+     * que des incendies proches de lui (voir trajetsProches).
+     *
+     * Quand une équipe grandit, seules les propositions qui la concernent sont périmées : elles
+     * sont réévaluées au moment où elles sortent de la file.
+     */
+
+    public void strategieCooperative() {
+        strategieCooperative(donnees.getRobots());
+    }
+
+    // Ajout proposé d'un robot à une équipe, tel qu'évalué pour une version de l'équipe
+    private static class Proposition {
+        final double gain;
+        final int robot;
+        final int incendie;
+        final int version;
+
+        Proposition(double gain, int robot, int incendie, int version) {
+            this.gain = gain;
+            this.robot = robot;
+            this.incendie = incendie;
+            this.version = version;
+        }
+    }
+
+    private void strategieCooperative(Collection<Robot> robots) {
+        List<Robot> robotsLibres = new ArrayList<>();
+        for (Robot robot : robots) {
+            if (robot.estDisponible()) {
+                robotsLibres.add(robot);
+            }
+        }
+        List<Incendie> actifs = new ArrayList<>(incendiesActifs);
+        if (robotsLibres.isEmpty() || actifs.isEmpty()) {
+            return;
+        }
+        EquipeIncendie[] equipes = equipesEngagees(actifs);
+
+        // Trajets réels des robots libres vers leurs incendies les plus proches, les autres étant ignorés
+        double[][] trajets = new double[robotsLibres.size()][];
+        for (int i = 0; i < robotsLibres.size(); i++) {
+            trajets[i] = trajetsProches(robotsLibres.get(i), actifs);
+        }
+
+        // Glouton paresseux : le meilleur gain d'abord, à égalité l'ordre des robots puis des incendies
+        int[] versions = new int[actifs.size()];
+        PriorityQueue<Proposition> propositions = new PriorityQueue<>((a, b) -> a.gain != b.gain
+                ? Double.compare(b.gain, a.gain)
+                : a.robot != b.robot ? Integer.compare(a.robot, b.robot) : Integer.compare(a.incendie, b.incendie));
+        for (int i = 0; i < robotsLibres.size(); i++) {
+            for (int j = 0; j < actifs.size(); j++) {
+                double gain = gain(equipes[j], robotsLibres.get(i), trajets[i][j], actifs.get(j).getPosition());
+                if (gain > 0) {
+                    propositions.add(new Proposition(gain, i, j, 0));
+                }
+            }
+        }
+        boolean[] affectes = new boolean[robotsLibres.size()];
+        while (!propositions.isEmpty()) {
+            Proposition proposition = propositions.poll();
+            int i = proposition.robot;
+            int j = proposition.incendie;
+            if (affectes[i]) {
+                continue;
+            }
+            Robot robot = robotsLibres.get(i);
+            Case cible = actifs.get(j).getPosition();
+            if (proposition.version != versions[j]) {
+                double gain = gain(equipes[j], robot, trajets[i][j], cible);
+                if (gain > 0) {
+                    propositions.add(new Proposition(gain, i, j, versions[j]));
+                }
+                continue;
+            }
+            robot.affecterIncendie(actifs.get(j));
+            ajouterMembre(equipes[j], robot, Temps.depuisSecondes(trajets[i][j]), robot.getReservoir(), cible);
+            versions[j]++;
+            affectes[i] = true;
+        }
+    }
+
+    /**
+     * Équipes des incendies, formées des robots déjà engagés : chacun les rejoint à la prochaine
+     * intervention de son plan, avec un réservoir plein s'il revient d'un remplissage.
+     *
+     * @param incendies Les incendies.
+     * @return L'équipe de chaque incendie, dans le même ordre.
+     */
+
+    private EquipeIncendie[] equipesEngagees(List<Incendie> incendies) {
+        Map<Incendie, Integer> indices = new HashMap<>();
+        EquipeIncendie[] equipes = new EquipeIncendie[incendies.size()];
+        for (int j = 0; j < incendies.size(); j++) {
+            indices.put(incendies.get(j), j);
+            equipes[j] = new EquipeIncendie(incendies.get(j).getIntensite());
+        }
+        for (Robot robot : donnees.getRobots()) {
+            Integer j = robot.estDisponible() ? null : indices.get(robot.getIncendieEnCours());
+            long date = robot.getDateProchaineIntervention();
+            if (j != null && date >= 0) {
+                long arrivee = Math.max(0, date - robot.getSimulateur().getDateActuelle());
+                int eau = robot.getReservoir() > 0 ? robot.getReservoir() : robot.getCapaciteMax();
+                ajouterMembre(equipes[j], robot, arrivee, eau, incendies.get(j).getPosition());
+            }
+        }
+        return equipes;
+    }
+
+    // Temps de trajet depuis une case vers les incendies situés à moins d'un rayon
+    private static class TrajetsConnus {
+        final double[] trajets;   // par rang d'incendie, infini au-delà du rayon
+        int[] ordre = new int[0]; // rangs des incendies connus, du plus proche au plus éloigné
+        double rayon;
+
+        TrajetsConnus(int nbIncendies) {
+            this.trajets = new double[nbIncendies];
+            Arrays.fill(trajets, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Temps de trajet d'un robot vers les incendies qu'il considère : les {@link #NB_INCENDIES_PROCHES}
+     * plus proches des incendies donnés parmi ses {@link #NB_INCENDIES_PROCHES} incendies les plus
+     * proches, éteints compris, ou parmi les deux, quatre... fois plus nombreux s'il en reste moins
+     * de la moitié (à égalité, les premiers des données). Le choix ne dépend que de l'état courant :
+     * une simulation reprise depuis un instantané considère les mêmes incendies.
+     *
+     * Les explorations s'arrêtent dès que les incendies cherchés sont atteints ; leurs résultats
+     * sont gardés pour les robots de même type partant de la même case (une équipe libérée par
+     * l'extinction de son incendie, un robot resté libre).
+     *
+     * @param incendies Les incendies que le robot peut rejoindre.
+     * @return Le temps de trajet vers chaque incendie, infini pour ceux qui ne sont pas retenus.
+     */
+
+    private double[] trajetsProches(Robot robot, List<Incendie> incendies) {
+        return trajetsProches(robot, robot.getPosition(), incendies);
+    }
+
+    // Pareil depuis une autre case que celle du robot
+    private double[] trajetsProches(Robot robot, Case position, List<Incendie> incendies) {
+        Carte carte = donnees.getCarte();
+        int depart = carte.getIndice(position);
+        String cle = robot.getCleCouts() + "@" + depart;
+        TrajetsConnus connus = trajetsConnus.get(cle);
+        if (connus == null) {
+            if (trajetsConnus.size() >= 2 * rangs.size()) {
+                trajetsConnus.clear();
+            }
+            connus = new TrajetsConnus(incendiesParRang.size());
+            trajetsConnus.put(cle, connus);
+        }
+
+        Set<Incendie> consideres = new HashSet<>(incendies);
+        int nbVoulus = Math.min(NB_INCENDIES_PROCHES, incendies.size());
+        List<Incendie> retenus = new ArrayList<>();
+        for (int nbProches = NB_INCENDIES_PROCHES; retenus.size() < (nbVoulus + 1) / 2; nbProches *= 2) {
+            List<Incendie> proches = incendiesProches(robot, depart, Math.min(nbProches, incendiesParRang.size()), connus);
+            retenus.clear();
+            for (Incendie incendie : proches) {
+                if (consideres.contains(incendie) && retenus.size() < nbVoulus) {
+                    retenus.add(incendie);
+                }
+            }
+            if (nbProches >= incendiesParRang.size() || proches.size() < nbProches) {
+                break;
+            }
+        }
+
+        double[] trajets = new double[incendies.size()];
+        Arrays.fill(trajets, Double.POSITIVE_INFINITY);
+        Set<Incendie> ensembleRetenus = new HashSet<>(retenus);
+        for (int j = 0; j < incendies.size(); j++) {
+            if (ensembleRetenus.contains(incendies.get(j))) {
+                trajets[j] = connus.trajets[rangsIncendies.get(incendies.get(j))];
+            }
+        }
+        return trajets;
+    }
+
+    // Les nbProches incendies les plus proches, éteints compris, du plus proche au plus éloigné ;
+    // moins s'ils ne sont pas tous accessibles. L'exploration n'est élargie que si besoin.
+    private List<Incendie> incendiesProches(Robot robot, int depart, int nbProches, TrajetsConnus connus) {
+        if (connus.ordre.length < nbProches && connus.rayon < Double.POSITIVE_INFINITY) {
+            Carte carte = donnees.getCarte();
+            BitSet casesIncendies = new BitSet();
+            for (Incendie incendie : incendiesParRang) {
+                casesIncendies.set(carte.getIndice(incendie.getPosition()));
+            }
+            RechercheChemin recherche = carte.getRechercheChemin();
+            double rayon = recherche.explorerVersCibles(robot.getGrilleCouts(), depart, casesIncendies, nbProches);
+            double[] trajets = connus.trajets;
+            List<Integer> ordre = new ArrayList<>();
+            for (int rang = 0; rang < incendiesParRang.size(); rang++) {
+                double trajet = recherche.getDistance(carte.getIndice(incendiesParRang.get(rang).getPosition()));
+                trajets[rang] = trajet <= rayon ? trajet : Double.POSITIVE_INFINITY;
+                if (trajet <= rayon) {
+                    ordre.add(rang);
+                }
+            }
+            ordre.sort((r1, r2) -> Double.compare(trajets[r1], trajets[r2]));
+            connus.ordre = ordre.stream().mapToInt(Integer::intValue).toArray();
+            connus.rayon = rayon;
+        }
+        List<Incendie> proches = new ArrayList<>();
+        for (int i = 0; i < Math.min(nbProches, connus.ordre.length); i++) {
+            proches.add(incendiesParRang.get(connus.ordre[i]));
+        }
+        return proches;
+    }
+
+    // Parmi les équipes dont le robot avance l'extinction, préfère celle qui finira le plus tôt avec
+    // lui : les petits incendies proches sont éteints d'abord, ce qui libère vite leurs robots ;
+    // sans équipe, l'incendie compte pour la pénalité
+    private double gain(EquipeIncendie equipe, Robot robot, double trajet, Case cible) {
+        if (Double.isInfinite(trajet)) {
+            return 0;
+        }
+        long[] membre = membre(robot, Temps.depuisSecondes(trajet), robot.getReservoir(), cible);
+        double avec = valeur(equipe.getDateExtinctionAvec(membre[0], membre[1], membre[2], membre[3]));
+        return avec < valeur(equipe.getDateExtinction()) ? 1 / Math.max(1.0, avec) : 0;
+    }
+
+    private static double valeur(long dateExtinction) {
+        return dateExtinction == Temps.INFINI ? PENALITE_SANS_REMPLISSAGE : Temps.enSecondes(dateExtinction);
+    }
+
+    private void ajouterMembre(EquipeIncendie equipe, Robot robot, long arrivee, int eau, Case cible) {
+        long[] membre = membre(robot, arrivee, eau, cible);
+        equipe.ajouter(membre[0], membre[1], membre[2], membre[3]);
+    }
+
+    // Arrivée, eau apportée à l'arrivée, capacité et cycle de remplissage d'un robot qui rejoint un incendie
+    private long[] membre(Robot robot, long arrivee, int eau, Case cible) {
+        ChampDistances remplissage = donnees.getChampsDistances().getChampRemplissage(robot);
+        double trajetEau = remplissage.getDistance(donnees.getCarte().getIndice(cible));
+        long cycle = Double.isInfinite(trajetEau) ? Temps.INFINI
+                : Temps.apres(Temps.depuisSecondes(2 * trajetEau), robot.tempsRemplissage());
+        return new long[] { arrivee, eau, robot.getCapaciteMax(), cycle };
+    }
 }
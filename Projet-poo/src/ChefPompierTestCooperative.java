@@ -0,0 +1,70 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * La classe ChefPompierTestCooperative teste la stratégie coopérative de la classe ChefPompier.
+ * Cette stratégie peut envoyer plusieurs robots sur un même incendie : chaque robot renforce,
+ * parmi les équipes dont il avance l'extinction, celle qui finira le plus tôt compte tenu de
+ * l'intensité, des réservoirs et des dates d'arrivée.
+ */
+
+public class ChefPompierTestCooperative {
+
+    /**
+     * Point d'entrée principal pour exécuter le test de la stratégie coopérative.
+     *
+     * @param args Les arguments de la ligne de commande. Le premier argument doit être le chemin
+     *             vers le fichier de carte à utiliser pour la simulation. Les suivants sont les options
+     *             d'affichage (voir {@link Simulateur#appliquerOptions(String[])}).
+     */
+
+    public static void main(String[] args) {
+
+        String fichierCarte = args[0];
+
+        try {
+            DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
+            Simulateur simulateur = new Simulateur(donnees, fichierCarte);
+            simulateur.setTypeTest("Cooperative");
+            simulateur.appliquerOptions(args);
+            ChefPompier chefPompier = new ChefPompier(donnees);
+            simulateur.setChefPompier(chefPompier);
+
+            // Exécution des tests
+            testStrategieCooperative(chefPompier, donnees);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Teste la stratégie coopérative et affiche l'équipe envoyée sur chaque incendie.
+     *
+     * Chaque incendie accessible doit recevoir au moins un robot tant qu'il reste des robots libres.
+     *
+     * @param chefPompier L'instance de ChefPompier contenant la stratégie coopérative à tester.
+     * @param donnees Les données de simulation utilisées pour vérifier les affectations.
+     */
+
+    private static void testStrategieCooperative(ChefPompier chefPompier, DonneesSimulation donnees) {
+        System.out.println("\nTest de la stratégie coopérative...");
+
+        chefPompier.strategieCooperative();
+
+        Map<Incendie, StringBuilder> equipes = new LinkedHashMap<>();
+        for (Incendie incendie : donnees.getIncendies()) {
+            equipes.put(incendie, new StringBuilder());
+        }
+        for (Robot robot : donnees.getRobots()) {
+            if (robot.enIntervention() && robot.getIncendieEnCours() != null) {
+                equipes.get(robot.getIncendieEnCours()).append(' ').append(robot.getIdentifiant());
+            }
+        }
+        for (Map.Entry<Incendie, StringBuilder> equipe : equipes.entrySet()) {
+            Case position = equipe.getKey().getPosition();
+            System.out.println("Incendie (" + position.getLigne() + ", " + position.getColonne() + "), "
+                    + equipe.getKey().getIntensite() + " L :" + equipe.getValue());
+        }
+    }
+}
@@ -13,7 +13,8 @@ public class ChefPompierTestElementaire {
      * Point d'entrée principal pour exécuter le test de la stratégie élémentaire.
      *
      * @param args Les arguments de la ligne de commande. Le premier argument doit être le chemin
-     *             vers le fichier de carte à utiliser pour la simulation.
+     *             vers le fichier de carte à utiliser pour la simulation. Les suivants sont les options
+     *             d'affichage (voir {@link Simulateur#appliquerOptions(String[])}).
      */
 
     public static void main(String[] args) {
@@ -24,6 +25,7 @@ public class ChefPompierTestElementaire {
             DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
             Simulateur simulateur =  new Simulateur(donnees, fichierCarte);
             simulateur.setTypeTest("Elementaire");
+            simulateur.appliquerOptions(args);
             ChefPompier chefPompier = new ChefPompier(donnees);
             simulateur.setChefPompier(chefPompier);
 
@@ -10,7 +10,8 @@ public class ChefPompierTestEvoluee {
      * Point d'entrée principal pour exécuter le test de la stratégie évoluée.
      *
      * @param args Les arguments de la ligne de commande. Le premier argument doit être le chemin
-     *             vers le fichier de carte à utiliser pour la simulation.
+     *             vers le fichier de carte à utiliser pour la simulation. Les suivants sont les options
+     *             d'affichage (voir {@link Simulateur#appliquerOptions(String[])}).
      */
 
     public static void main(String[] args) {
@@ -21,6 +22,7 @@ public class ChefPompierTestEvoluee {
             DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
             Simulateur simulateur = new Simulateur(donnees, fichierCarte);
             simulateur.setTypeTest("Evoluee");
+            simulateur.appliquerOptions(args);
             ChefPompier chefPompier = new ChefPompier(donnees);
             simulateur.setChefPompier(chefPompier);
 
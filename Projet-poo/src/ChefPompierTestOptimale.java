@@ -0,0 +1,61 @@
+/**
+ * La classe ChefPompierTestOptimale teste la stratégie optimale de la classe ChefPompier.
+ * Cette stratégie calcule l'affectation robots / incendies qui minimise la somme des dates
+ * d'extinction estimées (trajets réels, remplissages et robots déjà engagés), par l'algorithme hongrois,
+ * en faisant passer d'abord les incendies qui retarderaient la fin de la simulation.
+ */
+
+public class ChefPompierTestOptimale {
+
+    /**
+     * Point d'entrée principal pour exécuter le test de la stratégie optimale.
+     *
+     * @param args Les arguments de la ligne de commande. Le premier argument doit être le chemin
+     *             vers le fichier de carte à utiliser pour la simulation. Les suivants sont les options
+     *             d'affichage (voir {@link Simulateur#appliquerOptions(String[])}).
+     */
+
+    public static void main(String[] args) {
+
+        String fichierCarte = args[0];
+
+        try {
+            DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
+            Simulateur simulateur = new Simulateur(donnees, fichierCarte);
+            simulateur.setTypeTest("Optimale");
+            simulateur.appliquerOptions(args);
+            ChefPompier chefPompier = new ChefPompier(donnees);
+            simulateur.setChefPompier(chefPompier);
+
+            // Exécution des tests
+            testStrategieOptimale(chefPompier, donnees);
+                        
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Teste la stratégie optimale en s'assurant que tous les robots disponibles sont affectés
+     * aux incendies actifs.
+     *
+     * Chaque incendie reçoit au plus un robot tant qu'il reste des incendies non traités.
+     *
+     * @param chefPompier L'instance de ChefPompier contenant la stratégie optimale à tester.
+     * @param donnees Les données de simulation utilisées pour vérifier les affectations.
+     */
+
+    private static void testStrategieOptimale(ChefPompier chefPompier, DonneesSimulation donnees) {
+        System.out.println("\nTest de la stratégie optimale...");
+        
+        chefPompier.strategieOptimale();
+
+        boolean allAssigned = true;
+        for (Robot robot : donnees.getRobots()) {
+            if (!robot.enIntervention() || robot.incendieEnCours == null) {
+                allAssigned = false;
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * La classe CheminCompresse représente un chemin sur la carte par la liste de ses sommets :
+ * la case de départ, puis chaque case où le chemin change de direction. Entre deux sommets
+ * alignés, le chemin avance case par case en ligne droite ; un pas vers une case qui n'est pas
+ * voisine (destination inaccessible, chemin donné à la main) forme un segment d'un seul pas.
+ *
+ * Un trajet de plusieurs milliers de cases ne coûte ainsi que deux entiers par virage, au lieu
+ * d'un objet par case. Le chemin est immuable ; on le parcourt avec un {@link Curseur}.
+ */
+
+public final class CheminCompresse {
+    private final int nbColonnes;
+    private final int depart;
+    // Pour chaque segment : la case d'arrivée et le nombre de pas pour l'atteindre
+    private final int[] cibles;
+    private final int[] nbPas;
+    private final int longueur;
+
+    private CheminCompresse(int nbColonnes, int depart, int[] cibles, int[] nbPas) {
+        this.nbColonnes = nbColonnes;
+        this.depart = depart;
+        this.cibles = cibles;
+        this.nbPas = nbPas;
+        int total = 1;
+        for (int n : nbPas) {
+            total += n;
+        }
+        this.longueur = total;
+    }
+
+    /**
+     * Compresse une liste de cases (la case de départ comprise).
+     *
+     * @param carte La carte des cases.
+     * @param chemin Le chemin, non vide.
+     * @return Le chemin compressé.
+     */
+
+    public static CheminCompresse depuis(Carte carte, List<Case> chemin) {
+        int[] indices = new int[chemin.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = carte.getIndice(chemin.get(i));
+        }
+        return depuis(carte.getNbColonnes(), indices);
+    }
+
+    /**
+     * Compresse un chemin donné par les indices de ses cases (la case de départ comprise).
+     *
+     * @param nbColonnes Nombre de colonnes de la carte.
+     * @param indices Les indices des cases, au moins un.
+     * @return Le chemin compressé.
+     */
+
+    public static CheminCompresse depuis(int nbColonnes, int[] indices) {
+        int[] cibles = new int[indices.length];
+        int[] nbPas = new int[indices.length];
+        int nbSegments = 0;
+        int pasSegment = 0;   // déplacement d'un pas du segment ouvert, 0 si aucun segment n'est ouvert
+        for (int i = 1; i < indices.length; i++) {
+            int pas = indices[i] - indices[i - 1];
+            boolean voisin = estVoisin(nbColonnes, indices[i - 1], indices[i]);
+            if (voisin && pas == pasSegment) {
+                cibles[nbSegments - 1] = indices[i];
+                nbPas[nbSegments - 1]++;
+            } else {
+                cibles[nbSegments] = indices[i];
+                nbPas[nbSegments] = 1;
+                nbSegments++;
+                pasSegment = voisin ? pas : 0;
+            }
+        }
+        int[] ciblesCompactes = new int[nbSegments];
+        int[] nbPasCompacts = new int[nbSegments];
+        System.arraycopy(cibles, 0, ciblesCompactes, 0, nbSegments);
+        System.arraycopy(nbPas, 0, nbPasCompacts, 0, nbSegments);
+        return new CheminCompresse(nbColonnes, indices[0], ciblesCompactes, nbPasCompacts);
+    }
+
+    private static boolean estVoisin(int nbColonnes, int a, int b) {
+        int diff = Math.abs(a - b);
+        return diff == nbColonnes || (diff == 1 && a / nbColonnes == b / nbColonnes);
+    }
+
+    // Nombre de cases du chemin, la case de départ comprise
+    public int getLongueur() {
+        return longueur;
+    }
+
+    public int getDepart() {
+        return depart;
+    }
+
+    public int getArrivee() {
+        return cibles.length == 0 ? depart : cibles[cibles.length - 1];
+    }
+
+    public int getNbSegments() {
+        return cibles.length;
+    }
+
+    /**
+     * Durée du parcours complet, chaque case (départ comprise) comptant pour la durée de sa
+     * traversée, comme dans {@link Robot#programmerDeplacements(List, long)}.
+     *
+     * @param grille La grille des coûts du robot.
+     * @return La durée en millisecondes, {@link Temps#INFINI} si une case est infranchissable.
+     */
+
+    public long getDuree(GrilleCouts grille) {
+        Curseur curseur = curseur();
+        long duree = grille.getDuree(depart);
+        while (curseur.aSuivante()) {
+            curseur.avancer();
+            duree = Temps.apres(duree, grille.getDuree(curseur.getCaseCourante()));
+        }
+        return duree;
+    }
+
+    public Curseur curseur() {
+        return new Curseur();
+    }
+
+    /**
+     * Position dans un chemin : l'indice de la case courante et le moyen d'atteindre la suivante
+     * en temps constant.
+     */
+
+    public final class Curseur {
+        private int etape;      // rang de la case courante dans le chemin (0 pour le départ)
+        private int segment;    // segment menant à la case suivante
+        private int pasFaits;   // pas déjà faits dans ce segment
+        private int caseCourante = depart;
+
+        private Curseur() {
+        }
+
+        public int getEtape() {
+            return etape;
+        }
+
+        public int getCaseCourante() {
+            return caseCourante;
+        }
+
+        public boolean aSuivante() {
+            return segment < cibles.length;
+        }
+
+        // Case suivante, sans avancer (le chemin ne doit pas être fini)
+        public int getCaseSuivante() {
+            if (nbPas[segment] == 1) {
+                return cibles[segment];
+            }
+            return caseCourante + pasUnitaire(segment);
+        }
+
+        public void avancer() {
+            caseCourante = getCaseSuivante();
+            etape++;
+            if (++pasFaits == nbPas[segment]) {
+                segment++;
+                pasFaits = 0;
+            }
+        }
+
+        // Avance jusqu'à l'étape donnée (supérieure ou égale à l'étape courante)
+        public void avancerJusqua(int etapeCible) {
+            while (etape < etapeCible && aSuivante()) {
+                avancer();
+            }
+        }
+    }
+
+    // Déplacement d'un pas dans un segment de plusieurs pas, qui relie donc deux cases alignées
+    private int pasUnitaire(int segment) {
+        int origine = segment == 0 ? depart : cibles[segment - 1];
+        return (cibles[segment] - origine) / nbPas[segment];
+    }
+
+    /**
+     * Écrit le chemin dans un instantané : colonnes, départ, nombre de segments puis
+     * (case d'arrivée, nombre de pas) pour chacun.
+     */
+
+    public void ecrire(DataOutputStream sortie) throws IOException {
+        sortie.writeInt(nbColonnes);
+        sortie.writeInt(depart);
+        sortie.writeInt(cibles.length);
+        for (int i = 0; i < cibles.length; i++) {
+            sortie.writeInt(cibles[i]);
+            sortie.writeInt(nbPas[i]);
+        }
+    }
+
+    // Relit un chemin écrit par ecrire
+    public static CheminCompresse lire(ByteBuffer entree) {
+        int nbColonnes = entree.getInt();
+        int depart = entree.getInt();
+        int[] cibles = new int[entree.getInt()];
+        int[] nbPas = new int[cibles.length];
+        for (int i = 0; i < cibles.length; i++) {
+            cibles[i] = entree.getInt();
+            nbPas[i] = entree.getInt();
+        }
+        return new CheminCompresse(nbColonnes, depart, cibles, nbPas);
+    }
+}
@@ -4,17 +4,23 @@ import java.util.List;
 /**
  * La classe DonneesSimulation contient les données nécessaires pour exécuter une simulation.
  * Elle inclut la carte, les incendies, et les robots, et fournit des méthodes pour gérer ces éléments.
+ * Elle relaie aussi les changements d'état des incendies aux {@link ObservateurIncendies} enregistrés.
  */
 
-public class DonneesSimulation {
+public class DonneesSimulation implements ObservateurIncendies {
     private Carte carte;
     private List<Incendie> incendies;
     private List<Robot> robots;
+    private List<ObservateurIncendies> observateurs;
+    private ChampsDistances champsDistances;
+    private PlanificateurRemplissage planificateurRemplissage;
+    private IndexSpatial indexIncendies;
 
     public DonneesSimulation(Carte carte) {
         this.carte = carte;
         this.incendies = new ArrayList<>();
         this.robots = new ArrayList<>();
+        this.observateurs = new ArrayList<>();
     }
 
     public Carte getCarte() {
@@ -31,6 +37,70 @@ public class DonneesSimulation {
 
     public void ajouterIncendie(Incendie incendie) {
         this.incendies.add(incendie);
+        incendie.setObservateur(this);
+        if (indexIncendies != null && incendie.getIntensite() > 0) {
+            indexIncendies.ajouter(incendie.getPosition());
+        }
+    }
+
+    /**
+     * Ajoute un incendie apparu en cours de simulation : il est placé sur sa case et signalé aux
+     * observateurs.
+     *
+     * @param incendie Le nouvel incendie.
+     */
+
+    public void allumerIncendie(Incendie incendie) {
+        ajouterIncendie(incendie);
+        incendie.getPosition().setIncendie(incendie);
+        for (int i = 0; i < observateurs.size(); i++) {
+            observateurs.get(i).nouvelIncendie(incendie);
+        }
+    }
+
+    public void ajouterObservateur(ObservateurIncendies observateur) {
+        this.observateurs.add(observateur);
+    }
+
+    @Override
+    public void incendieEteint(Incendie incendie) {
+        if (indexIncendies != null) {
+            indexIncendies.retirer(incendie.getPosition());
+        }
+        // Par indice : un observateur peut en créer un autre pendant la notification (cache des champs)
+        for (int i = 0; i < observateurs.size(); i++) {
+            observateurs.get(i).incendieEteint(incendie);
+        }
+    }
+
+    // Index spatial des cases portant un incendie actif, tenu à jour à chaque extinction
+    public IndexSpatial getIndexIncendies() {
+        if (indexIncendies == null) {
+            indexIncendies = new IndexSpatial(carte);
+            for (Incendie incendie : incendies) {
+                if (incendie.getIntensite() > 0) {
+                    indexIncendies.ajouter(incendie.getPosition());
+                }
+            }
+        }
+        return indexIncendies;
+    }
+
+    // Cache des champs de distances de cette simulation, créé au premier appel
+    public ChampsDistances getChampsDistances() {
+        if (champsDistances == null) {
+            champsDistances = new ChampsDistances(this);
+            ajouterObservateur(champsDistances);
+        }
+        return champsDistances;
+    }
+
+    // Réservations des points d'eau de cette simulation, créées au premier appel
+    public PlanificateurRemplissage getPlanificateurRemplissage() {
+        if (planificateurRemplissage == null) {
+            planificateurRemplissage = new PlanificateurRemplissage(this);
+        }
+        return planificateurRemplissage;
     }
 
     public void ajouterRobot(Robot robot) {
@@ -0,0 +1,202 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * La classe EcheancierEvenements est la file des événements de la simulation, rangés par date :
+ * une file FIFO par date, les dates étant triées. Les événements de même date s'exécutent donc
+ * dans leur ordre d'ajout, ce qui rend l'exécution reproductible.
+ *
+ * Les événements d'une date s'exécutent par lots ({@link #executerDate(long, Consumer)}). En
+ * mode parallèle, une suite d'événements consécutifs qui ne touchent chacun qu'à leur robot
+ * (voir {@link Evenement#getRobotExclusif()}) est répartie entre plusieurs threads, les
+ * événements d'un même robot restant exécutés dans l'ordre ; les autres événements servent de
+ * barrière et s'exécutent seuls. L'état obtenu est le même qu'en mode séquentiel (le mode par
+ * défaut), seul l'ordre des messages affichés peut varier.
+ *
+ * Pendant un lot parallèle, un événement ne lit l'état partagé qu'en lecture : la grille des coûts
+ * de chaque robot est obtenue avant le lot ({@link Robot#getGrilleCouts()}), les sorties du
+ * {@link Journal} sont synchronisées (voir {@link SortieJournal}), et les événements qu'il
+ * reprogramme sont remis dans la file à la fin du lot, dans l'ordre du lot.
+ *
+ * Un événement annulé ({@link Evenement#estAnnule()}) reste dans la file jusqu'à ce qu'elle
+ * l'atteigne : il est alors retiré sans être exécuté ni compté.
+ */
+
+public class EcheancierEvenements {
+    // En dessous de ce nombre d'événements indépendants, la répartition coûte plus qu'elle ne rapporte
+    private static final int TAILLE_MIN_PARALLELE = 32;
+
+    private final TreeMap<Long, ArrayDeque<Evenement>> parDate = new TreeMap<>();
+    private int taille;
+    private long nbAnnules;
+    private boolean parallele;
+
+    // Ajouts faits depuis les threads d'un lot parallèle, intégrés à la fin du lot
+    private volatile boolean lotParallele;
+    private final ConcurrentLinkedQueue<Evenement> ajoutsConcurrents = new ConcurrentLinkedQueue<>();
+
+    public boolean estParallele() {
+        return parallele;
+    }
+
+    /**
+     * @param parallele true pour exécuter en parallèle les événements indépendants d'une même
+     *                  date, false pour tout exécuter dans l'ordre d'ajout.
+     */
+
+    public void setParallele(boolean parallele) {
+        this.parallele = parallele;
+    }
+
+    public boolean estVide() {
+        return taille == 0;
+    }
+
+    // Nombre d'événements en attente, y compris les annulés que la file n'a pas encore atteints
+    public int taille() {
+        return taille;
+    }
+
+    // Nombre d'événements annulés retirés sans être exécutés
+    public long getNbAnnules() {
+        return nbAnnules;
+    }
+
+    // Date du prochain événement (l'échéancier ne doit pas être vide)
+    public long prochaineDate() {
+        return parDate.firstKey();
+    }
+
+    public void ajouter(Evenement evenement) {
+        if (lotParallele) {
+            ajoutsConcurrents.add(evenement);
+            return;
+        }
+        parDate.computeIfAbsent(evenement.getDate(), d -> new ArrayDeque<>()).addLast(evenement);
+        taille++;
+    }
+
+    public void vider() {
+        parDate.clear();
+        taille = 0;
+        nbAnnules = 0;
+    }
+
+    // Événements en attente et non annulés, par date puis dans l'ordre d'ajout (voir InstantaneSimulation)
+    public Evenement[] versTableau() {
+        List<Evenement> liste = new ArrayList<>(taille);
+        for (ArrayDeque<Evenement> file : parDate.values()) {
+            for (Evenement evenement : file) {
+                if (!evenement.estAnnule()) {
+                    liste.add(evenement);
+                }
+            }
+        }
+        return liste.toArray(new Evenement[0]);
+    }
+
+    /**
+     * Exécute tous les événements prévus à une date, y compris ceux ajoutés à cette même date
+     * pendant l'exécution.
+     *
+     * @param date La date des événements à exécuter.
+     * @param apresEvenement Appelé après chaque événement, depuis le thread appelant (peut être null).
+     * @return Le nombre d'événements exécutés.
+     */
+
+    public int executerDate(long date, Consumer<Evenement> apresEvenement) {
+        ArrayDeque<Evenement> file = parDate.get(date);
+        int nbExecutes = 0;
+        while (file != null && !file.isEmpty()) {
+            Evenement evenement = file.pollFirst();
+            taille--;
+            if (evenement.estAnnule()) {
+                nbAnnules++;
+                continue;
+            }
+            if (parallele && evenement.getRobotExclusif() != null) {
+                nbExecutes += executerIndependants(evenement, file, apresEvenement);
+            } else {
+                evenement.execute();
+                nbExecutes++;
+                if (apresEvenement != null) {
+                    apresEvenement.accept(evenement);
+                }
+            }
+        }
+        if (file != null && parDate.get(date) == file) {
+            parDate.remove(date);
+        }
+        return nbExecutes;
+    }
+
+    // Exécute le premier événement indépendant et ceux qui le suivent directement dans la file
+    private int executerIndependants(Evenement premier, ArrayDeque<Evenement> file, Consumer<Evenement> apresEvenement) {
+        List<Evenement> lot = new ArrayList<>();
+        lot.add(premier);
+        while (!file.isEmpty() && file.peekFirst().getRobotExclusif() != null) {
+            Evenement evenement = file.pollFirst();
+            taille--;
+            if (!evenement.estAnnule()) {
+                lot.add(evenement);
+            } else {
+                nbAnnules++;
+            }
+        }
+
+        if (lot.size() < TAILLE_MIN_PARALLELE) {
+            for (Evenement evenement : lot) {
+                evenement.execute();
+            }
+        } else {
+            Map<Robot, List<Evenement>> parRobot = new LinkedHashMap<>();
+            for (Evenement evenement : lot) {
+                parRobot.computeIfAbsent(evenement.getRobotExclusif(), r -> new ArrayList<>()).add(evenement);
+            }
+            // La grille des coûts est gardée par chaque robot : les threads du lot ne font que la lire
+            for (Robot robot : parRobot.keySet()) {
+                robot.getGrilleCouts();
+            }
+            lotParallele = true;
+            try {
+                parRobot.values().parallelStream().forEach(evenements -> {
+                    for (Evenement evenement : evenements) {
+                        evenement.execute();
+                    }
+                });
+            } finally {
+                lotParallele = false;
+                ajouterDansLOrdre(lot);
+            }
+        }
+
+        if (apresEvenement != null) {
+            for (Evenement evenement : lot) {
+                apresEvenement.accept(evenement);
+            }
+        }
+        return lot.size();
+    }
+
+    // Remet dans la file les événements ajoutés pendant un lot parallèle, dans l'ordre où le mode
+    // séquentiel les aurait ajoutés : un événement du lot qui se reprogramme garde son rang
+    private void ajouterDansLOrdre(List<Evenement> lot) {
+        List<Evenement> ajouts = new ArrayList<>(ajoutsConcurrents);
+        ajoutsConcurrents.clear();
+        Map<Evenement, Integer> rangs = new IdentityHashMap<>();
+        for (int i = 0; i < lot.size(); i++) {
+            rangs.put(lot.get(i), i);
+        }
+        ajouts.sort((a, b) -> Integer.compare(rangs.getOrDefault(a, lot.size()), rangs.getOrDefault(b, lot.size())));
+        for (Evenement ajoute : ajouts) {
+            ajouter(ajoute);
+        }
+    }
+}
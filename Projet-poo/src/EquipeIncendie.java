@@ -0,0 +1,121 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe EquipeIncendie estime quand une équipe de robots éteindra un incendie en y
+ * travaillant ensemble.
+ *
+ * Chaque membre déverse tout son réservoir dès son arrivée (voir {@link Robot#intervenir}), puis
+ * apporte un réservoir plein à chaque aller-retour de remplissage. Les apports de tous les membres
+ * s'additionnent : l'incendie est éteint à la première date où leur somme atteint son intensité.
+ * Toutes les dates sont relatives à la planification, en millisecondes.
+ */
+
+public class EquipeIncendie {
+    private final double intensite;
+    // Pour chaque membre : date d'arrivée, eau apportée à l'arrivée, eau et durée d'un cycle de remplissage
+    private final List<long[]> membres = new ArrayList<>();
+    private final List<double[]> volumes = new ArrayList<>();
+    private long dateExtinction = -1;   // -1 tant qu'elle n'est pas calculée
+
+    public EquipeIncendie(int intensite) {
+        this.intensite = intensite;
+    }
+
+    /**
+     * Ajoute un membre à l'équipe.
+     *
+     * @param arrivee Date d'arrivée sur l'incendie.
+     * @param reservoir Eau déversée à l'arrivée.
+     * @param capacite Eau apportée par cycle de remplissage.
+     * @param cycle Durée d'un cycle de remplissage (aller-retour et remplissage), {@link Temps#INFINI}
+     *              si le robot ne peut pas se remplir.
+     */
+
+    public void ajouter(long arrivee, long reservoir, long capacite, long cycle) {
+        membres.add(new long[] { arrivee, cycle });
+        volumes.add(new double[] { reservoir, capacite });
+        dateExtinction = -1;
+    }
+
+    public int getNbMembres() {
+        return membres.size();
+    }
+
+    // Date d'extinction estimée, Temps.INFINI si l'équipe ne peut pas éteindre l'incendie
+    public long getDateExtinction() {
+        if (dateExtinction < 0) {
+            dateExtinction = calculerDateExtinction();
+        }
+        return dateExtinction;
+    }
+
+    // Date d'extinction estimée si un membre rejoignait l'équipe (mêmes paramètres que ajouter)
+    public long getDateExtinctionAvec(long arrivee, long reservoir, long capacite, long cycle) {
+        ajouter(arrivee, reservoir, capacite, cycle);
+        long date = getDateExtinction();
+        membres.remove(membres.size() - 1);
+        volumes.remove(volumes.size() - 1);
+        dateExtinction = -1;
+        return date;
+    }
+
+    private long calculerDateExtinction() {
+        if (intensite <= 0) {
+            return 0;
+        }
+        // Borne : la date où le plus rapide des membres l'éteindrait seul
+        long borne = Temps.INFINI;
+        long derniereArrivee = 0;
+        for (int i = 0; i < membres.size(); i++) {
+            long arrivee = membres.get(i)[0];
+            long cycle = membres.get(i)[1];
+            double reservoir = volumes.get(i)[0];
+            double capacite = volumes.get(i)[1];
+            derniereArrivee = Math.max(derniereArrivee, arrivee);
+            if (reservoir >= intensite) {
+                borne = Math.min(borne, arrivee);
+            } else if (cycle != Temps.INFINI && capacite > 0) {
+                double nbCycles = Math.ceil((intensite - reservoir) / capacite);
+                if (nbCycles * cycle < Temps.INFINI - arrivee) {
+                    borne = Math.min(borne, arrivee + (long) (nbCycles * cycle));
+                }
+            }
+        }
+        if (borne == Temps.INFINI) {
+            // Aucun membre ne peut se remplir : l'équipe n'a que l'eau de ses réservoirs
+            if (eauVersee(derniereArrivee) < intensite) {
+                return Temps.INFINI;
+            }
+            borne = derniereArrivee;
+        }
+        // Première date où l'eau versée atteint l'intensité, par dichotomie
+        long debut = 0;
+        long fin = borne;
+        while (debut < fin) {
+            long milieu = debut + (fin - debut) / 2;
+            if (eauVersee(milieu) >= intensite) {
+                fin = milieu;
+            } else {
+                debut = milieu + 1;
+            }
+        }
+        return fin;
+    }
+
+    // Eau versée par toute l'équipe jusqu'à une date
+    private double eauVersee(long date) {
+        double total = 0;
+        for (int i = 0; i < membres.size(); i++) {
+            long arrivee = membres.get(i)[0];
+            long cycle = membres.get(i)[1];
+            if (arrivee <= date) {
+                total += volumes.get(i)[0];
+                if (cycle != Temps.INFINI && cycle > 0) {
+                    total += volumes.get(i)[1] * ((date - arrivee) / cycle);
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -1,9 +1,12 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.PriorityQueue;
 import java.util.Comparator;
 
 /**
  * La classe abstraite Evenement représente un événement dans le système de simulation.
- * Chaque événement est associé à une date à laquelle il doit être exécuté.
+ * Chaque événement est associé à une date (en millisecondes simulées, voir {@link Temps}) à
+ * laquelle il doit être exécuté.
  * Les sous-classes doivent implémenter la méthode {@link #execute()} pour définir le comportement spécifique de l'événement.
  */
 
@@ -18,6 +21,44 @@ public abstract class Evenement {
         return date;
     }
 
+    // Change la date d'un événement qui se reprogramme : seulement quand il n'est pas dans la file
+    protected void setDate(long date) {
+        this.date = date;
+    }
+
     public abstract void execute();
 
+    /**
+     * Robot dont l'événement modifie seul l'état, sans toucher au reste de la simulation
+     * (incendies, chef pompier, file des événements). Les événements de même date dont les
+     * robots diffèrent peuvent alors s'exécuter en parallèle (voir {@link EcheancierEvenements}).
+     *
+     * @return Le robot, ou null si l'événement doit s'exécuter seul (par défaut).
+     */
+
+    public Robot getRobotExclusif() {
+        return null;
+    }
+
+    /**
+     * Indique si l'événement a été annulé : la file l'ignore alors au lieu de l'exécuter.
+     *
+     * @return false par défaut.
+     */
+
+    public boolean estAnnule() {
+        return false;
+    }
+
+    /**
+     * Écrit l'événement dans un instantané : son code, sa date puis ses données propres.
+     * Chaque sous-classe fournit aussi une méthode statique lire(...) que
+     * {@link InstantaneSimulation} appelle selon le code lu.
+     *
+     * @param sortie Flux de l'instantané.
+     * @param contexte Correspondance entre objets de la simulation et indices.
+     */
+
+    public abstract void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException;
+
 }
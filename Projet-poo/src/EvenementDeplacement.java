@@ -1,9 +1,16 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * La classe EvenementDeplacement représente un événement de déplacement pour un robot.
  * Cet événement déplace un robot vers une case cible à une date spécifiée, si le terrain est praticable.
  */
 
 public class EvenementDeplacement extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 1;
+
     private Robot robot;
     private Case destination;
 
@@ -17,11 +24,36 @@ public class EvenementDeplacement extends Evenement {
     public void execute() {
         if (robot.peutSeDeplacerVers(destination)) {
             robot.setPosition(destination);
-            System.out.println("Robot " + robot.getIdentifiant() + " déplacé à la case "
-                    + destination.getLigne() + ", " + destination.getColonne());
+            robot.arriverSur(destination);
+            Journal.info(getDate(), "deplacement", "Robot {} déplacé à la case {}, {}",
+                    robot.getIdentifiant(), destination.getLigne(), destination.getColonne());
         } else {
-            System.out.println("Déplacement impossible pour le robot " + robot.getIdentifiant()
-                    + " : terrain non praticable.");
+            Journal.avertissement(getDate(), "deplacement", "Déplacement impossible pour le robot {} : terrain non praticable.",
+                    robot.getIdentifiant());
         }
     }
+
+    public Case getDestination() {
+        return destination;
+    }
+
+    // Un déplacement ne modifie que la position du robot
+    @Override
+    public Robot getRobotExclusif() {
+        return robot;
+    }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+        sortie.writeInt(contexte.indiceRobot(robot));
+        sortie.writeInt(contexte.indiceCase(destination));
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementDeplacement lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        Robot robot = contexte.robot(entree.getInt());
+        return new EvenementDeplacement(date, robot, contexte.getCase(entree.getInt()));
+    }
 }
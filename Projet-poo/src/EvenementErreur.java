@@ -1,3 +1,7 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * La classe EvenementErreur représente un événement d'affichage d'une erreur.
  * Cet événement est utilisé pour notifier des erreurs ou des problèmes survenus
@@ -5,6 +9,9 @@
  */
 
 public class EvenementErreur extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 5;
+
     private String message;
 
     public EvenementErreur(long date, String message) {
@@ -14,6 +21,18 @@ public class EvenementErreur extends Evenement {
 
     @Override
     public void execute() {
-        System.out.println(message);
+        Journal.erreur(getDate(), "erreur", "{}", message);
+    }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+        InstantaneSimulation.ecrireChaine(sortie, message);
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementErreur lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        return new EvenementErreur(date, InstantaneSimulation.lireChaine(entree));
     }
 }
@@ -1,28 +1,65 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * La classe EvenementIntervention représente un événement d'intervention pour un robot.
  * Cet événement est utilisé pour gérer les actions d'un robot visant à éteindre un incendie
- * sur une case donnée à une date spécifiée.
+ * sur une case donnée à une date spécifiée. Programmé dans le plan d'un robot, il est ignoré
+ * si ce plan a été remplacé ou annulé entre-temps (voir {@link Robot#getGenerationPlan()}).
  */
 
 public class EvenementIntervention extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 2;
+
     private Robot robot;
     private Case position;
+    private int generation;   // génération du plan du robot, -1 hors plan
 
     public EvenementIntervention(long date, Robot robot, Case position) {
+        this(date, robot, position, -1);
+    }
+
+    public EvenementIntervention(long date, Robot robot, Case position, int generation) {
         super(date);
         this.robot = robot;
         this.position = position;
+        this.generation = generation;
+        if (generation >= 0 && generation == robot.getGenerationPlan()) {
+            robot.interventionProgrammee(date);
+        }
+    }
+
+    @Override
+    public boolean estAnnule() {
+        return generation >= 0 && generation != robot.getGenerationPlan();
     }
 
     @Override
     public void execute() {
         robot.verifierIntervention();
-        System.out.println("Intervention du robot " + robot.getIdentifiant() + " sur la case "
-                + position.getLigne() + ", " + position.getColonne());
+        Journal.info(getDate(), "intervention", "Intervention du robot {} sur la case {}, {}",
+                robot.getIdentifiant(), position.getLigne(), position.getColonne());
     }
 
     // Méthode pour obtenir le robot associé à cet événement
     public Robot getRobot() {
         return this.robot;
     }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+        sortie.writeInt(contexte.indiceRobot(robot));
+        sortie.writeInt(contexte.indiceCase(position));
+        sortie.writeInt(generation);
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementIntervention lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        Robot robot = contexte.robot(entree.getInt());
+        return new EvenementIntervention(date, robot, contexte.getCase(entree.getInt()), entree.getInt());
+    }
 }
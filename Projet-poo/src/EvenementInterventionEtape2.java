@@ -1,3 +1,7 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * La classe EvenementInterventionEtape2 représente un événement d'intervention pour un robot
  * dans le cadre de l'étape 2. Cet événement permet à un robot d'effectuer une intervention
@@ -5,6 +9,9 @@
  */
 
 public class EvenementInterventionEtape2 extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 3;
+
     private Robot robot;
     private Case position;
 
@@ -17,12 +24,26 @@ public class EvenementInterventionEtape2 extends Evenement {
     @Override
     public void execute() {
         robot.intervenir(position);
-        System.out.println("Intervention du robot " + robot.getIdentifiant() + " sur la case "
-                + position.getLigne() + ", " + position.getColonne());
+        Journal.info(getDate(), "intervention", "Intervention du robot {} sur la case {}, {}",
+                robot.getIdentifiant(), position.getLigne(), position.getColonne());
     }
 
     // Méthode pour obtenir le robot associé à cet événement
     public Robot getRobot() {
         return this.robot;
     }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+        sortie.writeInt(contexte.indiceRobot(robot));
+        sortie.writeInt(contexte.indiceCase(position));
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementInterventionEtape2 lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        Robot robot = contexte.robot(entree.getInt());
+        return new EvenementInterventionEtape2(date, robot, contexte.getCase(entree.getInt()));
+    }
 }
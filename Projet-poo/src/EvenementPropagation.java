@@ -0,0 +1,46 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * La classe EvenementPropagation représente une génération de la propagation des incendies.
+ * Elle se reprogramme une période plus tard tant qu'il reste un incendie actif.
+ */
+
+public class EvenementPropagation extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 7;
+
+    private MoteurSimulation moteur;
+    private PropagationIncendies propagation;
+
+    public EvenementPropagation(long date, MoteurSimulation moteur, PropagationIncendies propagation) {
+        super(date);
+        this.moteur = moteur;
+        this.propagation = propagation;
+    }
+
+    @Override
+    public void execute() {
+        int nbNouveaux = propagation.propager();
+        if (nbNouveaux > 0) {
+            Journal.info(getDate(), "propagation", "Propagation : {} nouvel(s) incendie(s) à la date {}", nbNouveaux, Temps.formater(getDate()));
+        }
+        if (!moteur.tousIncendiesEteints()) {
+            moteur.ajouteEvenement(new EvenementPropagation(getDate() + propagation.getPeriode(), moteur, propagation));
+        }
+    }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+        propagation.ecrire(sortie);
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementPropagation lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        PropagationIncendies propagation = PropagationIncendies.lire(entree, contexte.getDonnees());
+        return new EvenementPropagation(date, contexte.getMoteur(), propagation);
+    }
+}
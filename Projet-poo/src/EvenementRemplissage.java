@@ -1,24 +1,59 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * La classe EvenementRemplissage représente un événement de remplissage du réservoir d'un robot.
  * Cet événement permet de recharger complètement le réservoir d'eau d'un robot à une date spécifiée.
+ * Programmé dans le plan d'un robot, il est ignoré si ce plan a été remplacé ou annulé entre-temps.
  */
 
 public class EvenementRemplissage extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 4;
+
     private Robot robot;
+    private int generation;   // génération du plan du robot, -1 hors plan
 
     public EvenementRemplissage(long date, Robot robot) {
+        this(date, robot, -1);
+    }
+
+    public EvenementRemplissage(long date, Robot robot, int generation) {
         super(date);
         this.robot = robot;
+        this.generation = generation;
+    }
+
+    @Override
+    public boolean estAnnule() {
+        return generation >= 0 && generation != robot.getGenerationPlan();
     }
 
     @Override
     public void execute() {
         robot.remplirReservoir();
-        System.out.println("Remplissage du réservoir du robot " + robot.getIdentifiant());
+        if (generation >= 0) {
+            robot.remplissageTermine();
+        }
+        Journal.info(getDate(), "remplissage", "Remplissage du réservoir du robot {}", robot.getIdentifiant());
     }
 
     // Méthode pour obtenir le robot associé à cet événement
     public Robot getRobot() {
         return this.robot;
     }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+        sortie.writeInt(contexte.indiceRobot(robot));
+        sortie.writeInt(generation);
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementRemplissage lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        return new EvenementRemplissage(date, contexte.robot(entree.getInt()), entree.getInt());
+    }
 }
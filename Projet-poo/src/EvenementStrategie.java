@@ -0,0 +1,36 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * La classe EvenementStrategie représente un appel périodique de la stratégie du chef pompier.
+ * Elle remplace, en mode événementiel, l'appel fait toutes les 5 secondes par le mode pas à pas.
+ */
+
+public class EvenementStrategie extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 6;
+
+    private MoteurSimulation moteur;
+
+    public EvenementStrategie(long date, MoteurSimulation moteur) {
+        super(date);
+        this.moteur = moteur;
+    }
+
+    @Override
+    public void execute() {
+        moteur.strategiePeriodique();
+    }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementStrategie lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        return new EvenementStrategie(date, contexte.getMoteur());
+    }
+}
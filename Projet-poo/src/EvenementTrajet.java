@@ -0,0 +1,164 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * La classe EvenementTrajet représente tout un trajet d'un robot, le long d'un
+ * {@link CheminCompresse}. Au lieu de programmer un déplacement par case, le trajet n'occupe
+ * qu'une place dans la file des événements : à chaque exécution, il amène le robot sur la case
+ * suivante puis se reprogramme à la date du pas d'après, exactement comme l'auraient fait les
+ * déplacements case par case.
+ *
+ * Un trajet s'annule en temps constant ({@link #annuler()}, ou avec tout le plan du robot) : il
+ * est alors ignoré quand la file l'atteint. Entre deux pas, il donne la position interpolée du robot pour l'affichage.
+ */
+
+public class EvenementTrajet extends Evenement {
+    /** Code de l'événement dans un instantané */
+    static final byte CODE = 8;
+
+    private final Robot robot;
+    private final CheminCompresse chemin;
+    private final CheminCompresse.Curseur curseur;
+    private int prochaineEtape;     // rang de la prochaine case à atteindre
+    private long datePrecedente;    // date du dernier pas effectué
+    private final int generation;   // génération du plan du robot
+    private boolean annule;
+
+    public EvenementTrajet(long date, Robot robot, CheminCompresse chemin, int generation) {
+        super(date);
+        this.robot = robot;
+        this.chemin = chemin;
+        this.curseur = chemin.curseur();
+        this.datePrecedente = date;
+        this.generation = generation;
+    }
+
+    @Override
+    public void execute() {
+        if (prochaineEtape > 0) {
+            curseur.avancer();
+        }
+        prochaineEtape++;
+        Carte carte = robot.getCarte();
+        Case destination = carte.getCase(curseur.getCaseCourante());
+        if (robot.peutSeDeplacerVers(destination)) {
+            robot.setPosition(destination);
+            robot.arriverSur(destination);
+            Journal.info(getDate(), "deplacement", "Robot {} déplacé à la case {}, {}",
+                    robot.getIdentifiant(), destination.getLigne(), destination.getColonne());
+        } else {
+            Journal.avertissement(getDate(), "deplacement", "Déplacement impossible pour le robot {} : terrain non praticable.",
+                    robot.getIdentifiant());
+        }
+
+        datePrecedente = getDate();
+        if (curseur.aSuivante()) {
+            // Le pas suivant a lieu une fois la case courante traversée
+            setDate(Temps.apres(getDate(), robot.tempsDeplacement(robot.getPosition(), destination)));
+            robot.getSimulateur().ajouteEvenement(this);
+        } else {
+            robot.trajetTermine(this);
+        }
+    }
+
+    /**
+     * Annule la suite du trajet, en temps constant : l'événement reste dans la file mais
+     * n'y fait plus rien.
+     */
+
+    public void annuler() {
+        annule = true;
+    }
+
+    @Override
+    public boolean estAnnule() {
+        return annule || generation != robot.getGenerationPlan();
+    }
+
+    // Un trajet ne modifie que la position du robot (sa reprogrammation passe par la file)
+    @Override
+    public Robot getRobotExclusif() {
+        return robot;
+    }
+
+    public Robot getRobot() {
+        return robot;
+    }
+
+    public CheminCompresse getChemin() {
+        return chemin;
+    }
+
+    public boolean estCommence() {
+        return prochaineEtape > 0;
+    }
+
+    // Date du dernier pas effectué, celle du départ s'il n'a pas commencé
+    public long getDatePrecedente() {
+        return datePrecedente;
+    }
+
+    // Vrai si le dernier pas effectué a amené le robot au bout du trajet
+    public boolean estTermine() {
+        return estCommence() && !curseur.aSuivante();
+    }
+
+    // Dernière case atteinte par le trajet, null s'il n'a pas commencé
+    public Case getCaseAtteinte() {
+        return estCommence() ? robot.getCarte().getCase(curseur.getCaseCourante()) : null;
+    }
+
+    /**
+     * Position du robot à une date comprise entre le dernier pas effectué et le suivant,
+     * interpolée linéairement entre les deux cases.
+     *
+     * @param date La date d'affichage.
+     * @param position Reçoit la ligne et la colonne (fractionnaires).
+     * @return false si le trajet n'a pas commencé ou est annulé.
+     */
+
+    public boolean positionInterpolee(long date, double[] position) {
+        if (!estCommence() || estAnnule()) {
+            return false;
+        }
+        int nbColonnes = robot.getCarte().getNbColonnes();
+        int courante = curseur.getCaseCourante();
+        double ligne = courante / nbColonnes;
+        double colonne = courante % nbColonnes;
+        if (curseur.aSuivante() && getDate() > datePrecedente && date > datePrecedente) {
+            int suivante = curseur.getCaseSuivante();
+            double fraction = Math.min(1.0, (date - datePrecedente) / (double) (getDate() - datePrecedente));
+            ligne += (suivante / nbColonnes - ligne) * fraction;
+            colonne += (suivante % nbColonnes - colonne) * fraction;
+        }
+        position[0] = ligne;
+        position[1] = colonne;
+        return true;
+    }
+
+    @Override
+    public void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        sortie.writeByte(CODE);
+        sortie.writeLong(getDate());
+        sortie.writeInt(contexte.indiceRobot(robot));
+        sortie.writeInt(prochaineEtape);
+        sortie.writeLong(datePrecedente);
+        sortie.writeInt(generation);
+        chemin.ecrire(sortie);
+    }
+
+    // Relit un événement écrit par ecrire, le code et la date ayant déjà été lus
+    static EvenementTrajet lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte, long date) {
+        Robot robot = contexte.robot(entree.getInt());
+        int prochaineEtape = entree.getInt();
+        long datePrecedente = entree.getLong();
+        int generation = entree.getInt();
+        EvenementTrajet trajet = new EvenementTrajet(date, robot, CheminCompresse.lire(entree), generation);
+        trajet.curseur.avancerJusqua(prochaineEtape - 1);
+        trajet.prochaineEtape = prochaineEtape;
+        trajet.datePrecedente = datePrecedente;
+        robot.trajetProgramme(trajet);
+        return trajet;
+    }
+}
@@ -0,0 +1,463 @@
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * La classe GenerateurCarte produit des cartes et des scénarios pseudo-aléatoires, de taille
+ * quelconque (jusqu'à 10000x10000 cases), pour tester la simulation à grande échelle.
+ *
+ * Le terrain n'est pas tiré case par case mais par formes : lacs (ellipses), crêtes rocheuses
+ * (marches aléatoires épaisses), forêts (amas de disques) et villages (rectangles), peints sur un
+ * terrain libre jusqu'à atteindre la proportion demandée pour chaque nature. Les incendies sont
+ * placés sur des cases distinctes hors de l'eau, avec une intensité uniforme dans l'intervalle
+ * choisi ; chaque robot est placé sur un terrain qu'il peut occuper.
+ *
+ * Tout le tirage dépend d'une seule graine : deux générations avec les mêmes paramètres
+ * produisent exactement les mêmes fichiers, ce qui permet de comparer des mesures de
+ * performances d'une version à l'autre. Le résultat s'écrit au format texte de
+ * {@link LecteurDonnees}, ou sous forme d'{@link InstantaneSimulation}, bien plus rapide à relire.
+ */
+
+public class GenerateurCarte {
+    public static final int TAILLE_MAX = 10000;
+
+    private static final String[] TYPES_ROBOTS = { "DRONE", "ROUES", "CHENILLES", "PATTES" };
+    private static final byte LIBRE = (byte) NatureTerrain.TERRAIN_LIBRE.ordinal();
+    private static final byte EAU = (byte) NatureTerrain.EAU.ordinal();
+    private static final int NB_ESSAIS_SCENARIO = 5;
+
+    // Paramètres
+    private int nbLignes = 100;
+    private int nbColonnes = 100;
+    private int tailleCases = 100;
+    private double proportionEau = 0.10;
+    private double proportionRoche = 0.08;
+    private double proportionForet = 0.25;
+    private double proportionHabitat = 0.05;
+    private int nbIncendies = 20;
+    private int intensiteMin = 1000;
+    private int intensiteMax = 20000;
+    private final int[] nbRobots = { 2, 2, 2, 2 };  // dans l'ordre de TYPES_ROBOTS
+    private long graine = 1;
+
+    // Résultat de la dernière génération
+    private byte[] terrains;
+    private int[] casesIncendies;
+    private int[] intensites;
+    private int[] typesRobots;          // indices dans TYPES_ROBOTS
+    private int[] casesRobots;
+
+    public void setTaille(int nbLignes, int nbColonnes) {
+        if (nbLignes < 1 || nbColonnes < 1 || nbLignes > TAILLE_MAX || nbColonnes > TAILLE_MAX) {
+            throw new IllegalArgumentException("Taille de carte invalide : " + nbLignes + "x" + nbColonnes);
+        }
+        this.nbLignes = nbLignes;
+        this.nbColonnes = nbColonnes;
+    }
+
+    public void setTailleCases(int tailleCases) {
+        this.tailleCases = tailleCases;
+    }
+
+    /**
+     * Fixe la part de la carte couverte par chaque nature de terrain ; le reste est du terrain
+     * libre.
+     */
+
+    public void setProportions(double eau, double roche, double foret, double habitat) {
+        if (eau < 0 || roche < 0 || foret < 0 || habitat < 0 || eau + roche + foret + habitat > 1) {
+            throw new IllegalArgumentException("Proportions de terrain invalides");
+        }
+        this.proportionEau = eau;
+        this.proportionRoche = roche;
+        this.proportionForet = foret;
+        this.proportionHabitat = habitat;
+    }
+
+    public void setNbIncendies(int nbIncendies) {
+        if (nbIncendies < 0) {
+            throw new IllegalArgumentException("Nombre d'incendies négatif");
+        }
+        this.nbIncendies = nbIncendies;
+    }
+
+    // Les intensités sont tirées uniformément entre les deux bornes incluses
+    public void setIntensites(int intensiteMin, int intensiteMax) {
+        if (intensiteMin <= 0 || intensiteMax < intensiteMin) {
+            throw new IllegalArgumentException("Intensités invalides : " + intensiteMin + ", " + intensiteMax);
+        }
+        this.intensiteMin = intensiteMin;
+        this.intensiteMax = intensiteMax;
+    }
+
+    public void setRobots(int nbDrones, int nbRoues, int nbChenilles, int nbPattes) {
+        if (nbDrones < 0 || nbRoues < 0 || nbChenilles < 0 || nbPattes < 0) {
+            throw new IllegalArgumentException("Nombre de robots négatif");
+        }
+        nbRobots[0] = nbDrones;
+        nbRobots[1] = nbRoues;
+        nbRobots[2] = nbChenilles;
+        nbRobots[3] = nbPattes;
+    }
+
+    public void setGraine(long graine) {
+        this.graine = graine;
+    }
+
+    /**
+     * Tire le terrain, les incendies et les robots. Les méthodes d'écriture appellent cette
+     * méthode si aucune génération n'a encore eu lieu.
+     *
+     * @throws IllegalArgumentException s'il n'y a pas assez de cases pour placer les incendies
+     *                                  ou aucune case où placer un type de robot demandé.
+     */
+
+    public void generer() {
+        Random aleatoire = new Random(graine);
+        int nbCases = nbLignes * nbColonnes;
+        terrains = new byte[nbCases];  // tout en TERRAIN_LIBRE (ordinal 0)
+
+        int dimension = Math.min(nbLignes, nbColonnes);
+        peindreCretes(aleatoire, (long) (proportionRoche * nbCases), dimension);
+        peindreLacs(aleatoire, (long) (proportionEau * nbCases), dimension);
+        peindreForets(aleatoire, (long) (proportionForet * nbCases), dimension);
+        peindreVillages(aleatoire, (long) (proportionHabitat * nbCases), dimension);
+
+        placerIncendies(aleatoire);
+        placerRobots(aleatoire);
+    }
+
+    private void verifierGeneration() {
+        if (terrains == null) {
+            generer();
+        }
+    }
+
+    /* Terrain : chaque forme ne peint que des cases encore libres, et s'arrête dès que la
+     * quantité visée est atteinte. Le nombre de formes est borné pour que la génération termine
+     * même si la place manque. */
+
+    // Crêtes rocheuses : marches aléatoires d'épaisseur 1 à 3 qui tournent doucement
+    private void peindreCretes(Random aleatoire, long cible, int dimension) {
+        byte roche = (byte) NatureTerrain.ROCHE.ordinal();
+        long peintes = 0;
+        for (int forme = 0; peintes < cible && forme < nbFormesMax(cible); forme++) {
+            double l = aleatoire.nextInt(nbLignes);
+            double c = aleatoire.nextInt(nbColonnes);
+            double angle = aleatoire.nextDouble() * 2 * Math.PI;
+            int longueur = Math.max(3, dimension / 8 + aleatoire.nextInt(Math.max(1, dimension / 4)));
+            int demiEpaisseur = aleatoire.nextInt(2);
+            for (int pas = 0; pas < longueur && peintes < cible; pas++) {
+                peintes += peindreRectangle((int) l - demiEpaisseur, (int) c - demiEpaisseur,
+                        (int) l + demiEpaisseur, (int) c + demiEpaisseur, roche, cible - peintes);
+                angle += (aleatoire.nextDouble() - 0.5) * 0.6;
+                l += Math.sin(angle);
+                c += Math.cos(angle);
+            }
+        }
+    }
+
+    // Lacs : ellipses pleines
+    private void peindreLacs(Random aleatoire, long cible, int dimension) {
+        long peintes = 0;
+        int rayonMax = Math.max(2, dimension / 25);
+        for (int forme = 0; peintes < cible && forme < nbFormesMax(cible); forme++) {
+            int l = aleatoire.nextInt(nbLignes);
+            int c = aleatoire.nextInt(nbColonnes);
+            int rayonL = 1 + aleatoire.nextInt(rayonMax);
+            int rayonC = Math.max(1, rayonL / 2 + aleatoire.nextInt(rayonL + 1));
+            peintes += peindreEllipse(l, c, rayonL, rayonC, EAU, cible - peintes);
+        }
+    }
+
+    // Forêts : amas de quelques disques autour d'un centre
+    private void peindreForets(Random aleatoire, long cible, int dimension) {
+        byte foret = (byte) NatureTerrain.FORET.ordinal();
+        long peintes = 0;
+        int rayonMax = Math.max(2, dimension / 30);
+        for (int forme = 0; peintes < cible && forme < nbFormesMax(cible); forme++) {
+            int l = aleatoire.nextInt(nbLignes);
+            int c = aleatoire.nextInt(nbColonnes);
+            int nbDisques = 2 + aleatoire.nextInt(5);
+            for (int d = 0; d < nbDisques && peintes < cible; d++) {
+                int rayon = 1 + aleatoire.nextInt(rayonMax);
+                peintes += peindreEllipse(l, c, rayon, rayon, foret, cible - peintes);
+                l += aleatoire.nextInt(2 * rayon + 1) - rayon;
+                c += aleatoire.nextInt(2 * rayon + 1) - rayon;
+            }
+        }
+    }
+
+    // Villages : petits rectangles
+    private void peindreVillages(Random aleatoire, long cible, int dimension) {
+        byte habitat = (byte) NatureTerrain.HABITAT.ordinal();
+        long peintes = 0;
+        int coteMax = Math.max(1, Math.min(8, dimension / 10));
+        for (int forme = 0; peintes < cible && forme < nbFormesMax(cible); forme++) {
+            int l = aleatoire.nextInt(nbLignes);
+            int c = aleatoire.nextInt(nbColonnes);
+            peintes += peindreRectangle(l, c, l + aleatoire.nextInt(coteMax), c + aleatoire.nextInt(coteMax),
+                    habitat, cible - peintes);
+        }
+    }
+
+    private static long nbFormesMax(long cible) {
+        return 1000 + 10 * cible;
+    }
+
+    // Peint au plus max cases libres du rectangle (bornes incluses) ; renvoie le nombre de cases peintes
+    private long peindreRectangle(int l1, int c1, int l2, int c2, byte nature, long max) {
+        long peintes = 0;
+        for (int l = Math.max(0, l1); l <= Math.min(nbLignes - 1, l2) && peintes < max; l++) {
+            for (int c = Math.max(0, c1); c <= Math.min(nbColonnes - 1, c2) && peintes < max; c++) {
+                int indice = l * nbColonnes + c;
+                if (terrains[indice] == LIBRE) {
+                    terrains[indice] = nature;
+                    peintes++;
+                }
+            }
+        }
+        return peintes;
+    }
+
+    private long peindreEllipse(int centreL, int centreC, int rayonL, int rayonC, byte nature, long max) {
+        long peintes = 0;
+        for (int dl = -rayonL; dl <= rayonL && peintes < max; dl++) {
+            int l = centreL + dl;
+            if (l < 0 || l >= nbLignes) {
+                continue;
+            }
+            double reste = 1 - (double) dl * dl / ((double) rayonL * rayonL);
+            int demiLargeur = (int) Math.round(rayonC * Math.sqrt(reste));
+            peintes += peindreRectangle(l, centreC - demiLargeur, l, centreC + demiLargeur, nature, max - peintes);
+        }
+        return peintes;
+    }
+
+    /* Incendies et robots */
+
+    private void placerIncendies(Random aleatoire) {
+        int nbCandidates = 0;
+        for (byte nature : terrains) {
+            if (nature != EAU) {
+                nbCandidates++;
+            }
+        }
+        if (nbIncendies > nbCandidates) {
+            throw new IllegalArgumentException("Pas assez de cases hors de l'eau pour " + nbIncendies + " incendies");
+        }
+
+        casesIncendies = new int[nbIncendies];
+        intensites = new int[nbIncendies];
+        BitSet enFeu = new BitSet(terrains.length);
+        for (int i = 0; i < nbIncendies; i++) {
+            int indice;
+            do {
+                indice = aleatoire.nextInt(terrains.length);
+            } while (terrains[indice] == EAU || enFeu.get(indice));
+            enFeu.set(indice);
+            casesIncendies[i] = indice;
+            intensites[i] = intensiteMin + aleatoire.nextInt(intensiteMax - intensiteMin + 1);
+        }
+    }
+
+    private void placerRobots(Random aleatoire) {
+        int total = 0;
+        for (int n : nbRobots) {
+            total += n;
+        }
+        typesRobots = new int[total];
+        casesRobots = new int[total];
+
+        int rang = 0;
+        for (int t = 0; t < TYPES_ROBOTS.length; t++) {
+            if (nbRobots[t] == 0) {
+                continue;
+            }
+            boolean[] accessible = terrainsAccessibles(TYPES_ROBOTS[t]);
+            boolean existe = false;
+            for (int i = 0; i < terrains.length && !existe; i++) {
+                existe = accessible[terrains[i]];
+            }
+            if (!existe) {
+                throw new IllegalArgumentException("Aucune case accessible pour les robots " + TYPES_ROBOTS[t]);
+            }
+            for (int i = 0; i < nbRobots[t]; i++) {
+                int indice;
+                do {
+                    indice = aleatoire.nextInt(terrains.length);
+                } while (!accessible[terrains[indice]]);
+                typesRobots[rang] = t;
+                casesRobots[rang++] = indice;
+            }
+        }
+    }
+
+    // Natures de terrain (par ordinal) qu'un robot du type donné peut occuper
+    private static boolean[] terrainsAccessibles(String type) {
+        NatureTerrain[] natures = NatureTerrain.values();
+        Carte echantillon = new Carte(1, natures.length, 1);
+        for (NatureTerrain nature : natures) {
+            echantillon.ajouterCase(0, nature.ordinal(), nature);
+        }
+        Robot robot = Robot.creerRobot(type, echantillon.getCase(0, 0), 0, type);
+        boolean[] accessible = new boolean[natures.length];
+        for (NatureTerrain nature : natures) {
+            accessible[nature.ordinal()] = robot.peutSeDeplacerVers(echantillon.getCase(0, nature.ordinal()));
+        }
+        return accessible;
+    }
+
+    /* Écriture */
+
+    /**
+     * Écrit la carte au format texte lu par {@link LecteurDonnees}.
+     *
+     * @param fichier Le fichier à écrire.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+
+    public void ecrireCarte(String fichier) throws IOException {
+        verifierGeneration();
+        // Noms des natures déjà encodés : la carte peut compter des centaines de millions de lignes
+        NatureTerrain[] natures = NatureTerrain.values();
+        byte[][] lignesNatures = new byte[natures.length][];
+        for (NatureTerrain nature : natures) {
+            lignesNatures[nature.ordinal()] = (nature.name() + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        try (OutputStream sortie = new BufferedOutputStream(new FileOutputStream(fichier), 1 << 16)) {
+            ecrireLigne(sortie, "# Carte générée : " + nbLignes + "x" + nbColonnes + ", graine " + graine);
+            ecrireLigne(sortie, nbLignes + " " + nbColonnes + " " + tailleCases);
+            for (int l = 0; l < nbLignes; l++) {
+                ecrireLigne(sortie, "# ligne " + l);
+                for (int c = 0; c < nbColonnes; c++) {
+                    sortie.write(lignesNatures[terrains[l * nbColonnes + c]]);
+                }
+            }
+            ecrireLigne(sortie, "# incendies");
+            ecrireLigne(sortie, String.valueOf(casesIncendies.length));
+            for (int i = 0; i < casesIncendies.length; i++) {
+                ecrireLigne(sortie, casesIncendies[i] / nbColonnes + " " + casesIncendies[i] % nbColonnes + " " + intensites[i]);
+            }
+            ecrireLigne(sortie, "# robots");
+            ecrireLigne(sortie, String.valueOf(typesRobots.length));
+            for (int i = 0; i < typesRobots.length; i++) {
+                ecrireLigne(sortie, casesRobots[i] / nbColonnes + " " + casesRobots[i] % nbColonnes + " " + TYPES_ROBOTS[typesRobots[i]]);
+            }
+        }
+    }
+
+    private static void ecrireLigne(OutputStream sortie, String ligne) throws IOException {
+        sortie.write((ligne + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Construit directement les données de simulation, sans passer par un fichier.
+     *
+     * @return Les données (carte, incendies associés aux cases, robots).
+     */
+
+    public DonneesSimulation creerDonnees() {
+        verifierGeneration();
+        Carte carte = new Carte(nbLignes, nbColonnes, tailleCases);
+        System.arraycopy(terrains, 0, carte.getTerrains(), 0, terrains.length);
+        DonneesSimulation donnees = new DonneesSimulation(carte);
+        for (int i = 0; i < casesIncendies.length; i++) {
+            donnees.ajouterIncendie(new Incendie(carte.getCase(casesIncendies[i]), intensites[i]));
+        }
+        donnees.associerIncendiesAuxCases();
+
+        // Mêmes identifiants que LecteurDonnees : type suivi du rang parmi les robots de ce type
+        int[] compteurs = new int[TYPES_ROBOTS.length];
+        for (int i = 0; i < typesRobots.length; i++) {
+            String type = TYPES_ROBOTS[typesRobots[i]];
+            Robot robot = Robot.creerRobot(type, carte.getCase(casesRobots[i]), Robot.getDefaultSpeed(type),
+                    type + compteurs[typesRobots[i]]++);
+            robot.setCarte(carte);
+            donnees.ajouterRobot(robot);
+        }
+        return donnees;
+    }
+
+    /**
+     * Écrit l'état initial de la simulation sous forme d'{@link InstantaneSimulation}.
+     *
+     * @param fichier Le fichier à écrire.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+
+    public void ecrireInstantane(String fichier) throws IOException {
+        InstantaneSimulation.capturer(new MoteurSimulation(creerDonnees())).sauvegarder(fichier);
+    }
+
+    /**
+     * Écrit un scénario pour {@link MoteurSimulation#chargeScenario(String)} : chaque robot
+     * rejoint, case par case, l'incendie atteignable le plus proche à vol d'oiseau, puis y
+     * intervient. Les dates suivent les temps de trajet réels du robot. Les robots qui
+     * n'atteignent aucun incendie ne reçoivent pas d'ordre.
+     *
+     * Le calcul des chemins alloue quelques tableaux de la taille de la carte par type de robot :
+     * sur les plus grandes cartes, il faut augmenter la mémoire de la JVM.
+     *
+     * @param fichier Le fichier à écrire.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+
+    public void ecrireScenario(String fichier) throws IOException {
+        DonneesSimulation donnees = creerDonnees();
+        Carte carte = donnees.getCarte();
+        RechercheChemin recherche = carte.getRechercheChemin();
+
+        try (PrintWriter sortie = new PrintWriter(fichier, StandardCharsets.UTF_8)) {
+            for (Robot robot : donnees.getRobots()) {
+                int depart = carte.getIndice(robot.getPosition());
+                GrilleCouts grille = carte.getGrilleCouts(robot);
+                // Un échec de recherche parcourt toute la zone accessible : on borne le nombre d'essais
+                int[] chemin = null;
+                int essais = 0;
+                for (int cible : incendiesParDistance(carte, depart)) {
+                    if (chemin != null || essais == NB_ESSAIS_SCENARIO) {
+                        break;
+                    }
+                    if (grille.estFranchissable(cible)) {
+                        chemin = recherche.plusCourtChemin(grille, depart, cible, AlgorithmeRecherche.A_ETOILE);
+                        essais++;
+                    }
+                }
+                if (chemin == null) {
+                    continue;
+                }
+                // Le chemin commence par la case de départ
+                long date = 0;
+                for (int i = 1; i < chemin.length; i++) {
+                    sortie.println(Temps.formater(date) + " " + robot.getIdentifiant() + " MOVE "
+                            + chemin[i] / nbColonnes + " " + chemin[i] % nbColonnes);
+                    date += grille.getDuree(chemin[i]);
+                }
+                int arrivee = chemin[chemin.length - 1];
+                sortie.println(Temps.formater(date) + " " + robot.getIdentifiant() + " INTERVENE "
+                        + arrivee / nbColonnes + " " + arrivee % nbColonnes);
+            }
+        }
+    }
+
+    // Cases en feu, de la plus proche à la plus éloignée de la case de départ
+    private List<Integer> incendiesParDistance(Carte carte, int depart) {
+        Case origine = carte.getCase(depart);
+        List<Integer> cases = new ArrayList<>(casesIncendies.length);
+        for (int indice : casesIncendies) {
+            cases.add(indice);
+        }
+        cases.sort((a, b) -> Double.compare(origine.calculerDistance(carte.getCase(a)),
+                origine.calculerDistance(carte.getCase(b))));
+        return cases;
+    }
+}
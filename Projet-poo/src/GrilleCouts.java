@@ -0,0 +1,85 @@
+/**
+ * La classe GrilleCouts contient, pour un type de robot donné et une carte donnée, le temps
+ * (en secondes) nécessaire pour entrer dans chaque case. Ce temps est arrondi à la milliseconde
+ * une fois par nature de terrain, si bien que les coûts des chemins et les dates des
+ * déplacements programmés (voir {@link Temps}) concordent exactement. Les cases sont repérées par leur indice
+ * <code>ligne * nbColonnes + colonne</code> ; une case infranchissable a un coût infini.
+ *
+ * La grille est calculée une seule fois par carte et par type de robot (voir
+ * {@link Carte#getGrilleCouts(Robot)}), ce qui évite d'appeler les méthodes virtuelles
+ * {@link Robot#calculerTemps} et {@link Robot#peutSeDeplacerVers} pour chaque arête.
+ */
+
+public class GrilleCouts {
+    private final double[] couts;
+    private final double coutMin;
+    private final double coutMax;
+    private final byte[] terrains;
+    // Durée d'un pas vers chaque nature de terrain, en millisecondes, même infranchissable
+    private final long[] dureeParNature;
+
+    public GrilleCouts(Carte carte, Robot robot) {
+        this.couts = new double[carte.getNbLignes() * carte.getNbColonnes()];
+        this.terrains = carte.getTerrains();
+
+        // Le coût ne dépend que de la nature du terrain : on le calcule une fois par nature
+        NatureTerrain[] natures = NatureTerrain.values();
+        double[] coutParNature = new double[natures.length];
+        this.dureeParNature = new long[natures.length];
+        boolean[] calcule = new boolean[natures.length];
+        double min = Double.POSITIVE_INFINITY;
+        double max = 0.0;
+
+        for (int i = 0; i < couts.length; i++) {
+            int nature = carte.getNature(i).ordinal();
+            if (!calcule[nature]) {
+                Case c = carte.getCase(i);
+                dureeParNature[nature] = Temps.depuisSecondes(robot.calculerTemps(carte, c));
+                coutParNature[nature] = robot.peutSeDeplacerVers(c)
+                        ? Temps.enSecondes(dureeParNature[nature]) : Double.POSITIVE_INFINITY;
+                calcule[nature] = true;
+                min = Math.min(min, coutParNature[nature]);
+                if (coutParNature[nature] != Double.POSITIVE_INFINITY) {
+                    max = Math.max(max, coutParNature[nature]);
+                }
+            }
+            couts[i] = coutParNature[nature];
+        }
+        this.coutMin = min;
+        this.coutMax = max;
+    }
+
+    public double getCout(int indice) {
+        return couts[indice];
+    }
+
+    /**
+     * Durée exacte, en millisecondes, d'un pas vers une case : c'est elle qui fixe les dates
+     * des déplacements.
+     *
+     * @param indice Indice de la case d'arrivée.
+     * @return La durée, ou {@link Temps#INFINI}.
+     */
+
+    public long getDuree(int indice) {
+        return dureeParNature[terrains[indice]];
+    }
+
+    public boolean estFranchissable(int indice) {
+        return couts[indice] != Double.POSITIVE_INFINITY;
+    }
+
+    // Plus petit coût d'entrée dans une case franchissable
+    public double getCoutMin() {
+        return coutMin;
+    }
+
+    // Plus grand coût d'entrée dans une case franchissable
+    public double getCoutMax() {
+        return coutMax;
+    }
+
+    public int getTaille() {
+        return couts.length;
+    }
+}
@@ -5,6 +5,7 @@
 public class Incendie {
     private Case position;
     private int intensite;
+    private ObservateurIncendies observateur;
 
     public Incendie(Case position, int intensite) {
         this.position = position;
@@ -19,10 +20,23 @@ public class Incendie {
         return intensite;
     }
 
+    // Fixe l'intensité initiale (par exemple pour perturber un scénario) ; ne prévient pas l'observateur
+    public void setIntensite(int intensite) {
+        this.intensite = intensite;
+    }
+
+    public void setObservateur(ObservateurIncendies observateur) {
+        this.observateur = observateur;
+    }
+
     public void diminueIntensite(int volume) {
+        boolean actif = intensite > 0;
         intensite -= volume;
         if (intensite < 0) {
             intensite = 0;
         }
+        if (actif && intensite == 0 && observateur != null) {
+            observateur.incendieEteint(this);
+        }
     }
 }
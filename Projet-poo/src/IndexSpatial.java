@@ -0,0 +1,91 @@
+/**
+ * La classe IndexSpatial range des cases d'une carte dans une grille uniforme de "seaux" carrés.
+ * Elle tient les cases des incendies actifs (voir {@link DonneesSimulation#getIndexIncendies()}),
+ * d'où partent les champs de distances vers les incendies.
+ *
+ * L'index est mis à jour au fil de l'eau par {@link #ajouter(Case)} et {@link #retirer(Case)} ;
+ * ajouter, retirer ou chercher une case ne parcourt que son seau.
+ */
+
+public class IndexSpatial {
+    public static final int TAILLE_SEAU_PAR_DEFAUT = 8;
+
+    private final Carte carte;
+    private final int tailleSeau;
+    private final int nbSeauxLignes;
+    private final int nbSeauxColonnes;
+    private final int[][] seaux;        // indices des cases de chaque seau
+    private final int[] tailles;        // nombre de cases dans chaque seau
+    private int nbElements;
+
+    public IndexSpatial(Carte carte) {
+        this(carte, TAILLE_SEAU_PAR_DEFAUT);
+    }
+
+    public IndexSpatial(Carte carte, int tailleSeau) {
+        this.carte = carte;
+        this.tailleSeau = tailleSeau;
+        this.nbSeauxLignes = (carte.getNbLignes() + tailleSeau - 1) / tailleSeau;
+        this.nbSeauxColonnes = (carte.getNbColonnes() + tailleSeau - 1) / tailleSeau;
+        this.seaux = new int[nbSeauxLignes * nbSeauxColonnes][];
+        this.tailles = new int[seaux.length];
+    }
+
+    public int getNbElements() {
+        return nbElements;
+    }
+
+    public void ajouter(Case c) {
+        int seau = seau(c.getLigne(), c.getColonne());
+        if (indexDans(seau, carte.getIndice(c)) >= 0) {
+            return;
+        }
+        if (seaux[seau] == null) {
+            seaux[seau] = new int[4];
+        } else if (tailles[seau] == seaux[seau].length) {
+            seaux[seau] = java.util.Arrays.copyOf(seaux[seau], 2 * tailles[seau]);
+        }
+        seaux[seau][tailles[seau]++] = carte.getIndice(c);
+        nbElements++;
+    }
+
+    public void retirer(Case c) {
+        int seau = seau(c.getLigne(), c.getColonne());
+        int position = indexDans(seau, carte.getIndice(c));
+        if (position >= 0) {
+            // Remplace l'élément retiré par le dernier du seau
+            seaux[seau][position] = seaux[seau][--tailles[seau]];
+            nbElements--;
+        }
+    }
+
+    public boolean contient(Case c) {
+        return indexDans(seau(c.getLigne(), c.getColonne()), carte.getIndice(c)) >= 0;
+    }
+
+    // Indices de toutes les cases indexées, par ordre croissant (indépendant de l'historique des ajouts et retraits)
+    public int[] versTableau() {
+        int[] tableau = new int[nbElements];
+        int k = 0;
+        for (int seau = 0; seau < seaux.length; seau++) {
+            for (int i = 0; i < tailles[seau]; i++) {
+                tableau[k++] = seaux[seau][i];
+            }
+        }
+        java.util.Arrays.sort(tableau);
+        return tableau;
+    }
+
+    private int seau(int ligne, int colonne) {
+        return (ligne / tailleSeau) * nbSeauxColonnes + colonne / tailleSeau;
+    }
+
+    private int indexDans(int seau, int indice) {
+        for (int i = 0; i < tailles[seau]; i++) {
+            if (seaux[seau][i] == indice) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,364 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+/**
+ * La classe InstantaneSimulation représente l'état complet d'une simulation à un instant donné,
+ * sous une forme binaire compacte et versionnée : terrain de la carte, intensité des incendies,
+ * position, réservoir et affectation des robots, état du moteur et file des événements en attente.
+ *
+ * Un instantané se capture depuis un moteur, se sauvegarde dans un fichier et se relit par
+ * projection mémoire. Il est immuable : on peut en restaurer autant de simulations indépendantes
+ * que l'on veut, y compris en parallèle, ce qui permet de redémarrer une simulation sans relire
+ * la carte texte ou de lancer plusieurs exécutions depuis un même état intermédiaire.
+ *
+ * Format (entiers gros-boutistes) :
+ * <pre>
+ * en-tête    : MAGIQUE (int), VERSION (int)
+ * carte      : nbLignes, nbColonnes, tailleCases (int), puis un octet de terrain par case
+ * incendies  : nombre, puis (indice de case, intensité) pour chacun
+ * robots     : nombre, puis (type, identifiant, vitesse, case, réservoir, en intervention, incendie,
+ *              case atteinte, eau déversée, distance parcourue, temps occupé, début d'occupation,
+ *              génération du plan)
+ * moteur     : chef pompier présent, type de test, mode, date, nombre d'événements exécutés,
+ *              stratégie programmée, date de la dernière stratégie, robots à replanifier,
+ *              robots en attente d'un changement
+ * événements : nombre, puis chaque événement écrit par {@link Evenement#ecrire}
+ * réservations : points d'eau réservés, écrits par {@link PlanificateurRemplissage}
+ * </pre>
+ */
+
+public class InstantaneSimulation {
+    private static final int MAGIQUE = 0x53494D55; // "SIMU"
+    private static final int VERSION = 7;   // 3 : dates en millisecondes, 4 : trajets compressés, 5 : plans des robots,
+                                            // 6 : réservations des points d'eau, 7 : robots en attente
+
+    // Contenu binaire de l'instantané (en lecture seule, position 0)
+    private final ByteBuffer contenu;
+
+    private InstantaneSimulation(ByteBuffer contenu) {
+        this.contenu = contenu.asReadOnlyBuffer();
+    }
+
+    /**
+     * Correspondance entre les objets d'une simulation et leurs indices dans l'instantané,
+     * utilisée par les événements pour s'écrire et se relire.
+     */
+
+    public static class Contexte {
+        private final DonneesSimulation donnees;
+        private final Carte carte;
+        private final List<Robot> robots;
+        private final Map<Robot, Integer> rangsRobots;
+        private final MoteurSimulation moteur;
+
+        Contexte(DonneesSimulation donnees, MoteurSimulation moteur) {
+            this.donnees = donnees;
+            this.carte = donnees.getCarte();
+            this.robots = donnees.getRobots();
+            this.rangsRobots = new HashMap<>();
+            for (Robot robot : robots) {
+                rangsRobots.put(robot, rangsRobots.size());
+            }
+            this.moteur = moteur;
+        }
+
+        public int indiceRobot(Robot robot) {
+            return robot == null ? -1 : rangsRobots.get(robot);
+        }
+
+        public Robot robot(int indice) {
+            return indice < 0 ? null : robots.get(indice);
+        }
+
+        public int indiceCase(Case c) {
+            return c == null ? -1 : carte.getIndice(c);
+        }
+
+        public Case getCase(int indice) {
+            return indice < 0 ? null : carte.getCase(indice);
+        }
+
+        public DonneesSimulation getDonnees() {
+            return donnees;
+        }
+
+        public MoteurSimulation getMoteur() {
+            return moteur;
+        }
+    }
+
+    /**
+     * Capture l'état courant d'un moteur de simulation.
+     *
+     * @param moteur Le moteur à sauvegarder.
+     * @return L'instantané correspondant.
+     */
+
+    public static InstantaneSimulation capturer(MoteurSimulation moteur) {
+        DonneesSimulation donnees = moteur.getDonnees();
+        Carte carte = donnees.getCarte();
+        Contexte contexte = new Contexte(donnees, moteur);
+        ByteArrayOutputStream octets = new ByteArrayOutputStream(carte.getNbLignes() * carte.getNbColonnes() + 1024);
+
+        try (DataOutputStream sortie = new DataOutputStream(octets)) {
+            sortie.writeInt(MAGIQUE);
+            sortie.writeInt(VERSION);
+
+            // Carte
+            sortie.writeInt(carte.getNbLignes());
+            sortie.writeInt(carte.getNbColonnes());
+            sortie.writeInt(carte.getTailleCases());
+            sortie.write(carte.getTerrains());
+
+            // Incendies
+            List<Incendie> incendies = donnees.getIncendies();
+            Map<Incendie, Integer> rangsIncendies = new HashMap<>();
+            sortie.writeInt(incendies.size());
+            for (Incendie incendie : incendies) {
+                rangsIncendies.put(incendie, rangsIncendies.size());
+                sortie.writeInt(carte.getIndice(incendie.getPosition()));
+                sortie.writeInt(incendie.getIntensite());
+            }
+
+            // Robots
+            sortie.writeInt(donnees.getRobots().size());
+            for (Robot robot : donnees.getRobots()) {
+                ecrireChaine(sortie, robot.getType());
+                ecrireChaine(sortie, robot.getIdentifiant());
+                sortie.writeInt((int) robot.getVitesseKmH());
+                sortie.writeInt(carte.getIndice(robot.getPosition()));
+                sortie.writeInt(robot.getReservoir());
+                sortie.writeBoolean(robot.enIntervention());
+                Incendie incendie = robot.getIncendieEnCours();
+                sortie.writeInt(incendie == null ? -1 : rangsIncendies.get(incendie));
+                sortie.writeInt(contexte.indiceCase(robot.getCaseAtteinte()));
+                sortie.writeLong(robot.getEauDeversee());
+                sortie.writeDouble(robot.getDistanceParcourue());
+                sortie.writeLong(robot.getTempsOccupeTermine());
+                sortie.writeLong(robot.getDebutOccupation());
+                sortie.writeInt(robot.getGenerationPlan());
+            }
+
+            // Moteur
+            ChefPompier chefPompier = moteur.getChefPompier();
+            sortie.writeBoolean(chefPompier != null);
+            ecrireChaine(sortie, moteur.getTypeTest());
+            sortie.writeBoolean(moteur.estModeEvenementiel());
+            sortie.writeLong(moteur.getDateActuelle());
+            sortie.writeLong(moteur.getNbEvenementsExecutes());
+            sortie.writeBoolean(moteur.estStrategieProgrammee());
+            sortie.writeLong(moteur.getDerniereStrategie());
+            List<Robot> robotsModifies = chefPompier == null ? new ArrayList<>() : chefPompier.getRobotsModifies();
+            sortie.writeInt(robotsModifies.size());
+            for (Robot robot : robotsModifies) {
+                sortie.writeInt(contexte.indiceRobot(robot));
+            }
+            List<Robot> robotsEnAttente = chefPompier == null ? new ArrayList<>() : chefPompier.getRobotsEnAttente();
+            sortie.writeInt(robotsEnAttente.size());
+            for (Robot robot : robotsEnAttente) {
+                sortie.writeInt(contexte.indiceRobot(robot));
+            }
+
+            // Événements, dans l'ordre interne de la file
+            Evenement[] evenements = moteur.getEvenementsEnAttente();
+            sortie.writeInt(evenements.length);
+            for (Evenement evenement : evenements) {
+                evenement.ecrire(sortie, contexte);
+            }
+
+            donnees.getPlanificateurRemplissage().ecrire(sortie, contexte);
+        } catch (IOException e) {
+            // Impossible en mémoire
+            throw new IllegalStateException(e);
+        }
+        return new InstantaneSimulation(ByteBuffer.wrap(octets.toByteArray()));
+    }
+
+    /**
+     * Relit un instantané sauvegardé dans un fichier, par projection mémoire.
+     *
+     * @param fichier Chemin du fichier.
+     * @return L'instantané.
+     * @throws IOException si le fichier est illisible.
+     * @throws DataFormatException si le fichier n'est pas un instantané de cette version.
+     */
+
+    public static InstantaneSimulation charger(String fichier) throws IOException, DataFormatException {
+        try (RandomAccessFile acces = new RandomAccessFile(fichier, "r");
+             FileChannel canal = acces.getChannel()) {
+            ByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (projection.remaining() < 8 || projection.getInt(0) != MAGIQUE) {
+                throw new DataFormatException("Le fichier " + fichier + " n'est pas un instantané de simulation.");
+            }
+            if (projection.getInt(4) != VERSION) {
+                throw new DataFormatException("Version d'instantané non prise en charge : " + projection.getInt(4));
+            }
+            return new InstantaneSimulation(projection);
+        }
+    }
+
+    /**
+     * Sauvegarde l'instantané dans un fichier.
+     *
+     * @param fichier Chemin du fichier.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+
+    public void sauvegarder(String fichier) throws IOException {
+        try (RandomAccessFile acces = new RandomAccessFile(fichier, "rw");
+             FileChannel canal = acces.getChannel()) {
+            canal.truncate(0);
+            ByteBuffer octets = contenu.duplicate();
+            while (octets.hasRemaining()) {
+                canal.write(octets);
+            }
+        }
+    }
+
+    // Taille de l'instantané en octets
+    public int getTaille() {
+        return contenu.capacity();
+    }
+
+    /**
+     * Crée un nouveau moteur de simulation, sans interface graphique, dans l'état de l'instantané.
+     *
+     * @return Le moteur restauré.
+     */
+
+    public MoteurSimulation creerMoteur() {
+        ByteBuffer entree = contenu.duplicate();
+        DonneesSimulation donnees = lireDonnees(entree);
+        MoteurSimulation moteur = new MoteurSimulation(donnees);
+        restaurerMoteur(entree, donnees, moteur);
+        return moteur;
+    }
+
+    /**
+     * Remplace l'état d'un moteur existant (par exemple le {@link Simulateur} affiché) par celui
+     * de l'instantané.
+     *
+     * @param moteur Le moteur à restaurer.
+     */
+
+    public void restaurerDans(MoteurSimulation moteur) {
+        ByteBuffer entree = contenu.duplicate();
+        DonneesSimulation donnees = lireDonnees(entree);
+        restaurerMoteur(entree, donnees, moteur);
+    }
+
+    // Relit la carte, les incendies et les robots
+    private static DonneesSimulation lireDonnees(ByteBuffer entree) {
+        entree.position(8); // en-tête déjà vérifié
+
+        Carte carte = new Carte(entree.getInt(), entree.getInt(), entree.getInt());
+        entree.get(carte.getTerrains());
+        DonneesSimulation donnees = new DonneesSimulation(carte);
+
+        int nbIncendies = entree.getInt();
+        for (int i = 0; i < nbIncendies; i++) {
+            Case position = carte.getCase(entree.getInt());
+            donnees.ajouterIncendie(new Incendie(position, entree.getInt()));
+        }
+        donnees.associerIncendiesAuxCases();
+
+        int nbRobots = entree.getInt();
+        for (int i = 0; i < nbRobots; i++) {
+            String type = lireChaine(entree);
+            String identifiant = lireChaine(entree);
+            int vitesse = entree.getInt();
+            Case position = carte.getCase(entree.getInt());
+            Robot robot = Robot.creerRobot(type, position, vitesse, identifiant);
+            int reservoir = entree.getInt();
+            boolean enIntervention = entree.get() != 0;
+            int incendie = entree.getInt();
+            robot.restaurerEtat(position, reservoir, enIntervention,
+                    incendie < 0 ? null : donnees.getIncendies().get(incendie));
+            int caseAtteinte = entree.getInt();
+            robot.restaurerCompteurs(caseAtteinte < 0 ? null : carte.getCase(caseAtteinte),
+                    entree.getLong(), entree.getDouble(), entree.getLong(), entree.getLong());
+            robot.restaurerGenerationPlan(entree.getInt());
+            robot.setCarte(carte);
+            donnees.ajouterRobot(robot);
+        }
+        return donnees;
+    }
+
+    // Relit l'état du moteur et la file des événements
+    private static void restaurerMoteur(ByteBuffer entree, DonneesSimulation donnees, MoteurSimulation moteur) {
+        Contexte contexte = new Contexte(donnees, moteur);
+
+        boolean avecChefPompier = entree.get() != 0;
+        moteur.setTypeTest(lireChaine(entree));
+        moteur.setModeEvenementiel(entree.get() != 0);
+        long date = entree.getLong();
+        long nbEvenementsExecutes = entree.getLong();
+        boolean strategieProgrammee = entree.get() != 0;
+        long derniereStrategie = entree.getLong();
+
+        ChefPompier chefPompier = avecChefPompier ? new ChefPompier(donnees) : null;
+        int nbModifies = entree.getInt();
+        List<Robot> robotsModifies = new ArrayList<>(nbModifies);
+        for (int i = 0; i < nbModifies; i++) {
+            robotsModifies.add(contexte.robot(entree.getInt()));
+        }
+        int nbEnAttente = entree.getInt();
+        List<Robot> robotsEnAttente = new ArrayList<>(nbEnAttente);
+        for (int i = 0; i < nbEnAttente; i++) {
+            robotsEnAttente.add(contexte.robot(entree.getInt()));
+        }
+        if (chefPompier != null) {
+            chefPompier.restaurerRobotsModifies(robotsModifies);
+            chefPompier.restaurerRobotsEnAttente(robotsEnAttente);
+        }
+
+        Evenement[] evenements = new Evenement[entree.getInt()];
+        for (int i = 0; i < evenements.length; i++) {
+            evenements[i] = lireEvenement(entree, contexte);
+        }
+        donnees.getPlanificateurRemplissage().lire(entree, contexte);
+
+        moteur.restaurerEtat(donnees, chefPompier, date, nbEvenementsExecutes,
+                strategieProgrammee, derniereStrategie, evenements);
+    }
+
+    // Relit un événement selon son code
+    private static Evenement lireEvenement(ByteBuffer entree, Contexte contexte) {
+        byte code = entree.get();
+        long date = entree.getLong();
+        switch (code) {
+            case EvenementDeplacement.CODE: return EvenementDeplacement.lire(entree, contexte, date);
+            case EvenementIntervention.CODE: return EvenementIntervention.lire(entree, contexte, date);
+            case EvenementInterventionEtape2.CODE: return EvenementInterventionEtape2.lire(entree, contexte, date);
+            case EvenementRemplissage.CODE: return EvenementRemplissage.lire(entree, contexte, date);
+            case EvenementErreur.CODE: return EvenementErreur.lire(entree, contexte, date);
+            case EvenementStrategie.CODE: return EvenementStrategie.lire(entree, contexte, date);
+            case EvenementPropagation.CODE: return EvenementPropagation.lire(entree, contexte, date);
+            case EvenementTrajet.CODE: return EvenementTrajet.lire(entree, contexte, date);
+            default: throw new IllegalStateException("Code d'événement inconnu dans l'instantané : " + code);
+        }
+    }
+
+    // Chaîne UTF-8 précédée de sa longueur en octets
+    public static void ecrireChaine(DataOutputStream sortie, String chaine) throws IOException {
+        byte[] octets = chaine.getBytes(StandardCharsets.UTF_8);
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+
+    public static String lireChaine(ByteBuffer entree) {
+        byte[] octets = new byte[entree.getInt()];
+        entree.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
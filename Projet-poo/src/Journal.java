@@ -0,0 +1,159 @@
+/**
+ * La classe Journal centralise les messages de la simulation (déplacements, interventions,
+ * remplissages, lecture des cartes...) et les transmet à une {@link SortieJournal}.
+ *
+ * Un message est donné sous forme d'un modèle, où chaque <code>{}</code> est remplacé par une
+ * valeur, et n'est mis en forme que si la sortie en a besoin : rien n'est construit pour un
+ * message sous le niveau minimal ou lorsque la sortie est {@link SortieJournal#AUCUNE}. Par
+ * défaut, les messages de niveau INFO et plus sont affichés sur la console, comme avant. Les
+ * exécutions sans fenêtre peuvent couper le journal, ou l'écrire en JSONL ou en binaire, au
+ * besoin dans un thread séparé ({@link SortieAsynchrone}).
+ *
+ * Les valeurs doivent être immuables (chaînes, nombres) : une sortie asynchrone les lit après
+ * l'appel.
+ */
+
+public final class Journal {
+
+    /** Niveaux des messages, du plus détaillé au plus grave */
+    public enum Niveau { DETAIL, INFO, AVERTISSEMENT, ERREUR }
+
+    /**
+     * Un message du journal : date simulée en millisecondes (-1 hors simulation), type (court, pour filtrer une
+     * trace), modèle et valeurs.
+     */
+
+    public static final class Entree {
+        private final Niveau niveau;
+        private final long date;
+        private final String type;
+        private final String modele;
+        private final Object[] valeurs;
+        private String message;
+
+        Entree(Niveau niveau, long date, String type, String modele, Object[] valeurs) {
+            this.niveau = niveau;
+            this.date = date;
+            this.type = type;
+            this.modele = modele;
+            this.valeurs = valeurs;
+        }
+
+        public Niveau getNiveau() {
+            return niveau;
+        }
+
+        public long getDate() {
+            return date;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getModele() {
+            return modele;
+        }
+
+        public Object[] getValeurs() {
+            return valeurs;
+        }
+
+        // Message mis en forme au premier appel
+        public String getMessage() {
+            if (message == null) {
+                message = mettreEnForme(modele, valeurs);
+            }
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+
+    private static volatile SortieJournal sortie = new SortieConsole();
+    private static volatile Niveau niveauMin = Niveau.INFO;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> sortie.fermer()));
+    }
+
+    private Journal() {
+    }
+
+    public static SortieJournal getSortie() {
+        return sortie;
+    }
+
+    /**
+     * Change la sortie du journal ; l'ancienne n'est pas fermée (voir {@link #fermer()}).
+     *
+     * @param nouvelle La nouvelle sortie, {@link SortieJournal#AUCUNE} pour couper le journal.
+     */
+
+    public static void setSortie(SortieJournal nouvelle) {
+        sortie = nouvelle;
+    }
+
+    public static Niveau getNiveau() {
+        return niveauMin;
+    }
+
+    public static void setNiveau(Niveau niveau) {
+        niveauMin = niveau;
+    }
+
+    /**
+     * Indique si un message de ce niveau serait transmis : à tester avant de calculer des
+     * valeurs coûteuses.
+     */
+
+    public static boolean estActif(Niveau niveau) {
+        return niveau.ordinal() >= niveauMin.ordinal() && sortie != SortieJournal.AUCUNE;
+    }
+
+    public static void detail(long date, String type, String modele, Object... valeurs) {
+        ecrire(Niveau.DETAIL, date, type, modele, valeurs);
+    }
+
+    public static void info(long date, String type, String modele, Object... valeurs) {
+        ecrire(Niveau.INFO, date, type, modele, valeurs);
+    }
+
+    public static void avertissement(long date, String type, String modele, Object... valeurs) {
+        ecrire(Niveau.AVERTISSEMENT, date, type, modele, valeurs);
+    }
+
+    public static void erreur(long date, String type, String modele, Object... valeurs) {
+        ecrire(Niveau.ERREUR, date, type, modele, valeurs);
+    }
+
+    private static void ecrire(Niveau niveau, long date, String type, String modele, Object[] valeurs) {
+        if (estActif(niveau)) {
+            sortie.ecrire(new Entree(niveau, date, type, modele, valeurs));
+        }
+    }
+
+    // Vide et ferme la sortie courante (fichiers, thread d'écriture) ; la console reste utilisable
+    public static void fermer() {
+        sortie.fermer();
+    }
+
+    // Remplace chaque {} du modèle par la valeur suivante
+    static String mettreEnForme(String modele, Object[] valeurs) {
+        if (valeurs.length == 0) {
+            return modele;
+        }
+        StringBuilder texte = new StringBuilder(modele.length() + 16 * valeurs.length);
+        int debut = 0;
+        int v = 0;
+        int marque;
+        while (v < valeurs.length && (marque = modele.indexOf("{}", debut)) >= 0) {
+            texte.append(modele, debut, marque).append(valeurs[v++]);
+            debut = marque + 2;
+        }
+        return texte.append(modele, debut, modele.length()).toString();
+    }
+}
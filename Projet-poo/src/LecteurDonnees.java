@@ -1,5 +1,7 @@
 import java.io.*;
-import java.util.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.zip.DataFormatException;
 
 
@@ -8,11 +10,40 @@ import java.util.zip.DataFormatException;
  * Lecteur de cartes au format spécifié dans le sujet.
  * Cette classe est modifiée pour créer et retourner un objet
  * DonneesSimulation à partir d'un fichier.
+ *
+ * Le fichier est projeté en mémoire (NIO) et découpé octet par octet, sans Scanner ni
+ * expression régulière : les lignes commençant par '#' sont ignorées entre deux données,
+ * quel que soit l'encodage des commentaires. Chaque lecteur a son propre état, plusieurs
+ * cartes peuvent donc être chargées en parallèle. L'affichage du détail de la lecture est
+ * optionnel et désactivé par défaut.
+ *
+ * Une projection est limitée à Integer.MAX_VALUE octets : un fichier plus grand est projeté par
+ * fenêtres successives, la suivante étant projetée avant chaque donnée quand il reste moins de
+ * 64 Kio dans la courante. Une donnée (mot, nombre, espaces d'une ligne)
+ * ne doit donc pas dépasser cette taille ; les commentaires peuvent être de longueur quelconque.
  */
 public class LecteurDonnees {
 
-    // Scanner pour lire les données
-    private static Scanner scanner;
+    private static final NatureTerrain[] NATURES = NatureTerrain.values();
+    private static final byte[][] NOMS_NATURES = new byte[NATURES.length][];
+
+    static {
+        for (int i = 0; i < NATURES.length; i++) {
+            NOMS_NATURES[i] = NATURES[i].name().getBytes();
+        }
+    }
+
+    // Taille maximale d'une fenêtre projetée
+    private static final long TAILLE_FENETRE = 1L << 30;
+    // Reste de la fenêtre en dessous duquel la suivante est projetée avant de lire une donnée
+    private static final int MARGE_FENETRE = 1 << 16;
+
+    private final String fichierDonnees;
+    private final long tailleFichier;
+    // Fenêtre courante du fichier, lue séquentiellement, et sa position dans le fichier
+    private ByteBuffer tampon;
+    private long debutFenetre;
+    private final boolean verbeux;
 
     /**
      * Crée une instance de DonneesSimulation à partir d'un fichier de données.
@@ -23,78 +54,135 @@ public class LecteurDonnees {
      */
     public static DonneesSimulation creeDonnees(String fichierDonnees)
             throws FileNotFoundException, DataFormatException {
-        LecteurDonnees lecteur = new LecteurDonnees(fichierDonnees);
-        Carte carte = lecteur.lireCarteEtCreer();
-        DonneesSimulation donnees = new DonneesSimulation(carte);
+        return creeDonnees(fichierDonnees, false);
+    }
 
-        lecteur.lireIncendiesEtAjouter(donnees);
-        donnees.associerIncendiesAuxCases();
-        lecteur.lireRobotsEtAjouter(donnees);
-        scanner.close();
-        return donnees;
+    /**
+     * Crée une instance de DonneesSimulation à partir d'un fichier de données.
+     * @param fichierDonnees nom du fichier à lire
+     * @param verbeux true pour afficher chaque donnée lue
+     * @return DonneesSimulation l'objet contenant toutes les données lues
+     * @throws FileNotFoundException si le fichier est introuvable
+     * @throws DataFormatException si le format du fichier est incorrect
+     */
+    public static DonneesSimulation creeDonnees(String fichierDonnees, boolean verbeux)
+            throws FileNotFoundException, DataFormatException {
+        return new LecteurDonnees(fichierDonnees, verbeux).lireDonnees();
     }
 
     public static void lire(String fichierDonnees)
         throws FileNotFoundException, DataFormatException {
         System.out.println("\n == Lecture du fichier" + fichierDonnees);
-        LecteurDonnees lecteur = new LecteurDonnees(fichierDonnees);
-        lecteur.lireCarte();
-        lecteur.lireIncendies();
-        lecteur.lireRobots();
-        scanner.close();
+        new LecteurDonnees(fichierDonnees, true).lireDonnees();
         System.out.println("\n == Lecture terminee");
     }
 
-    // --- Méthodes existantes de LecteurDonnees ---
-    private LecteurDonnees(String fichierDonnees) throws FileNotFoundException {
-        scanner = new Scanner(new File(fichierDonnees));
-        scanner.useLocale(Locale.US);
+    /**
+     * Ouvre un fichier de données.
+     * @param fichierDonnees nom du fichier à lire
+     * @param verbeux true pour afficher chaque donnée lue
+     * @throws FileNotFoundException si le fichier est introuvable ou illisible
+     */
+    public LecteurDonnees(String fichierDonnees, boolean verbeux) throws FileNotFoundException {
+        this.fichierDonnees = fichierDonnees;
+        this.verbeux = verbeux;
+        this.tailleFichier = new File(fichierDonnees).length();
+        this.tampon = projeter(0);
+    }
+
+    // Projette la fenêtre du fichier qui commence à la position donnée
+    private MappedByteBuffer projeter(long debut) throws FileNotFoundException {
+        try (RandomAccessFile fichier = new RandomAccessFile(fichierDonnees, "r");
+             FileChannel canal = fichier.getChannel()) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, debut, Math.min(TAILLE_FENETRE, canal.size() - debut));
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new FileNotFoundException("Fichier illisible : " + fichierDonnees);
+        }
+    }
+
+    // Passe à la fenêtre suivante s'il reste moins de marge octets dans la courante
+    private void projeterSuite(int marge) {
+        long finFenetre = debutFenetre + tampon.limit();
+        if (tampon.remaining() >= marge || finFenetre >= tailleFichier) {
+            return;
+        }
+        try {
+            debutFenetre += tampon.position();
+            tampon = projeter(debutFenetre);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lit tout le fichier : carte, incendies puis robots.
+     * @return DonneesSimulation l'objet contenant toutes les données lues
+     * @throws DataFormatException si le format du fichier est incorrect
+     */
+    public DonneesSimulation lireDonnees() throws DataFormatException {
+        Carte carte = lireCarteEtCreer();
+        DonneesSimulation donnees = new DonneesSimulation(carte);
+
+        lireIncendiesEtAjouter(donnees);
+        donnees.associerIncendiesAuxCases();
+        lireRobotsEtAjouter(donnees);
+        return donnees;
     }
 
     // Méthode pour lire la carte et créer l'objet Carte
     private Carte lireCarteEtCreer() throws DataFormatException {
-        ignorerCommentaires();
-        try {
-            int nbLignes = scanner.nextInt();
-            int nbColonnes = scanner.nextInt();
-            int tailleCases = scanner.nextInt();
+        String erreur = "Format invalide pour la carte.";
+        int nbLignes = lireEntier(erreur);
+        int nbColonnes = lireEntier(erreur);
+        int tailleCases = lireEntier(erreur);
+        if (nbLignes <= 0 || nbColonnes <= 0) {
+            throw new DataFormatException(erreur);
+        }
 
-            System.out.println("Carte " + nbLignes + "x" + nbColonnes + ", taille des cases = " + tailleCases);
+        if (verbeux) {
+            Journal.info(-1, "lecture", "Carte {}x{}; taille des cases = {}", nbLignes, nbColonnes, tailleCases);
+        }
 
-            Carte carte = new Carte(nbLignes, nbColonnes, tailleCases);
+        Carte carte = new Carte(nbLignes, nbColonnes, tailleCases);
 
-            for (int lig = 0; lig < nbLignes; lig++) {
-                for (int col = 0; col < nbColonnes; col++) {
-                    ignorerCommentaires();
-                    String natureStr = scanner.next();
-                    System.out.println("Case (" + lig + "," + col + ") : " + natureStr);
-                    NatureTerrain nature = NatureTerrain.valueOf(natureStr);
-                    carte.ajouterCase(lig, col, nature);
+        for (int lig = 0; lig < nbLignes; lig++) {
+            for (int col = 0; col < nbColonnes; col++) {
+                NatureTerrain nature = lireNature();
+                if (verbeux) {
+                    Journal.info(-1, "lecture", "Case ({},{}): nature = {}", lig, col, nature);
                 }
+                carte.ajouterCase(lig, col, nature);
             }
-            return carte;
-
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("Format invalide pour la carte.");
         }
+        return carte;
     }
 
 
 
     // Méthode pour lire les incendies et les ajouter dans DonneesSimulation
     private void lireIncendiesEtAjouter(DonneesSimulation donnees) throws DataFormatException {
-        ignorerCommentaires();
-        int nbIncendies = scanner.nextInt();
-        System.out.println("Nb d'incendies = " + nbIncendies);
+        int nbIncendies = lireEntier("Format invalide. Attendu: nbIncendies");
+        if (verbeux) {
+            Journal.info(-1, "lecture", "Nb d'incendies = {}", nbIncendies);
+        }
 
+        String erreur = "format d'incendie invalide. Attendu: ligne colonne intensite";
         for (int i = 0; i < nbIncendies; i++) {
-            ignorerCommentaires();
-            int lig = scanner.nextInt();
-            int col = scanner.nextInt();
-            int intensite = scanner.nextInt();
-            System.out.println("Incendie " + i + " : position (" + lig + "," + col + "), intensité = " + intensite);
+            int lig = lireEntier(erreur);
+            int col = lireEntier(erreur);
+            int intensite = lireEntier(erreur);
+            if (intensite <= 0) {
+                throw new DataFormatException("incendie " + i
+                        + "nb litres pour eteindre doit etre > 0");
+            }
+            verifieLigneTerminee();
+            if (verbeux) {
+                Journal.info(-1, "lecture", "Incendie {}: position = ({},{});\t intensite = {}", i, lig, col, intensite);
+            }
 
-            Case caseIncendie = donnees.getCarte().getCase(lig, col);
+            Case caseIncendie = caseLue(donnees.getCarte(), lig, col);
             Incendie incendie = new Incendie(caseIncendie, intensite);
             donnees.ajouterIncendie(incendie);
         }
@@ -103,271 +191,202 @@ public class LecteurDonnees {
 
     // Méthode pour lire les robots et les ajouter dans DonneesSimulation
     private void lireRobotsEtAjouter(DonneesSimulation donnees) throws DataFormatException {
-        ignorerCommentaires();
-        int nbRobots;
         int droneCounter = 0;
         int rouesCounter = 0;
         int chenillesCounter = 0;
         int pattesCounter = 0;
 
-        try {
-            nbRobots = scanner.nextInt();
-            scanner.nextLine(); // Passer à la ligne suivante après le nombre de robots
-            System.out.println("Nb de robots = " + nbRobots);
-
-            for (int i = 0; i < nbRobots; i++) {
-                ignorerCommentaires();
+        String erreur = "Erreur de format : données manquantes ou invalides pour un robot.";
+        int nbRobots = lireEntier(erreur);
+        if (verbeux) {
+            Journal.info(-1, "lecture", "Nb de robots = {}", nbRobots);
+        }
 
-                // Lire la ligne complète pour le robot
-                String ligne = scanner.nextLine().trim();
-                String[] elements = ligne.split("\\s+");  // Diviser la ligne par les espaces
+        for (int i = 0; i < nbRobots; i++) {
+            // Lecture des coordonnées et du type
+            int lig = lireEntier(erreur);
+            int col = lireEntier(erreur);
+            String type = lireMot(erreur);
+
+            // Déterminer un identifiant unique pour chaque robot de ce type
+            String identifiant;
+            switch (type) {
+                case "DRONE":
+                    identifiant = "DRONE" + droneCounter++;
+                    break;
+                case "ROUES":
+                    identifiant = "ROUES" + rouesCounter++;
+                    break;
+                case "CHENILLES":
+                    identifiant = "CHENILLES" + chenillesCounter++;
+                    break;
+                case "PATTES":
+                    identifiant = "PATTES" + pattesCounter++;
+                    break;
+                default:
+                    throw new DataFormatException("Type de robot inconnu : " + type);
+            }
 
-                if (elements.length < 3 || elements.length > 4) {
-                    throw new DataFormatException("Erreur de format : données manquantes ou en trop pour un robot.");
+            // La vitesse est optionnelle : elle n'est lue que si elle est sur la même ligne
+            int vitesse;
+            sauterEspacesDeLigne();
+            if (tampon.hasRemaining() && estChiffre(tampon.get(tampon.position()))) {
+                vitesse = lireEntier(erreur);
+                if (verbeux) {
+                    Journal.info(-1, "lecture", "Robot {}: position = ({},{});\t type = {}; \t vitesse = {}", i, lig, col, type, vitesse);
                 }
-
-                // Lecture des coordonnées et du type
-                int lig = Integer.parseInt(elements[0]);
-                int col = Integer.parseInt(elements[1]);
-                String type = elements[2];
-                System.out.println("Lecture du robot de type " + type + " à la position (" + lig + "," + col + ")");
-
-                // Initialiser la vitesse selon la présence du 4ème élément
-                int vitesse;
-                if (elements.length == 4) {
-                    // Si une vitesse est spécifiée, la lire
-                    vitesse = Integer.parseInt(elements[3]);
-                    System.out.println("Vitesse lue : " + vitesse);
-                } else {
-                    // Sinon, utiliser la vitesse par défaut pour les types qui en nécessitent une
-                    vitesse = Robot.getDefaultSpeed(type);
-                    System.out.println("Aucune vitesse spécifiée; vitesse par défaut appliquée : " + vitesse);
+            } else {
+                // Sinon, utiliser la vitesse par défaut pour les types qui en nécessitent une
+                vitesse = Robot.getDefaultSpeed(type);
+                if (verbeux) {
+                    Journal.info(-1, "lecture", "Robot {}: position = ({},{});\t type = {}; \t vitesse = valeur par defaut", i, lig, col, type);
                 }
+            }
+            sauterEspacesDeLigne();
+            if (tampon.hasRemaining() && !estFinDeLigne(tampon.get(tampon.position()))) {
+                throw new DataFormatException("Erreur de format : données manquantes ou en trop pour un robot.");
+            }
 
-                // Déterminer un identifiant unique pour chaque robot de ce type
-                String identifiant;
-                switch (type) {
-                    case "DRONE":
-                        identifiant = "DRONE" + droneCounter++;
-                        break;
-                    case "ROUES":
-                        identifiant = "ROUES" + rouesCounter++;
-                        break;
-                    case "CHENILLES":
-                        identifiant = "CHENILLES" + chenillesCounter++;
-                        break;
-                    case "PATTES":
-                        identifiant = "PATTES" + pattesCounter++;
-                        break;
-                    default:
-                        throw new DataFormatException("Type de robot inconnu : " + type);
-                }
+            // Création du robot selon le type avec l'identifiant
+            Robot robot = Robot.creerRobot(type, caseLue(donnees.getCarte(), lig, col), vitesse, identifiant);
+            robot.setCarte(donnees.getCarte());
+            donnees.ajouterRobot(robot);
+        }
+    }
 
-                // Création du robot selon le type avec l'identifiant
-                Case position = donnees.getCarte().getCase(lig, col);
-                Robot robot;
-                switch (type) {
-                    case "DRONE":
-                        robot = new Drone(position, vitesse, identifiant);
-                        break;
-                    case "ROUES":
-                        robot = new Roues(position, vitesse, identifiant);
-                        break;
-                    case "CHENILLES":
-                        robot = new Chenilles(position, vitesse, identifiant);
-                        break;
-                    case "PATTES":
-                        robot = new Pattes(position, identifiant);  // Pas de vitesse pour PATTES
-                        break;
-                    default:
-                        throw new DataFormatException("Type de robot inconnu : " + type);
-                }
+    // Case de coordonnées lues dans le fichier, qui doivent être dans la carte
+    private Case caseLue(Carte carte, int lig, int col) throws DataFormatException {
+        if (!carte.isInBounds(lig, col)) {
+            throw new DataFormatException("Position (" + lig + "," + col + ") hors de la carte.");
+        }
+        return carte.getCase(lig, col);
+    }
+
+    // --- Découpage du fichier en mots ---
 
-                robot.setCarte(donnees.getCarte());
-                donnees.ajouterRobot(robot);
-                System.out.println("Robot ajouté avec succès : " + type + " avec identifiant " + identifiant);
+    /** Saute les blancs et les commentaires (de '#' jusqu'à la fin de la ligne) */
+    private void ignorerCommentaires() {
+        projeterSuite(MARGE_FENETRE);
+        while (tampon.hasRemaining()) {
+            byte b = tampon.get(tampon.position());
+            if (b == '#') {
+                // on consomme la fin de la ligne, qui peut déborder sur les fenêtres suivantes
+                do {
+                    projeterSuite(1);
+                } while (tampon.hasRemaining() && tampon.get() != '\n');
+            } else if (estBlanc(b)) {
+                tampon.get();
+            } else {
+                return;
             }
-        } catch (InputMismatchException e) {
-            throw new DataFormatException("Erreur de format : données manquantes ou invalides pour un robot.");
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("Erreur de format : données manquantes ou invalides pour un robot.");
+            projeterSuite(MARGE_FENETRE);
         }
     }
 
-    /**
-     * Lit et affiche les donnees de la carte.
-     * @throws ExceptionFormatDonnees
-     */
-    private void lireCarte() throws DataFormatException {
-        ignorerCommentaires();
-        try {
-            int nbLignes = scanner.nextInt();
-            int nbColonnes = scanner.nextInt();
-            int tailleCases = scanner.nextInt();	// en m
-            System.out.println("Carte " + nbLignes + "x" + nbColonnes
-                    + "; taille des cases = " + tailleCases);
-
-            for (int lig = 0; lig < nbLignes; lig++) {
-                for (int col = 0; col < nbColonnes; col++) {
-                    lireCase(lig, col);
-                }
+    /** Saute les espaces et tabulations sans passer à la ligne suivante */
+    private void sauterEspacesDeLigne() {
+        while (tampon.hasRemaining()) {
+            byte b = tampon.get(tampon.position());
+            if (b != ' ' && b != '\t') {
+                return;
             }
-
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("Format invalide. "
-                    + "Attendu: nbLignes nbColonnes tailleCases");
+            tampon.get();
         }
-        // une ExceptionFormat levee depuis lireCase est remontee telle quelle
     }
 
-
-
-
-    /**
-     * Lit et affiche les donnees d'une case.
-     */
-    private void lireCase(int lig, int col) throws DataFormatException {
-        ignorerCommentaires();
-        System.out.print("Case (" + lig + "," + col + "): ");
-        String chaineNature = new String();
-        //		NatureTerrain nature;
-
-        try {
-            chaineNature = scanner.next();
-            // si NatureTerrain est un Enum, vous pouvez recuperer la valeur
-            // de l'enum a partir d'une String avec:
-            //			NatureTerrain nature = NatureTerrain.valueOf(chaineNature);
-
-            verifieLigneTerminee();
-
-            System.out.print("nature = " + chaineNature);
-
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("format de case invalide. "
-                    + "Attendu: nature altitude [valeur_specifique]");
+    /** Vérifie qu'il n'y a plus rien à lire sur cette ligne. */
+    private void verifieLigneTerminee() throws DataFormatException {
+        sauterEspacesDeLigne();
+        if (tampon.hasRemaining() && !estFinDeLigne(tampon.get(tampon.position()))) {
+            throw new DataFormatException("Format invalide, données en trop.");
         }
-
-        System.out.println();
     }
 
-
-    /**
-     * Lit et affiche les donnees des incendies.
-     */
-    private void lireIncendies() throws DataFormatException {
+    // Lit un entier (éventuellement négatif) après les blancs et commentaires
+    private int lireEntier(String erreur) throws DataFormatException {
         ignorerCommentaires();
-        try {
-            int nbIncendies = scanner.nextInt();
-            System.out.println("Nb d'incendies = " + nbIncendies);
-            for (int i = 0; i < nbIncendies; i++) {
-                lireIncendie(i);
+        boolean negatif = false;
+        if (tampon.hasRemaining() && tampon.get(tampon.position()) == '-') {
+            negatif = true;
+            tampon.get();
+        }
+        if (!tampon.hasRemaining() || !estChiffre(tampon.get(tampon.position()))) {
+            throw new DataFormatException(erreur);
+        }
+        long valeur = 0;
+        while (tampon.hasRemaining() && estChiffre(tampon.get(tampon.position()))) {
+            valeur = valeur * 10 + (tampon.get() - '0');
+            if (valeur > Integer.MAX_VALUE) {
+                throw new DataFormatException(erreur);
             }
-
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("Format invalide. "
-                    + "Attendu: nbIncendies");
         }
+        if (tampon.hasRemaining() && !estSeparateur(tampon.get(tampon.position()))) {
+            throw new DataFormatException(erreur);
+        }
+        return (int) (negatif ? -valeur : valeur);
     }
 
-
-    /**
-     * Lit et affiche les donnees du i-eme incendie.
-     * @param i
-     */
-    private void lireIncendie(int i) throws DataFormatException {
+    // Lit un mot (suite d'octets non blancs) après les blancs et commentaires
+    private String lireMot(String erreur) throws DataFormatException {
         ignorerCommentaires();
-        System.out.print("Incendie " + i + ": ");
-
-        try {
-            int lig = scanner.nextInt();
-            int col = scanner.nextInt();
-            int intensite = scanner.nextInt();
-            if (intensite <= 0) {
-                throw new DataFormatException("incendie " + i
-                        + "nb litres pour eteindre doit etre > 0");
-            }
-            verifieLigneTerminee();
-
-            System.out.println("position = (" + lig + "," + col
-                    + ");\t intensite = " + intensite);
-
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("format d'incendie invalide. "
-                    + "Attendu: ligne colonne intensite");
+        int debut = tampon.position();
+        while (tampon.hasRemaining() && !estSeparateur(tampon.get(tampon.position()))) {
+            tampon.get();
+        }
+        if (tampon.position() == debut) {
+            throw new DataFormatException(erreur);
+        }
+        byte[] octets = new byte[tampon.position() - debut];
+        for (int i = 0; i < octets.length; i++) {
+            octets[i] = tampon.get(debut + i);
         }
+        return new String(octets);
     }
 
-
-    /**
-     * Lit et affiche les donnees des robots.
-     */
-    private void lireRobots() throws DataFormatException {
+    // Lit une nature de terrain en comparant directement les octets aux noms connus
+    private NatureTerrain lireNature() throws DataFormatException {
         ignorerCommentaires();
-        try {
-            int nbRobots = scanner.nextInt();
-            System.out.println("Nb de robots = " + nbRobots);
-            for (int i = 0; i < nbRobots; i++) {
-                lireRobot(i);
+        int debut = tampon.position();
+        while (tampon.hasRemaining() && !estSeparateur(tampon.get(tampon.position()))) {
+            tampon.get();
+        }
+        int longueur = tampon.position() - debut;
+        if (longueur == 0) {
+            throw new DataFormatException("format de case invalide. "
+                    + "Attendu: nature altitude [valeur_specifique]");
+        }
+        for (int n = 0; n < NATURES.length; n++) {
+            byte[] nom = NOMS_NATURES[n];
+            if (nom.length == longueur && memesOctets(debut, nom)) {
+                return NATURES[n];
             }
-
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("Format invalide. "
-                    + "Attendu: nbRobots");
         }
+        tampon.position(debut);
+        throw new DataFormatException("Nature de terrain inconnue : " + lireMot(""));
     }
 
-
-    /**
-     * Lit et affiche les donnees du i-eme robot.
-     * @param i
-     */
-    private void lireRobot(int i) throws DataFormatException {
-        ignorerCommentaires();
-        System.out.print("Robot " + i + ": ");
-
-        try {
-            int lig = scanner.nextInt();
-            int col = scanner.nextInt();
-            System.out.print("position = (" + lig + "," + col + ");");
-            String type = scanner.next();
-
-            System.out.print("\t type = " + type);
-
-
-            // lecture eventuelle d'une vitesse du robot (entier)
-            System.out.print("; \t vitesse = ");
-            String s = scanner.findInLine("(\\d+)");	// 1 or more digit(s) ?
-            // pour lire un flottant:    ("(\\d+(\\.\\d+)?)");
-
-            if (s == null) {
-                System.out.print("valeur par defaut");
-            } else {
-                int vitesse = Integer.parseInt(s);
-                System.out.print(vitesse);
+    private boolean memesOctets(int debut, byte[] nom) {
+        for (int i = 0; i < nom.length; i++) {
+            if (tampon.get(debut + i) != nom[i]) {
+                return false;
             }
-            verifieLigneTerminee();
-
-            System.out.println();
-
-        } catch (NoSuchElementException e) {
-            throw new DataFormatException("format de robot invalide. "
-                    + "Attendu: ligne colonne type [valeur_specifique]");
         }
+        return true;
     }
 
-    // --- Méthodes d'aide pour ignorer les commentaires et vérifier les lignes ---
+    private static boolean estChiffre(byte b) {
+        return b >= '0' && b <= '9';
+    }
 
-    /** Ignore toute (fin de) ligne commencant par '#' */
-    private void ignorerCommentaires() {
-        while (scanner.hasNext("#.*")) {
-            scanner.nextLine();
-        }
+    private static boolean estBlanc(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
     }
 
-    /** Vérifie qu'il n'y a plus rien à lire sur cette ligne (int ou float). */
-    private void verifieLigneTerminee() throws DataFormatException {
-        if (scanner.findInLine("(\\d+)") != null) {
-            throw new DataFormatException("Format invalide, données en trop.");
-        }
+    private static boolean estSeparateur(byte b) {
+        return estBlanc(b) || b == '#';
+    }
+
+    private static boolean estFinDeLigne(byte b) {
+        return b == '\n' || b == '\r' || b == '#';
     }
 }
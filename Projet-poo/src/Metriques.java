@@ -0,0 +1,325 @@
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * La classe Metriques mesure ce que coûte et ce que produit une simulation : événements exécutés
+ * par type, profondeur de la file des événements, recherches de chemin (appels, cases explorées,
+ * temps de calcul), temps passé dans la stratégie, emploi du temps de chaque robot (occupé,
+ * libre, en trajet, en remplissage), eau déversée et délai d'extinction des incendies.
+ *
+ * Les métriques sont optionnelles : elles ne coûtent rien tant qu'aucune n'est attachée au
+ * moteur ({@link MoteurSimulation#setMetriques(Metriques)}). Elles s'exportent sous forme d'un
+ * rapport final ({@link #rapport()}) et, si une période est donnée, d'un résumé périodique écrit
+ * dans le {@link Journal} (type <code>metriques</code>).
+ *
+ * Le temps de trajet d'un robot est le temps écoulé entre les pas de ses trajets : une traversée
+ * va d'un pas au suivant, ou à l'annulation du trajet, et la case d'arrivée n'est pas traversée.
+ * Avec le temps de remplissage, il ne dépasse pas le temps d'occupation du robot (ce que vérifie
+ * {@link TestBatch}). Un déplacement de scénario compte, lui, la traversée de sa case.
+ */
+
+public class Metriques implements ObservateurIncendies {
+
+    /**
+     * Histogramme de valeurs positives, par classes de puissances de 2 : les quantiles sont
+     * approchés par la borne supérieure de leur classe.
+     */
+
+    public static class Histogramme {
+        private final long[] classes = new long[64];
+        private long nb;
+        private long somme;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        public void ajouter(long valeur) {
+            classes[valeur <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(valeur)]++;
+            nb++;
+            somme += valeur;
+            min = Math.min(min, valeur);
+            max = Math.max(max, valeur);
+        }
+
+        public long getNb() {
+            return nb;
+        }
+
+        public long getSomme() {
+            return somme;
+        }
+
+        public double getMoyenne() {
+            return nb == 0 ? 0 : somme / (double) nb;
+        }
+
+        public long getMax() {
+            return nb == 0 ? 0 : max;
+        }
+
+        // Borne supérieure de la classe contenant le quantile q (entre 0 et 1)
+        public long getQuantile(double q) {
+            long rang = (long) Math.ceil(q * nb);
+            long cumul = 0;
+            for (int c = 0; c < classes.length; c++) {
+                cumul += classes[c];
+                if (cumul >= rang && cumul > 0) {
+                    return Math.max(min, Math.min(max, c == 0 ? 0 : (1L << c) - 1));
+                }
+            }
+            return getMax();
+        }
+
+        @Override
+        public String toString() {
+            if (nb == 0) {
+                return "aucune valeur";
+            }
+            return String.format("n = %d, moyenne = %.1f, min = %d, p50 <= %d, p90 <= %d, p99 <= %d, max = %d",
+                    nb, getMoyenne(), min, getQuantile(0.5), getQuantile(0.9), getQuantile(0.99), max);
+        }
+    }
+
+    // Temps de trajet et de remplissage, nombre de déplacements et de remplissages d'un robot, et
+    // date du début de la traversée en cours (-1 s'il n'y en a pas)
+    private static final int TRAJET = 0;
+    private static final int REMPLISSAGE = 1;
+    private static final int NB_DEPLACEMENTS = 2;
+    private static final int NB_REMPLISSAGES = 3;
+    private static final int DEBUT_TRAVERSEE = 4;
+
+    private MoteurSimulation moteur;
+    private long periodeInstantanes;
+    private long prochainInstantane;
+
+    private final Map<Class<?>, long[]> evenementsParType = new IdentityHashMap<>();
+    private long nbEvenements;
+    private long annulesInitiaux;
+    private final Histogramme profondeurFile = new Histogramme();
+    private final Histogramme dureeStrategieMicros = new Histogramme();
+    private final Histogramme delaiExtinction = new Histogramme();
+    private final Map<Robot, long[]> parRobot = new IdentityHashMap<>();
+    private final Map<Incendie, Long> dateApparition = new IdentityHashMap<>();
+
+    // Compteurs de la recherche de chemin au moment où les métriques ont été attachées
+    private long recherchesInitiales;
+    private long noeudsInitiaux;
+    private long dureeRecherchesInitiale;
+
+    /**
+     * @param periodeInstantanes Période (en millisecondes simulées) du résumé écrit dans le journal,
+     *                           0 pour n'écrire que le rapport final.
+     */
+
+    public Metriques(long periodeInstantanes) {
+        this.periodeInstantanes = periodeInstantanes;
+    }
+
+    public Metriques() {
+        this(0);
+    }
+
+    // Appelé par le moteur : les incendies actifs sont datés de la date courante
+    void attacher(MoteurSimulation moteur) {
+        this.moteur = moteur;
+        DonneesSimulation donnees = moteur.getDonnees();
+        donnees.ajouterObservateur(this);
+        long date = Math.max(moteur.getDateActuelle(), 0);
+        for (Incendie incendie : donnees.getIncendies()) {
+            if (incendie.getIntensite() > 0) {
+                dateApparition.put(incendie, date);
+            }
+        }
+        RechercheChemin recherche = donnees.getCarte().getRechercheChemin();
+        recherchesInitiales = recherche.getNbRecherches();
+        noeudsInitiaux = recherche.getNbNoeudsExplores();
+        dureeRecherchesInitiale = recherche.getDureeRecherchesNanos();
+        annulesInitiaux = moteur.evenements.getNbAnnules();
+        prochainInstantane = periodeInstantanes > 0 ? date + periodeInstantanes : Long.MAX_VALUE;
+    }
+
+    // Appelé avant l'exécution des événements d'une date
+    void mesurerFile(int profondeur) {
+        profondeurFile.ajouter(profondeur);
+    }
+
+    void evenementExecute(Evenement evenement) {
+        nbEvenements++;
+        evenementsParType.computeIfAbsent(evenement.getClass(), c -> new long[1])[0]++;
+        if (evenement instanceof EvenementTrajet) {
+            // Un pas du trajet finit la traversée de la case précédente et commence celle de la case
+            // atteinte, sauf au bout du trajet
+            EvenementTrajet trajet = (EvenementTrajet) evenement;
+            long[] compteurs = compteurs(trajet.getRobot());
+            long date = trajet.getDatePrecedente();
+            terminerTraversee(compteurs, date);
+            compteurs[DEBUT_TRAVERSEE] = trajet.estTermine() ? -1 : date;
+            compteurs[NB_DEPLACEMENTS]++;
+        } else if (evenement instanceof EvenementDeplacement) {
+            // Temps de trajet compté comme dans Robot.programmerDeplacements
+            EvenementDeplacement deplacement = (EvenementDeplacement) evenement;
+            Robot robot = deplacement.getRobotExclusif();
+            long[] compteurs = compteurs(robot);
+            compteurs[TRAJET] += robot.tempsDeplacement(robot.getCaseAtteinte(), deplacement.getDestination());
+            compteurs[NB_DEPLACEMENTS]++;
+        } else if (evenement instanceof EvenementRemplissage) {
+            Robot robot = ((EvenementRemplissage) evenement).getRobot();
+            long[] compteurs = compteurs(robot);
+            compteurs[REMPLISSAGE] += robot.tempsRemplissage();
+            compteurs[NB_REMPLISSAGES]++;
+        }
+    }
+
+    // Appelé quand les trajets d'un robot sont annulés : sa traversée s'arrête à la date courante
+    void deplacementsAnnules(Robot robot) {
+        long[] compteurs = parRobot.get(robot);
+        if (compteurs != null) {
+            terminerTraversee(compteurs, Math.max(moteur.getDateActuelle(), 0));
+        }
+    }
+
+    private static void terminerTraversee(long[] compteurs, long date) {
+        if (compteurs[DEBUT_TRAVERSEE] >= 0) {
+            compteurs[TRAJET] += date - compteurs[DEBUT_TRAVERSEE];
+            compteurs[DEBUT_TRAVERSEE] = -1;
+        }
+    }
+
+    void strategieExecutee(long dureeNanos) {
+        dureeStrategieMicros.ajouter(dureeNanos / 1000);
+    }
+
+    // Appelé après l'exécution des événements d'une date : écrit le résumé périodique
+    void dateAtteinte(long date) {
+        if (date >= prochainInstantane) {
+            Journal.info(date, "metriques", "{}", resume(date));
+            prochainInstantane = (date / periodeInstantanes + 1) * periodeInstantanes;
+        }
+    }
+
+    @Override
+    public void nouvelIncendie(Incendie incendie) {
+        dateApparition.put(incendie, Math.max(moteur.getDateActuelle(), 0));
+    }
+
+    @Override
+    public void incendieEteint(Incendie incendie) {
+        Long apparition = dateApparition.remove(incendie);
+        if (apparition != null) {
+            delaiExtinction.ajouter(Math.max(moteur.getDateActuelle(), 0) - apparition);
+        }
+    }
+
+    private long[] compteurs(Robot robot) {
+        return parRobot.computeIfAbsent(robot, r -> new long[] {0, 0, 0, 0, -1});
+    }
+
+    /**
+     * Temps de trajet d'un robot jusqu'à la date courante, traversée en cours comprise.
+     *
+     * @param robot Le robot.
+     * @return Le temps en millisecondes.
+     */
+
+    public long getTempsTrajet(Robot robot) {
+        long[] compteurs = parRobot.get(robot);
+        if (compteurs == null) {
+            return 0;
+        }
+        long debut = compteurs[DEBUT_TRAVERSEE];
+        return compteurs[TRAJET] + (debut >= 0 ? Math.max(0, moteur.getDateActuelle() - debut) : 0);
+    }
+
+    /**
+     * Temps de remplissage d'un robot, remplissages terminés seulement.
+     *
+     * @param robot Le robot.
+     * @return Le temps en millisecondes.
+     */
+
+    public long getTempsRemplissage(Robot robot) {
+        long[] compteurs = parRobot.get(robot);
+        return compteurs == null ? 0 : compteurs[REMPLISSAGE];
+    }
+
+    public long getNbEvenements() {
+        return nbEvenements;
+    }
+
+    public Histogramme getProfondeurFile() {
+        return profondeurFile;
+    }
+
+    public Histogramme getDureeStrategieMicros() {
+        return dureeStrategieMicros;
+    }
+
+    public Histogramme getDelaiExtinction() {
+        return delaiExtinction;
+    }
+
+    // Résumé d'une ligne, pour les instantanés périodiques
+    public String resume(long date) {
+        RechercheChemin recherche = moteur.getDonnees().getCarte().getRechercheChemin();
+        int actifs = 0;
+        for (Incendie incendie : moteur.getDonnees().getIncendies()) {
+            if (incendie.getIntensite() > 0) {
+                actifs++;
+            }
+        }
+        return String.format("Métriques à t = %s s : %d événements, file = %d, %d incendies actifs, %d éteints,"
+                        + " %d recherches de chemin, %d appels de stratégie (%.1f ms)",
+                Temps.formater(date), nbEvenements, moteur.evenements.taille(), actifs, delaiExtinction.getNb(),
+                recherche.getNbRecherches() - recherchesInitiales, dureeStrategieMicros.getNb(),
+                dureeStrategieMicros.getSomme() / 1e3);
+    }
+
+    /**
+     * Rapport final, à la date courante du moteur.
+     *
+     * @return Le rapport, sur plusieurs lignes.
+     */
+
+    public String rapport() {
+        long date = Math.max(moteur.getDateActuelle(), 0);
+        StringBuilder texte = new StringBuilder();
+        texte.append("=== Métriques à t = ").append(Temps.formater(date)).append(" s ===\n");
+
+        texte.append("Événements exécutés : ").append(nbEvenements)
+                .append(", annulés : ").append(moteur.evenements.getNbAnnules() - annulesInitiaux).append('\n');
+        Map<String, Long> parType = new TreeMap<>();
+        for (Map.Entry<Class<?>, long[]> entree : evenementsParType.entrySet()) {
+            parType.put(entree.getKey().getSimpleName(), entree.getValue()[0]);
+        }
+        for (Map.Entry<String, Long> entree : parType.entrySet()) {
+            texte.append(String.format("  %-28s %d%n", entree.getKey(), entree.getValue()));
+        }
+        texte.append("Profondeur de la file : ").append(profondeurFile).append('\n');
+
+        RechercheChemin recherche = moteur.getDonnees().getCarte().getRechercheChemin();
+        long nbRecherches = recherche.getNbRecherches() - recherchesInitiales;
+        long noeuds = recherche.getNbNoeudsExplores() - noeudsInitiaux;
+        texte.append(String.format("Recherches de chemin : %d, %d cases explorées (%.1f par recherche), %.1f ms%n",
+                nbRecherches, noeuds, nbRecherches == 0 ? 0.0 : noeuds / (double) nbRecherches,
+                (recherche.getDureeRecherchesNanos() - dureeRecherchesInitiale) / 1e6));
+        texte.append("Stratégie (µs par appel) : ").append(dureeStrategieMicros).append('\n');
+        texte.append("Délai d'extinction (ms) : ").append(delaiExtinction).append('\n');
+        texte.append("Incendies encore actifs : ").append(dateApparition.size()).append('\n');
+
+        // Temps en secondes
+        texte.append(String.format("%-12s %9s %9s %9s %9s %9s %9s %12s%n",
+                "robot", "occupé", "libre", "trajet", "rempl.", "déplac.", "nb rempl.", "eau (L)"));
+        long eauTotale = 0;
+        for (Robot robot : moteur.getDonnees().getRobots()) {
+            long[] compteurs = parRobot.getOrDefault(robot, new long[5]);
+            long occupe = Math.min(date, robot.getTempsOccupe(date));
+            eauTotale += robot.getEauDeversee();
+            texte.append(String.format("%-12s %9s %9s %9s %9s %9d %9d %12d%n", robot.getIdentifiant(),
+                    Temps.formater(occupe), Temps.formater(date - occupe), Temps.formater(getTempsTrajet(robot)),
+                    Temps.formater(getTempsRemplissage(robot)), compteurs[NB_DEPLACEMENTS],
+                    compteurs[NB_REMPLISSAGES], robot.getEauDeversee()));
+        }
+        texte.append("Eau déversée au total : ").append(eauTotale).append(" L");
+        return texte.toString();
+    }
+}
@@ -0,0 +1,304 @@
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+
+/**
+ * La classe MonteCarlo exécute en parallèle de nombreuses simulations indépendantes, sans
+ * interface graphique, pour évaluer des stratégies sur un ensemble de cartes et de graines.
+ *
+ * Chaque carte n'est lue qu'une fois : son état initial est gardé sous forme d'
+ * {@link InstantaneSimulation}, dont chaque tirage restaure sa propre copie. La graine d'un
+ * tirage mélange l'ordre des robots (donc leur priorité pour le chef pompier) et fait varier
+ * l'intensité de chaque incendie ; la graine 0 désigne le scénario de référence, non perturbé.
+ * Les tirages sont répartis sur un {@link ForkJoinPool} et les résultats sont rendus dans
+ * l'ordre des tâches, quel que soit le nombre de threads.
+ */
+
+public class MonteCarlo {
+    /** Variation relative maximale de l'intensité des incendies par défaut (±20 %) */
+    public static final double VARIATION_INTENSITE_PAR_DEFAUT = 0.2;
+
+    private final int nbThreads;
+    private double variationIntensite = VARIATION_INTENSITE_PAR_DEFAUT;
+    private long horizon = MoteurSimulation.HORIZON_PAR_DEFAUT;
+
+    /**
+     * Résultat d'un tirage : une carte, une stratégie et une graine.
+     */
+
+    public static class Tirage {
+        private final String carte;
+        private final String strategie;
+        private final long graine;
+        private final ResultatSimulation resultat;
+        private final long eauDeversee;
+        private final double distanceParcourue;
+        private final Map<String, Double> tauxOccupation;
+
+        Tirage(String carte, String strategie, long graine, MoteurSimulation moteur, ResultatSimulation resultat) {
+            this.carte = carte;
+            this.strategie = strategie;
+            this.graine = graine;
+            this.resultat = resultat;
+            this.tauxOccupation = new LinkedHashMap<>();
+            long eau = 0;
+            double distance = 0;
+            long date = Math.max(1, resultat.getDateFinale());
+            for (Robot robot : moteur.getDonnees().getRobots()) {
+                eau += robot.getEauDeversee();
+                distance += robot.getDistanceParcourue();
+                tauxOccupation.put(robot.getIdentifiant(), robot.getTempsOccupe(date) / (double) date);
+            }
+            this.eauDeversee = eau;
+            this.distanceParcourue = distance;
+        }
+
+        public String getCarte() {
+            return carte;
+        }
+
+        public String getStrategie() {
+            return strategie;
+        }
+
+        public long getGraine() {
+            return graine;
+        }
+
+        public ResultatSimulation getResultat() {
+            return resultat;
+        }
+
+        public long getEauDeversee() {
+            return eauDeversee;
+        }
+
+        public double getDistanceParcourue() {
+            return distanceParcourue;
+        }
+
+        // Part du temps passée en intervention par chaque robot, par identifiant
+        public Map<String, Double> getTauxOccupation() {
+            return tauxOccupation;
+        }
+    }
+
+    /**
+     * Synthèse des tirages d'une même carte et d'une même stratégie.
+     */
+
+    public static class Synthese {
+        private final String carte;
+        private final String strategie;
+        private int nbTirages;
+        private int nbTermines;
+        private long dateMin = Long.MAX_VALUE;
+        private long dateMax;
+        private double sommeDates;
+        private double sommeEau;
+        private double sommeDistance;
+        private final Map<String, Double> sommeOccupation = new LinkedHashMap<>();
+
+        Synthese(String carte, String strategie) {
+            this.carte = carte;
+            this.strategie = strategie;
+        }
+
+        void ajouter(Tirage tirage) {
+            nbTirages++;
+            ResultatSimulation resultat = tirage.getResultat();
+            if (resultat.estTermine()) {
+                nbTermines++;
+                dateMin = Math.min(dateMin, resultat.getDateFinale());
+                dateMax = Math.max(dateMax, resultat.getDateFinale());
+                sommeDates += resultat.getDateFinale();
+            }
+            sommeEau += tirage.getEauDeversee();
+            sommeDistance += tirage.getDistanceParcourue();
+            for (Map.Entry<String, Double> entree : tirage.getTauxOccupation().entrySet()) {
+                sommeOccupation.merge(entree.getKey(), entree.getValue(), Double::sum);
+            }
+        }
+
+        public String getCarte() {
+            return carte;
+        }
+
+        public String getStrategie() {
+            return strategie;
+        }
+
+        public int getNbTirages() {
+            return nbTirages;
+        }
+
+        public int getNbTermines() {
+            return nbTermines;
+        }
+
+        // Date moyenne d'extinction complète (en millisecondes), sur les seuls tirages terminés
+        public double getDateMoyenne() {
+            return nbTermines == 0 ? Double.NaN : sommeDates / nbTermines;
+        }
+
+        public long getDateMin() {
+            return nbTermines == 0 ? -1 : dateMin;
+        }
+
+        public long getDateMax() {
+            return nbTermines == 0 ? -1 : dateMax;
+        }
+
+        public double getEauMoyenne() {
+            return sommeEau / nbTirages;
+        }
+
+        public double getDistanceMoyenne() {
+            return sommeDistance / nbTirages;
+        }
+
+        // Taux d'occupation moyen de chaque robot sur l'ensemble des tirages
+        public Map<String, Double> getOccupationMoyenne() {
+            Map<String, Double> moyennes = new LinkedHashMap<>();
+            for (Map.Entry<String, Double> entree : sommeOccupation.entrySet()) {
+                moyennes.put(entree.getKey(), entree.getValue() / nbTirages);
+            }
+            return moyennes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texte = new StringBuilder();
+            texte.append(carte).append(" / ").append(strategie).append(" : ")
+                    .append(nbTermines).append("/").append(nbTirages).append(" terminés");
+            if (nbTermines > 0) {
+                texte.append(String.format(", extinction en %.0f s (min %s, max %s)", Temps.enSecondes(Math.round(getDateMoyenne())),
+                        Temps.formater(dateMin), Temps.formater(dateMax)));
+            }
+            texte.append(String.format(", eau %.0f L, distance %.1f km", getEauMoyenne(), getDistanceMoyenne() / 1000));
+            texte.append("\n    occupation :");
+            for (Map.Entry<String, Double> entree : getOccupationMoyenne().entrySet()) {
+                texte.append(String.format(" %s %.0f %%", entree.getKey(), 100 * entree.getValue()));
+            }
+            return texte.toString();
+        }
+    }
+
+    public MonteCarlo() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonteCarlo(int nbThreads) {
+        this.nbThreads = Math.max(1, nbThreads);
+    }
+
+    public void setVariationIntensite(double variationIntensite) {
+        this.variationIntensite = variationIntensite;
+    }
+
+    // Date simulée (en millisecondes) à laquelle chaque tirage est arrêté
+    public void setHorizon(long horizon) {
+        this.horizon = horizon;
+    }
+
+    /**
+     * Exécute tous les tirages (carte × stratégie × graine) en parallèle.
+     *
+     * @param cartes Fichiers des cartes.
+     * @param strategies Stratégies du chef pompier (Elementaire, Evoluee, Optimale, Cooperative).
+     * @param premiereGraine Première graine.
+     * @param nbGraines Nombre de graines consécutives par carte et par stratégie.
+     * @return Les tirages, dans l'ordre carte, stratégie, graine.
+     * @throws FileNotFoundException si une carte est introuvable.
+     * @throws DataFormatException si une carte est mal formée.
+     */
+
+    public List<Tirage> executer(List<String> cartes, List<String> strategies, long premiereGraine, int nbGraines)
+            throws FileNotFoundException, DataFormatException {
+        // États initiaux, lus une seule fois par carte
+        Map<String, InstantaneSimulation> etatsInitiaux = new LinkedHashMap<>();
+        for (String carte : cartes) {
+            MoteurSimulation moteur = new MoteurSimulation(LecteurDonnees.creeDonnees(carte));
+            etatsInitiaux.put(carte, InstantaneSimulation.capturer(moteur));
+        }
+
+        List<Callable<Tirage>> taches = new ArrayList<>();
+        for (String carte : cartes) {
+            for (String strategie : strategies) {
+                for (long graine = premiereGraine; graine < premiereGraine + nbGraines; graine++) {
+                    InstantaneSimulation etat = etatsInitiaux.get(carte);
+                    long g = graine;
+                    taches.add(() -> executerTirage(carte, etat, strategie, g));
+                }
+            }
+        }
+
+        // Le journal des événements est coupé pendant les tirages
+        SortieJournal sortieJournal = Journal.getSortie();
+        Journal.setSortie(SortieJournal.AUCUNE);
+        ForkJoinPool pool = new ForkJoinPool(nbThreads);
+        try {
+            List<Tirage> tirages = new ArrayList<>(taches.size());
+            for (Future<Tirage> resultat : pool.invokeAll(taches)) {
+                tirages.add(resultat.get());
+            }
+            return tirages;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Exécution interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant un tirage : " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+            Journal.setSortie(sortieJournal);
+        }
+    }
+
+    // Un tirage : copie de l'état initial, perturbation selon la graine, puis simulation complète
+    private Tirage executerTirage(String carte, InstantaneSimulation etat, String strategie, long graine) {
+        MoteurSimulation moteur = etat.creerMoteur();
+        DonneesSimulation donnees = moteur.getDonnees();
+        if (graine != 0) {
+            perturber(donnees, new Random(graine));
+        }
+        moteur.setTypeTest(strategie);
+        moteur.setChefPompier(new ChefPompier(donnees));
+        moteur.setModeEvenementiel(true);
+        ResultatSimulation resultat = moteur.executer(horizon);
+        return new Tirage(carte, strategie, graine, moteur, resultat);
+    }
+
+    // Mélange l'ordre des robots et fait varier l'intensité de chaque incendie (elle reste strictement positive)
+    private void perturber(DonneesSimulation donnees, Random aleatoire) {
+        Collections.shuffle(donnees.getRobots(), aleatoire);
+        for (Incendie incendie : donnees.getIncendies()) {
+            double facteur = 1 + variationIntensite * (2 * aleatoire.nextDouble() - 1);
+            incendie.setIntensite(Math.max(1, (int) Math.round(incendie.getIntensite() * facteur)));
+        }
+    }
+
+    /**
+     * Regroupe les tirages par carte et par stratégie.
+     *
+     * @param tirages Les tirages.
+     * @return Une synthèse par couple (carte, stratégie), dans l'ordre de première apparition.
+     */
+
+    public static List<Synthese> synthetiser(List<Tirage> tirages) {
+        Map<String, Synthese> syntheses = new LinkedHashMap<>();
+        for (Tirage tirage : tirages) {
+            String cle = tirage.getCarte() + "|" + tirage.getStrategie();
+            syntheses.computeIfAbsent(cle, c -> new Synthese(tirage.getCarte(), tirage.getStrategie())).ajouter(tirage);
+        }
+        return new ArrayList<>(syntheses.values());
+    }
+}
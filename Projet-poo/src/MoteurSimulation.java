@@ -0,0 +1,426 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Scanner;
+
+/**
+ * Classe MoteurSimulation.
+ *
+ * Cette classe contient le cœur de la simulation, indépendant de toute interface graphique :
+ * la file des événements, la date courante, le chef pompier et la stratégie employée.
+ * Elle peut être utilisée seule pour exécuter une simulation "sans fenêtre" (mode batch),
+ * ou être étendue par {@link Simulateur} qui y ajoute l'affichage.
+ *
+ * Les dates sont des entiers en millisecondes simulées (voir {@link Temps}).
+ * Deux modes d'avancement sont possibles : le mode par pas (une seconde à chaque appel, la
+ * stratégie étant appelée toutes les 5 secondes) et le mode événementiel, où la date saute
+ * directement à celle du prochain événement et où la stratégie est elle-même un événement
+ * périodique ({@link EvenementStrategie}). Dans les deux modes, les événements de même date
+ * s'exécutent dans leur ordre d'ajout, éventuellement en parallèle lorsqu'ils sont indépendants
+ * (voir {@link EcheancierEvenements}).
+ */
+
+public class MoteurSimulation {
+    /** Horizon par défaut d'une exécution batch (en millisecondes simulées) */
+    public static final long HORIZON_PAR_DEFAUT = 30L * 24 * 3600 * Temps.SECONDE;
+    /** Période d'appel de la stratégie du chef pompier (en millisecondes simulées) */
+    public static final long PERIODE_STRATEGIE = 5 * Temps.SECONDE;
+    /** Durée d'un pas du mode par pas (en millisecondes simulées) */
+    public static final long PAS = Temps.SECONDE;
+
+    protected DonneesSimulation donnees;
+    protected EcheancierEvenements evenements;
+    protected long dateSimulation;
+    protected ChefPompier chefPompier;
+    protected String typetest;
+    protected long nbEvenementsExecutes;
+    protected boolean modeEvenementiel;
+    protected Metriques metriques;
+    private boolean strategieProgrammee;
+    private long derniereStrategie = Long.MIN_VALUE;
+
+    /**
+     * Constructeur du moteur de simulation.
+     *
+     * @param donnees Les données de simulation.
+     */
+
+    public MoteurSimulation(DonneesSimulation donnees) {
+        this.donnees = donnees;
+        this.dateSimulation = -PAS;
+        this.evenements = new EcheancierEvenements();
+        this.typetest = "";
+        lierRobots();
+    }
+
+    // Associe chaque robot des données à ce moteur
+    protected void lierRobots() {
+        for (Robot robot : donnees.getRobots()) {
+            robot.setSimulateur(this);
+        }
+    }
+
+    public long getDateActuelle() {
+        return dateSimulation;
+    }
+
+    public DonneesSimulation getDonnees() {
+        return this.donnees;
+    }
+
+    public ChefPompier getChefPompier() {
+        return chefPompier;
+    }
+
+    public void setChefPompier(ChefPompier chefPompier){
+        this.chefPompier = chefPompier;
+    }
+
+    public void setTypeTest(String typetest){
+        this.typetest = typetest;
+    }
+
+    public long getNbEvenementsExecutes() {
+        return nbEvenementsExecutes;
+    }
+
+    public boolean estModeEvenementiel() {
+        return modeEvenementiel;
+    }
+
+    /**
+     * Choisit le mode d'avancement de la simulation.
+     *
+     * @param modeEvenementiel true pour sauter directement d'un événement au suivant,
+     *                         false pour avancer seconde par seconde.
+     */
+
+    public void setModeEvenementiel(boolean modeEvenementiel) {
+        this.modeEvenementiel = modeEvenementiel;
+    }
+
+    /**
+     * Choisit d'exécuter en parallèle ou non les événements indépendants d'une même date.
+     * Le mode séquentiel (par défaut) garantit aussi l'ordre des messages affichés.
+     *
+     * @param parallele true pour le mode parallèle.
+     */
+
+    public void setExecutionParallele(boolean parallele) {
+        evenements.setParallele(parallele);
+    }
+
+    public Metriques getMetriques() {
+        return metriques;
+    }
+
+    /**
+     * Attache des métriques au moteur : elles suivent la simulation à partir de la date courante.
+     * À appeler après un éventuel chargement d'instantané, qui remplace les données.
+     *
+     * @param metriques Les métriques, ou null pour ne plus rien mesurer.
+     */
+
+    public void setMetriques(Metriques metriques) {
+        this.metriques = metriques;
+        if (metriques != null) {
+            metriques.attacher(this);
+        }
+    }
+
+    public void chargeScenario(String fichierScenario) throws FileNotFoundException {
+        Scanner scanner = new Scanner(new File(fichierScenario));
+        while (scanner.hasNext()) {
+            try {
+                long date = Temps.depuisSecondes(Double.parseDouble(scanner.next())); // dates du fichier en secondes
+                String identifiantRobot = scanner.next(); // Utiliser l'identifiant unique
+                String action = scanner.next();
+
+                // Récupérer le robot par identifiant unique
+                Robot robot = donnees.getRobotById(identifiantRobot);
+
+                if (robot == null) {
+                    Journal.erreur(date, "scenario", "Erreur : Robot avec identifiant {} introuvable", identifiantRobot);
+                    continue;
+                }
+
+                // Gérer l'action en fonction de la commande du scénario
+                if (action.equals("MOVE")) {
+                    int x2 = scanner.nextInt();
+                    int y2 = scanner.nextInt();
+                    if (donnees.getCarte().isInBounds(x2, y2)) {
+                        Case destination = donnees.getCarte().getCase(x2, y2);
+                        ajouteEvenement(new EvenementDeplacement(date, robot, destination));
+                    } else {
+                        ajouteEvenement(new EvenementErreur(date, "Erreur : Case (" + x2 + ", " + y2 + ") hors limites."));
+                    }
+                } else if (action.equals("INTERVENE")) {
+                    int x = scanner.nextInt();
+                    int y = scanner.nextInt();
+                    if (donnees.getCarte().isInBounds(x, y)) {
+                        Case position = donnees.getCarte().getCase(x, y);
+                        ajouteEvenement(new EvenementInterventionEtape2(date, robot, position));
+                    } else {
+                        ajouteEvenement(new EvenementErreur(date, "Erreur : Case (" + x + ", " + y + ") hors limites."));
+                    }
+                } else if (action.equals("REFILL")) {
+                    ajouteEvenement(new EvenementRemplissage(date, robot));
+                }
+            } catch (Exception e) {
+                ajouteEvenement(new EvenementErreur(dateSimulation, "Erreur de format dans le fichier de scénario."));
+            }
+        }
+        scanner.close();
+    }
+
+    public String getTypeTest() {
+        return typetest;
+    }
+
+    // Événements en attente, par date puis dans l'ordre d'ajout (voir InstantaneSimulation)
+    Evenement[] getEvenementsEnAttente() {
+        return evenements.versTableau();
+    }
+
+    long getDerniereStrategie() {
+        return derniereStrategie;
+    }
+
+    boolean estStrategieProgrammee() {
+        return strategieProgrammee;
+    }
+
+    /**
+     * Remplace tout l'état du moteur par un état sauvegardé. Les événements doivent être donnés
+     * dans l'ordre de {@link #getEvenementsEnAttente()} : les événements de même date
+     * s'exécutent donc dans le même ordre qu'avant la sauvegarde.
+     */
+
+    void restaurerEtat(DonneesSimulation donnees, ChefPompier chefPompier, long dateSimulation,
+                       long nbEvenementsExecutes, boolean strategieProgrammee, long derniereStrategie,
+                       Evenement[] evenementsEnAttente) {
+        this.donnees = donnees;
+        this.chefPompier = chefPompier;
+        this.dateSimulation = dateSimulation;
+        this.nbEvenementsExecutes = nbEvenementsExecutes;
+        this.strategieProgrammee = strategieProgrammee;
+        this.derniereStrategie = derniereStrategie;
+        this.evenements.vider();
+        for (Evenement evenement : evenementsEnAttente) {
+            this.evenements.ajouter(evenement);
+        }
+        lierRobots();
+    }
+
+    // Remet le moteur dans son état initial (date, file d'événements et compteurs)
+    protected void reinitialiserMoteur() {
+        dateSimulation = 0;
+        evenements.vider();
+        nbEvenementsExecutes = 0;
+        strategieProgrammee = false;
+        derniereStrategie = Long.MIN_VALUE;
+    }
+
+    /**
+     * Active la propagation des incendies : une première génération est programmée une période
+     * après la date courante, puis chaque génération programme la suivante.
+     *
+     * @param propagation Le modèle de propagation, construit sur les données de ce moteur.
+     */
+
+    public void activerPropagation(PropagationIncendies propagation) {
+        ajouteEvenement(new EvenementPropagation(Math.max(dateSimulation, 0) + propagation.getPeriode(), this, propagation));
+    }
+
+    public void ajouteEvenement(Evenement e) {
+        evenements.ajouter(e);
+    }
+
+    public void incrementeDate() {
+        dateSimulation += PAS;
+        while (!evenements.estVide() && evenements.prochaineDate() <= dateSimulation) {
+            if (metriques == null) {
+                nbEvenementsExecutes += evenements.executerDate(evenements.prochaineDate(), null);
+            } else {
+                metriques.mesurerFile(evenements.taille());
+                nbEvenementsExecutes += evenements.executerDate(evenements.prochaineDate(), metriques::evenementExecute);
+            }
+        }
+        if (metriques != null) {
+            metriques.dateAtteinte(dateSimulation);
+        }
+    }
+
+    /**
+     * Appelle la stratégie du chef pompier toutes les 5 secondes simulées (PERIODE_STRATEGIE),
+     * selon le type de test choisi. Le chef pompier ne replanifie que si un robot ou un
+     * incendie a changé d'état depuis.
+     */
+
+    protected void appliquerStrategie() {
+        if (chefPompier == null || dateSimulation % PERIODE_STRATEGIE != 0) {
+            return;
+        }
+        executerStrategie();
+    }
+
+    // Appelle la stratégie correspondant au type de test, si l'état a changé depuis le dernier appel
+    protected void executerStrategie() {
+        if (metriques == null) {
+            this.chefPompier.planifier(this.typetest);
+            return;
+        }
+        long debut = System.nanoTime();
+        this.chefPompier.planifier(this.typetest);
+        metriques.strategieExecutee(System.nanoTime() - debut);
+    }
+
+    /**
+     * Avance la simulation d'une seconde : stratégie éventuelle puis exécution des événements.
+     */
+
+    public void pas() {
+        appliquerStrategie();
+        incrementeDate();
+    }
+
+    /**
+     * Mode événementiel : exécute tous les événements dont la date est inférieure ou égale
+     * à la date cible, en sautant directement d'une date d'événement à la suivante.
+     *
+     * @param dateCible Date simulée à atteindre.
+     */
+
+    public void executerJusqua(long dateCible) {
+        demarrerStrategie();
+        while (!evenements.estVide() && evenements.prochaineDate() <= dateCible) {
+            long date = evenements.prochaineDate();
+            dateSimulation = Math.max(dateSimulation, date);
+            if (metriques != null) {
+                metriques.mesurerFile(evenements.taille());
+            }
+            nbEvenementsExecutes += evenements.executerDate(date, evenement -> {
+                if (metriques != null) {
+                    metriques.evenementExecute(evenement);
+                }
+                if (!(evenement instanceof EvenementStrategie)) {
+                    programmerStrategie();
+                }
+            });
+            if (metriques != null) {
+                metriques.dateAtteinte(dateSimulation);
+            }
+        }
+        dateSimulation = Math.max(dateSimulation, dateCible);
+    }
+
+    /**
+     * Mode événementiel : avance la date jusqu'au prochain événement et l'exécute,
+     * ainsi que tous ceux prévus à la même date.
+     *
+     * @return false s'il ne reste aucun événement à exécuter.
+     */
+
+    public boolean avancerAuProchainEvenement() {
+        demarrerStrategie();
+        if (evenements.estVide()) {
+            return false;
+        }
+        executerJusqua(evenements.prochaineDate());
+        return true;
+    }
+
+    // Programme le tout premier appel de la stratégie
+    private void demarrerStrategie() {
+        if (derniereStrategie == Long.MIN_VALUE) {
+            programmerStrategie();
+        }
+    }
+
+    /**
+     * Programme le prochain appel de la stratégie, à la première date multiple de la période
+     * qui suit le dernier appel. La stratégie n'est programmée que si le chef pompier a des
+     * changements à traiter : sinon un nouvel appel ne ferait rien.
+     */
+
+    private void programmerStrategie() {
+        if (chefPompier == null || strategieProgrammee || !chefPompier.aReplanifier()) {
+            return;
+        }
+        long date = Math.max(dateSimulation, 0);
+        long prochaine = (date + PERIODE_STRATEGIE - 1) / PERIODE_STRATEGIE * PERIODE_STRATEGIE;
+        if (derniereStrategie != Long.MIN_VALUE) {
+            prochaine = Math.max(prochaine, derniereStrategie + PERIODE_STRATEGIE);
+        }
+        strategieProgrammee = true;
+        ajouteEvenement(new EvenementStrategie(prochaine, this));
+    }
+
+    /**
+     * Exécution d'un {@link EvenementStrategie} : appelle la stratégie, puis la reprogramme
+     * une période plus tard s'il reste des robots à reconsidérer.
+     */
+
+    public void strategiePeriodique() {
+        strategieProgrammee = false;
+        derniereStrategie = dateSimulation;
+        executerStrategie();
+        programmerStrategie();
+    }
+
+    /**
+     * Indique si tous les incendies sont éteints.
+     *
+     * @return true si l'intensité de chaque incendie est nulle.
+     */
+
+    public boolean tousIncendiesEteints() {
+        for (Incendie incendie : donnees.getIncendies()) {
+            if (incendie.getIntensite() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exécute la simulation sans affichage, aussi vite que possible, jusqu'à l'extinction
+     * de tous les incendies ou jusqu'à l'horizon donné.
+     *
+     * @param horizon Date simulée (en millisecondes) au-delà de laquelle on arrête la simulation.
+     * @return Le résumé de l'exécution.
+     */
+
+    public ResultatSimulation executer(long horizon) {
+        long debut = System.nanoTime();
+        if (modeEvenementiel) {
+            demarrerStrategie();
+            while (!tousIncendiesEteints() && dateSimulation < horizon
+                    && !evenements.estVide() && evenements.prochaineDate() <= horizon) {
+                avancerAuProchainEvenement();
+            }
+        } else {
+            while (!tousIncendiesEteints() && dateSimulation < horizon) {
+                pas();
+            }
+        }
+        return creerResultat(System.nanoTime() - debut);
+    }
+
+    public ResultatSimulation executer() {
+        return executer(HORIZON_PAR_DEFAUT);
+    }
+
+    protected ResultatSimulation creerResultat(long dureeNanos) {
+        int nbEteints = 0;
+        long intensiteRestante = 0;
+        for (Incendie incendie : donnees.getIncendies()) {
+            if (incendie.getIntensite() <= 0) {
+                nbEteints++;
+            } else {
+                intensiteRestante += incendie.getIntensite();
+            }
+        }
+        return new ResultatSimulation(dateSimulation, nbEvenementsExecutes, donnees.getIncendies().size(),
+                nbEteints, intensiteRestante, dureeNanos);
+    }
+}
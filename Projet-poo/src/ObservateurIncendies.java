@@ -0,0 +1,24 @@
+/**
+ * L'interface ObservateurIncendies permet d'être prévenu des changements d'état des incendies,
+ * afin de tenir à jour les structures qui en dépendent (caches, index, ...).
+ * Les observateurs s'enregistrent auprès de {@link DonneesSimulation}.
+ */
+
+public interface ObservateurIncendies {
+
+    /**
+     * Appelée lorsque l'intensité d'un incendie atteint zéro.
+     *
+     * @param incendie L'incendie qui vient d'être éteint.
+     */
+    void incendieEteint(Incendie incendie);
+
+    /**
+     * Appelée lorsqu'un nouvel incendie apparaît en cours de simulation (voir
+     * {@link PropagationIncendies}).
+     *
+     * @param incendie Le nouvel incendie, déjà ajouté aux données.
+     */
+    default void nouvelIncendie(Incendie incendie) {
+    }
+}
@@ -13,6 +13,11 @@ public class Pattes extends Robot {
         this.reservoir = Integer.MAX_VALUE; // Capacité infinie pour la simulation
     }
 
+    @Override
+    public int getCapaciteMax() {
+        return CAPACITE_MAX;
+    }
+
     @Override
     public long tempsRemplissage() {
         return 0; // Indique qu'il n'a pas besoin de temps de remplissage
@@ -44,7 +49,7 @@ public class Pattes extends Robot {
         Incendie incendie = position.getIncendie();
 
         if (incendie == null || incendie.getIntensite() <= 0) {
-            System.out.println("Aucun incendie à éteindre ici.");
+            Journal.avertissement(dateJournal(), "intervention", "Aucun incendie à éteindre ici.");
             return;
         }
 
@@ -54,19 +59,20 @@ public class Pattes extends Robot {
         while (incendie.getIntensite() > 0 && reservoir > 0) {
             int eauUtilisee = Math.min(VOLUME_INTERVENTION, incendie.getIntensite());
             reservoir -= eauUtilisee;
+            eauDeversee += eauUtilisee;
             incendie.diminueIntensite(eauUtilisee);
             totalEauUtilisee += eauUtilisee;
         }
 
         // Affichage d'un seul message avec le total de litres utilisés
-        System.out.println("Intervention réussie : incendie réduit de " + totalEauUtilisee + " litres au total.");
+        Journal.info(dateJournal(), "intervention", "Intervention réussie : incendie réduit de {} litres au total.", totalEauUtilisee);
 
         // Vérification si l'incendie est éteint et mise à jour de la carte
         if (incendie.getIntensite() <= 0) {
-            System.out.println("Incendie éteint");
-            this.enIntervention = false;
+            Journal.info(dateJournal(), "extinction", "Incendie éteint");
+            terminerIntervention();
         } else if (reservoir <= 0) {
-            System.out.println("Intervention arrêtée : réservoir vide.");
+            Journal.info(dateJournal(), "intervention", "Intervention arrêtée : réservoir vide.");
         }
     }
 
@@ -0,0 +1,216 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * La classe PlanificateurRemplissage choisit, pour toute la flotte, où et quand chaque robot
+ * remplit son réservoir.
+ *
+ * Chaque case de remplissage (voir {@link ChampsDistances#getChampRemplissage(Robot)}) est un
+ * poste qui ne sert qu'un robot à la fois : les remplissages y sont réservés sur un échéancier,
+ * et un robot qui arrive sur un poste occupé attend qu'il se libère. Le poste retenu pour un robot
+ * est celui où son plan se termine le plus tôt : vrai temps de trajet jusqu'au poste, attente
+ * derrière les réservations des autres robots, remplissage, puis retour éventuel à son point de
+ * départ. La flotte se répartit ainsi entre les points d'eau au lieu de converger vers le plus proche.
+ *
+ * Un robot va au poste le plus proche s'il y est servi dès son arrivée. Sinon, seuls les postes
+ * qui peuvent battre ce dernier sont examinés : l'exploration s'arrête au temps de trajet
+ * au-delà duquel aucun poste ne peut finir plus tôt, même sans attente.
+ */
+
+public class PlanificateurRemplissage {
+    private final DonneesSimulation donnees;
+    // Clé des coûts d'un type de robot -> cases de remplissage
+    private final Map<String, int[]> postes = new HashMap<>();
+    // Poste -> remplissages réservés (début -> fin)
+    private final Map<Integer, TreeMap<Long, Long>> occupations = new HashMap<>();
+    // Robot -> réservation en cours (poste, début, fin)
+    private final Map<Robot, long[]> reservations = new HashMap<>();
+
+    public PlanificateurRemplissage(DonneesSimulation donnees) {
+        this.donnees = donnees;
+    }
+
+    /**
+     * Choisit le poste de remplissage d'un robot qui part de sa position à une date donnée.
+     *
+     * @param robot Le robot à remplir.
+     * @param revenir Vrai si le robot revient ensuite à sa position (son incendie).
+     * @param date La date de départ.
+     * @return La case du poste, ou null si aucun n'est accessible.
+     */
+
+    public Case choisirPoste(Robot robot, boolean revenir, long date) {
+        Carte carte = donnees.getCarte();
+        GrilleCouts grille = robot.getGrilleCouts();
+        int depart = carte.getIndice(robot.getPosition());
+        ChampDistances champ = donnees.getChampsDistances().getChampRemplissage(robot);
+        int plusProche = champ.getCible(depart);
+        if (plusProche < 0) {
+            return null;
+        }
+        // Le retour emprunte le chemin de l'aller à l'envers : il coûte l'entrée dans la case de
+        // départ au lieu de l'entrée dans le poste
+        double coutDepart = revenir ? grille.getCout(depart) : 0.0;
+        if (Double.isInfinite(coutDepart)) {
+            coutDepart = 0.0;
+        }
+        long duree = robot.tempsRemplissage();
+
+        // Sans attente au poste le plus proche, aucun autre ne gagnerait plus d'un pas : on le garde
+        double allerPlusProche = champ.getDistance(depart);
+        long arrivee = Temps.apres(date, Temps.depuisSecondes(allerPlusProche));
+        if (duree == 0 || arrivee == Temps.INFINI || premierCreneau(plusProche, arrivee, duree) == arrivee) {
+            return carte.getCase(plusProche);
+        }
+        int meilleur = plusProche;
+        long finMeilleure = fin(robot, grille, plusProche, allerPlusProche, revenir, coutDepart, date);
+
+        // L'exploration s'élargit par paliers : un poste libre trouvé près du robot réduit aussitôt
+        // le rayon utile, que l'attente au poste le plus proche rendait d'abord très grand
+        int[] candidats = postes.computeIfAbsent(robot.getCleCouts(), cle -> ChampsDistances.casesRemplissage(carte, grille));
+        RechercheChemin recherche = carte.getRechercheChemin();
+        double rayon = 2 * allerPlusProche + grille.getCoutMax();
+        while (true) {
+            double allerMax = allerMax(finMeilleure - date - duree, revenir, coutDepart, grille);
+            rayon = Math.min(rayon, allerMax);
+            recherche.explorerDepuis(grille, depart, rayon);
+            for (int poste : candidats) {
+                double aller = recherche.getDistance(poste);
+                if (poste == meilleur || aller > rayon) {
+                    continue;
+                }
+                long fin = fin(robot, grille, poste, aller, revenir, coutDepart, date);
+                if (fin < finMeilleure) {
+                    finMeilleure = fin;
+                    meilleur = poste;
+                }
+            }
+            if (rayon >= allerMax(finMeilleure - date - duree, revenir, coutDepart, grille)) {
+                break;
+            }
+            rayon *= 2;
+        }
+        return carte.getCase(meilleur);
+    }
+
+    // Un poste ne finit avant le délai donné que si son aller (et son retour, presque aussi long) y tiennent
+    private static double allerMax(long delai, boolean revenir, double coutDepart, GrilleCouts grille) {
+        double secondes = Temps.enSecondes(delai);
+        return revenir ? (secondes - coutDepart + grille.getCoutMax()) / 2 : secondes;
+    }
+
+    // Date de fin du plan passant par un poste : aller, attente, remplissage et retour éventuel
+    private long fin(Robot robot, GrilleCouts grille, int poste, double aller, boolean revenir,
+                     double coutDepart, long date) {
+        if (Double.isInfinite(aller)) {
+            return Temps.INFINI;
+        }
+        long arrivee = Temps.apres(date, Temps.depuisSecondes(aller));
+        long duree = robot.tempsRemplissage();
+        long finRemplissage = Temps.apres(premierCreneau(poste, arrivee, duree), duree);
+        double retour = revenir ? aller - grille.getCout(poste) + coutDepart : 0.0;
+        return Temps.apres(finRemplissage, Temps.depuisSecondes(Math.max(retour, 0.0)));
+    }
+
+    /**
+     * Réserve le poste pour le remplissage d'un robot, au premier créneau libre après son
+     * arrivée. La réservation précédente du robot est libérée.
+     *
+     * @param robot Le robot.
+     * @param poste La case du poste.
+     * @param arrivee La date d'arrivée du robot sur le poste.
+     * @return La date de début du remplissage.
+     */
+
+    public long reserver(Robot robot, Case poste, long arrivee) {
+        liberer(robot);
+        int indice = donnees.getCarte().getIndice(poste);
+        long duree = robot.tempsRemplissage();
+        purger(indice, robot.getSimulateur().getDateActuelle());
+        long debut = premierCreneau(indice, arrivee, duree);
+        if (duree > 0) {
+            occupations.computeIfAbsent(indice, p -> new TreeMap<>()).put(debut, debut + duree);
+            reservations.put(robot, new long[] { indice, debut, debut + duree });
+        }
+        return debut;
+    }
+
+    // Libère la réservation du robot (plan annulé)
+    public void liberer(Robot robot) {
+        long[] reservation = reservations.remove(robot);
+        if (reservation == null) {
+            return;
+        }
+        TreeMap<Long, Long> occupation = occupations.get((int) reservation[0]);
+        if (occupation != null && Long.valueOf(reservation[2]).equals(occupation.get(reservation[1]))) {
+            occupation.remove(reservation[1]);
+        }
+    }
+
+    // Date de début du premier créneau libre de la durée donnée, à partir d'une date
+    private long premierCreneau(int poste, long date, long duree) {
+        TreeMap<Long, Long> occupation = occupations.get(poste);
+        if (duree == 0 || occupation == null) {
+            return date;
+        }
+        long debut = date;
+        Map.Entry<Long, Long> precedente = occupation.floorEntry(debut);
+        if (precedente != null && precedente.getValue() > debut) {
+            debut = precedente.getValue();
+        }
+        for (Map.Entry<Long, Long> suivante : occupation.tailMap(debut, true).entrySet()) {
+            if (suivante.getKey() >= Temps.apres(debut, duree)) {
+                break;
+            }
+            debut = Math.max(debut, suivante.getValue());
+        }
+        return debut;
+    }
+
+    // Oublie les remplissages terminés : aucune recherche ne commence avant la date courante
+    private void purger(int poste, long date) {
+        TreeMap<Long, Long> occupation = occupations.get(poste);
+        if (occupation != null) {
+            occupation.values().removeIf(fin -> fin <= date);
+        }
+    }
+
+    /**
+     * Écrit les réservations dans un instantané : leur nombre puis (robot, poste, début, fin)
+     * pour chacune, dans l'ordre des robots.
+     */
+
+    void ecrire(DataOutputStream sortie, InstantaneSimulation.Contexte contexte) throws IOException {
+        int nb = 0;
+        for (Robot robot : donnees.getRobots()) {
+            if (reservations.containsKey(robot)) {
+                nb++;
+            }
+        }
+        sortie.writeInt(nb);
+        for (Robot robot : donnees.getRobots()) {
+            long[] reservation = reservations.get(robot);
+            if (reservation != null) {
+                sortie.writeInt(contexte.indiceRobot(robot));
+                sortie.writeInt((int) reservation[0]);
+                sortie.writeLong(reservation[1]);
+                sortie.writeLong(reservation[2]);
+            }
+        }
+    }
+
+    // Relit les réservations écrites par ecrire
+    void lire(ByteBuffer entree, InstantaneSimulation.Contexte contexte) {
+        int nb = entree.getInt();
+        for (int i = 0; i < nb; i++) {
+            Robot robot = contexte.robot(entree.getInt());
+            long[] reservation = { entree.getInt(), entree.getLong(), entree.getLong() };
+            occupations.computeIfAbsent((int) reservation[0], p -> new TreeMap<>()).put(reservation[1], reservation[2]);
+            reservations.put(robot, reservation);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * La classe PropagationIncendies fait évoluer les incendies d'une simulation comme un automate
+ * cellulaire : à chaque génération, les incendies actifs grandissent, et une case combustible
+ * voisine d'un incendie assez intense peut prendre feu à son tour.
+ *
+ * La croissance dépend de la nature de la case en feu, la probabilité d'embrasement de celle de
+ * la case voisine : par défaut le feu gagne les forêts et les habitations, tandis que l'eau, la
+ * roche et le terrain libre font office de coupe-feu. Une case ayant déjà porté un incendie, même
+ * éteint, ne se rallume pas.
+ *
+ * Une génération lit une grille des intensités et écrit la suivante (double tampon) : chaque case
+ * ne dépend que de la grille courante, si bien que les lignes sont traitées par bandes en
+ * parallèle. Les tirages aléatoires dépendent seulement de la graine, de la génération et de la
+ * case, donc le résultat ne dépend pas du nombre de threads. La propagation est déclenchée
+ * périodiquement par un {@link EvenementPropagation} (voir
+ * {@link MoteurSimulation#activerPropagation(PropagationIncendies)}).
+ */
+
+public class PropagationIncendies {
+    /** Période par défaut entre deux générations (en millisecondes simulées) */
+    public static final long PERIODE_PAR_DEFAUT = 60 * Temps.SECONDE;
+
+    private static final int HAUTEUR_BANDE = 64;
+    // En dessous de ce nombre de cases, le découpage en tâches coûte plus qu'il ne rapporte
+    private static final int TAILLE_MIN_PARALLELE = 1 << 16;
+
+    private final DonneesSimulation donnees;
+    private final Carte carte;
+
+    // Paramètres, par ordinal de NatureTerrain
+    private long periode = PERIODE_PAR_DEFAUT;
+    private long graine = 1;
+    private final int[] croissance = new int[NatureTerrain.values().length];      // pour mille par génération
+    private final double[] probabilite = new double[NatureTerrain.values().length]; // par voisin en feu
+    private int seuilPropagation = 2000;
+    private int intensiteInitiale = 1000;
+    private int intensiteMax = 50000;
+    private boolean parallele = true;
+
+    private long generation;
+
+    // Grilles des intensités (courante, puis suivante) et cases ayant déjà porté un incendie
+    private int[] courante;
+    private int[] suivante;
+    private boolean[] brulees;
+    // Probabilité d'embrasement selon la nature de la case et le nombre de voisins en feu (0 à 4)
+    private double[][] probabilitesEmbrasement;
+
+    public PropagationIncendies(DonneesSimulation donnees) {
+        this.donnees = donnees;
+        this.carte = donnees.getCarte();
+        int nbCases = carte.getNbLignes() * carte.getNbColonnes();
+        this.courante = new int[nbCases];
+        this.suivante = new int[nbCases];
+        this.brulees = new boolean[nbCases];
+        croissance[NatureTerrain.FORET.ordinal()] = 50;
+        croissance[NatureTerrain.HABITAT.ordinal()] = 30;
+        croissance[NatureTerrain.TERRAIN_LIBRE.ordinal()] = 10;
+        probabilite[NatureTerrain.FORET.ordinal()] = 0.25;
+        probabilite[NatureTerrain.HABITAT.ordinal()] = 0.10;
+    }
+
+    public long getPeriode() {
+        return periode;
+    }
+
+    public void setPeriode(long periode) {
+        if (periode <= 0) {
+            throw new IllegalArgumentException("Période de propagation invalide : " + periode);
+        }
+        this.periode = periode;
+    }
+
+    public void setGraine(long graine) {
+        this.graine = graine;
+    }
+
+    // Croissance, en pour mille de l'intensité par génération, d'un incendie sur ce terrain
+    public void setCroissance(NatureTerrain nature, int pourMille) {
+        croissance[nature.ordinal()] = pourMille;
+    }
+
+    // Probabilité qu'un voisin en feu embrase une case de ce terrain à chaque génération
+    public void setProbabilite(NatureTerrain nature, double probabilite) {
+        this.probabilite[nature.ordinal()] = probabilite;
+        probabilitesEmbrasement = null;
+    }
+
+    // Intensité minimale d'un incendie pour qu'il se propage
+    public void setSeuilPropagation(int seuilPropagation) {
+        this.seuilPropagation = seuilPropagation;
+    }
+
+    public void setIntensiteInitiale(int intensiteInitiale) {
+        this.intensiteInitiale = intensiteInitiale;
+    }
+
+    public void setIntensiteMax(int intensiteMax) {
+        this.intensiteMax = intensiteMax;
+    }
+
+    public void setParallele(boolean parallele) {
+        this.parallele = parallele;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Calcule une génération : fait grandir les incendies actifs et allume les nouveaux, qui
+     * sont signalés aux observateurs des données.
+     *
+     * @return Le nombre de nouveaux incendies.
+     */
+
+    public int propager() {
+        int nbCases = courante.length;
+        if (probabilitesEmbrasement == null) {
+            calculerProbabilitesEmbrasement();
+        }
+
+        // La grille courante reprend l'état réel des incendies (les robots les ont réduits entre-temps)
+        List<Incendie> incendies = donnees.getIncendies();
+        for (Incendie incendie : incendies) {
+            int indice = carte.getIndice(incendie.getPosition());
+            courante[indice] = incendie.getIntensite();
+            brulees[indice] = true;
+        }
+
+        int nbBandes = (carte.getNbLignes() + HAUTEUR_BANDE - 1) / HAUTEUR_BANDE;
+        List<List<Integer>> embrasements = new ArrayList<>(nbBandes);
+        for (int b = 0; b < nbBandes; b++) {
+            embrasements.add(new ArrayList<>());
+        }
+        IntStream bandes = IntStream.range(0, nbBandes);
+        if (parallele && nbCases >= TAILLE_MIN_PARALLELE) {
+            bandes = bandes.parallel();
+        }
+        bandes.forEach(b -> calculerBande(b, embrasements.get(b)));
+
+        // Application, dans l'ordre des données puis des bandes : le résultat est le même en parallèle
+        int nbIncendies = incendies.size();
+        for (int i = 0; i < nbIncendies; i++) {
+            Incendie incendie = incendies.get(i);
+            int intensite = suivante[carte.getIndice(incendie.getPosition())];
+            if (incendie.getIntensite() > 0 && intensite != incendie.getIntensite()) {
+                incendie.setIntensite(intensite);
+            }
+        }
+        int nbNouveaux = 0;
+        for (List<Integer> bande : embrasements) {
+            for (int indice : bande) {
+                brulees[indice] = true;
+                donnees.allumerIncendie(new Incendie(carte.getCase(indice), intensiteInitiale));
+                nbNouveaux++;
+            }
+        }
+
+        int[] echange = courante;
+        courante = suivante;
+        suivante = echange;
+        generation++;
+        return nbNouveaux;
+    }
+
+    // Calcule la grille suivante sur une bande de lignes ; note les cases qui s'embrasent
+    private void calculerBande(int bande, List<Integer> embrasements) {
+        int nbColonnes = carte.getNbColonnes();
+        int debut = bande * HAUTEUR_BANDE * nbColonnes;
+        int fin = Math.min(carte.getNbLignes(), (bande + 1) * HAUTEUR_BANDE) * nbColonnes;
+        byte[] terrains = carte.getTerrains();
+        int nbCases = courante.length;
+
+        for (int indice = debut; indice < fin; indice++) {
+            int intensite = courante[indice];
+            int nature = terrains[indice];
+            if (intensite > 0) {
+                long croissante = intensite + (long) intensite * croissance[nature] / 1000;
+                suivante[indice] = (int) Math.min(Math.max(intensite, intensiteMax), croissante);
+                continue;
+            }
+            suivante[indice] = 0;
+            if (brulees[indice] || probabilite[nature] <= 0) {
+                continue;
+            }
+            int colonne = indice % nbColonnes;
+            int voisins = 0;
+            if (indice >= nbColonnes && courante[indice - nbColonnes] >= seuilPropagation) {
+                voisins++;
+            }
+            if (indice + nbColonnes < nbCases && courante[indice + nbColonnes] >= seuilPropagation) {
+                voisins++;
+            }
+            if (colonne > 0 && courante[indice - 1] >= seuilPropagation) {
+                voisins++;
+            }
+            if (colonne < nbColonnes - 1 && courante[indice + 1] >= seuilPropagation) {
+                voisins++;
+            }
+            if (voisins > 0 && tirage(indice) < probabilitesEmbrasement[nature][voisins]) {
+                suivante[indice] = intensiteInitiale;
+                embrasements.add(indice);
+            }
+        }
+    }
+
+    private void calculerProbabilitesEmbrasement() {
+        probabilitesEmbrasement = new double[probabilite.length][5];
+        for (int nature = 0; nature < probabilite.length; nature++) {
+            for (int voisins = 0; voisins <= 4; voisins++) {
+                // Chaque voisin en feu tente indépendamment d'embraser la case
+                probabilitesEmbrasement[nature][voisins] = 1 - Math.pow(1 - probabilite[nature], voisins);
+            }
+        }
+    }
+
+    // Tirage uniforme dans [0, 1) qui ne dépend que de la graine, de la génération et de la case
+    private double tirage(int indice) {
+        long z = graine * 0x9E3779B97F4A7C15L + generation * 0xBF58476D1CE4E5B9L + indice * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Écrit les paramètres et la génération courante (voir {@link InstantaneSimulation}) ; les
+     * grilles se reconstruisent à partir des incendies.
+     */
+
+    void ecrire(DataOutputStream sortie) throws IOException {
+        sortie.writeLong(periode);
+        sortie.writeLong(graine);
+        sortie.writeLong(generation);
+        for (int i = 0; i < croissance.length; i++) {
+            sortie.writeInt(croissance[i]);
+            sortie.writeDouble(probabilite[i]);
+        }
+        sortie.writeInt(seuilPropagation);
+        sortie.writeInt(intensiteInitiale);
+        sortie.writeInt(intensiteMax);
+        sortie.writeBoolean(parallele);
+    }
+
+    static PropagationIncendies lire(ByteBuffer entree, DonneesSimulation donnees) {
+        PropagationIncendies propagation = new PropagationIncendies(donnees);
+        propagation.periode = entree.getLong();
+        propagation.graine = entree.getLong();
+        propagation.generation = entree.getLong();
+        for (int i = 0; i < propagation.croissance.length; i++) {
+            propagation.croissance[i] = entree.getInt();
+            propagation.probabilite[i] = entree.getDouble();
+        }
+        propagation.seuilPropagation = entree.getInt();
+        propagation.intensiteInitiale = entree.getInt();
+        propagation.intensiteMax = entree.getInt();
+        propagation.parallele = entree.get() != 0;
+        return propagation;
+    }
+}
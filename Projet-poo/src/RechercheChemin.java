@@ -0,0 +1,447 @@
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * La classe RechercheChemin calcule des plus courts chemins (en temps) sur une carte, à partir
+ * d'une {@link GrilleCouts}, avec l'algorithme de Dijkstra, A* ou un Dijkstra bidirectionnel
+ * (voir {@link AlgorithmeRecherche}). Elle travaille uniquement sur des tableaux de types
+ * primitifs indexés par <code>ligne * nbColonnes + colonne</code> et réutilise ses tableaux d'un
+ * appel à l'autre : une recherche n'alloue que le chemin qu'elle retourne.
+ *
+ * L'heuristique de A* est la distance de Manhattan multipliée par le plus petit temps d'entrée
+ * dans une case (taille des cases / vitesse maximale du robot) : elle ne surestime jamais le
+ * temps restant, le chemin trouvé reste donc optimal.
+ *
+ * A* retire moins de cases de la file que Dijkstra, mais chacune lui coûte environ 1,7 fois plus
+ * cher. Il ne gagne donc que si l'heuristique est assez fidèle : sur une grille où les obstacles
+ * imposent de longs détours, comme spiralOfMadness, il explore encore 80 % des cases de Dijkstra
+ * et perd (570 ms contre 415 ms dans {@link TestRechercheChemin}). {@link #algorithmeConseille}
+ * choisit l'un ou l'autre une fois par grille, à partir de quelques recherches témoins.
+ *
+ * Une instance est associée à une carte (voir {@link Carte#getRechercheChemin()}) et n'est
+ * pas prévue pour être utilisée par plusieurs threads à la fois.
+ */
+
+public class RechercheChemin {
+    /** Part des cases explorées par Dijkstra en dessous de laquelle A* est conseillé */
+    public static final double SEUIL_A_ETOILE = 0.6;
+    private static final int NB_RECHERCHES_TEMOINS = 8;
+    private static final long GRAINE_TEMOINS = 0;
+
+    private final int nbLignes;
+    private final int nbColonnes;
+    private final double[] distances;
+    private final int[] predecesseurs;
+    private final int[] marques;        // numéro de la dernière recherche ayant atteint la case
+    private final TasBinaireIndexe tas;
+    private int numeroRecherche;
+
+    // Recherche arrière de la variante bidirectionnelle, allouée au premier besoin
+    private double[] distancesArriere;
+    private int[] successeurs;
+    private int[] marquesArriere;
+    private TasBinaireIndexe tasArriere;
+    private final int[] voisins = new int[4];
+
+    private double dureeDernierChemin;
+    private double distanceDerniereCible;
+    private long nbRecherches;
+    private long nbNoeudsExplores;
+    private int noeudsExploresDerniereRecherche;
+    private long dureeRecherchesNanos;
+
+    // Algorithme conseillé pour chaque grille déjà rencontrée
+    private final Map<GrilleCouts, AlgorithmeRecherche> algorithmesConseilles = new IdentityHashMap<>();
+
+    public RechercheChemin(Carte carte) {
+        this.nbLignes = carte.getNbLignes();
+        this.nbColonnes = carte.getNbColonnes();
+        int taille = nbLignes * nbColonnes;
+        this.distances = new double[taille];
+        this.predecesseurs = new int[taille];
+        this.marques = new int[taille];
+        this.tas = new TasBinaireIndexe(taille);
+    }
+
+    /**
+     * Calcule le plus court chemin (en temps) entre deux cases avec l'algorithme de Dijkstra.
+     *
+     * @param grille Les coûts d'entrée dans chaque case pour le robot considéré.
+     * @param depart Indice de la case de départ.
+     * @param arrivee Indice de la case d'arrivée.
+     * @return Les indices des cases du chemin, départ et arrivée compris, ou null si l'arrivée
+     *         est inaccessible.
+     */
+
+    public int[] plusCourtChemin(GrilleCouts grille, int depart, int arrivee) {
+        return plusCourtChemin(grille, depart, arrivee, AlgorithmeRecherche.DIJKSTRA);
+    }
+
+    /**
+     * Calcule le plus court chemin (en temps) entre deux cases avec l'algorithme choisi.
+     *
+     * @param grille Les coûts d'entrée dans chaque case pour le robot considéré.
+     * @param depart Indice de la case de départ.
+     * @param arrivee Indice de la case d'arrivée.
+     * @param algorithme L'algorithme de recherche à employer.
+     * @return Les indices des cases du chemin, départ et arrivée compris, ou null si l'arrivée
+     *         est inaccessible.
+     */
+
+    public int[] plusCourtChemin(GrilleCouts grille, int depart, int arrivee, AlgorithmeRecherche algorithme) {
+        long debut = System.nanoTime();
+        nbRecherches++;
+        noeudsExploresDerniereRecherche = 0;
+        int[] chemin;
+        if (algorithme == AlgorithmeRecherche.BIDIRECTIONNEL) {
+            chemin = rechercheBidirectionnelle(grille, depart, arrivee);
+        } else {
+            chemin = rechercheUnidirectionnelle(grille, depart, arrivee, algorithme == AlgorithmeRecherche.A_ETOILE,
+                    null, 0, Double.POSITIVE_INFINITY);
+        }
+        nbNoeudsExplores += noeudsExploresDerniereRecherche;
+        dureeRecherchesNanos += System.nanoTime() - debut;
+        return chemin;
+    }
+
+    // Dijkstra, ou A* si une heuristique est demandée ; sans arrivée, s'arrête après nbCibles cases cibles
+    private int[] rechercheUnidirectionnelle(GrilleCouts grille, int depart, int arrivee, boolean heuristique,
+                                             BitSet cibles, int nbCibles, double distanceMax) {
+        double poidsHeuristique = heuristique ? grille.getCoutMin() : 0.0;
+        int ligneArrivee = arrivee < 0 ? 0 : arrivee / nbColonnes;
+        int colonneArrivee = arrivee < 0 ? 0 : arrivee % nbColonnes;
+
+        nouvelleRecherche();
+        atteindre(depart, 0.0, -1);
+        tas.insererOuDiminuer(depart, 0.0);
+
+        while (!tas.estVide()) {
+            int courant = tas.extraireMin();
+            noeudsExploresDerniereRecherche++;
+            if (courant == arrivee) {
+                break;
+            }
+            double distanceCourante = distances[courant];
+            if (cibles != null && cibles.get(courant) && --nbCibles == 0) {
+                distanceDerniereCible = distanceCourante;
+                break;
+            }
+            if (distanceCourante > distanceMax) {
+                break;
+            }
+            int ligne = courant / nbColonnes;
+            int colonne = courant - ligne * nbColonnes;
+
+            // Voisins dans l'ordre nord, sud, est, ouest
+            if (ligne > 0) relacher(grille, courant, courant - nbColonnes, distanceCourante,
+                    poidsHeuristique * manhattan(ligne - 1, colonne, ligneArrivee, colonneArrivee));
+            if (ligne < nbLignes - 1) relacher(grille, courant, courant + nbColonnes, distanceCourante,
+                    poidsHeuristique * manhattan(ligne + 1, colonne, ligneArrivee, colonneArrivee));
+            if (colonne < nbColonnes - 1) relacher(grille, courant, courant + 1, distanceCourante,
+                    poidsHeuristique * manhattan(ligne, colonne + 1, ligneArrivee, colonneArrivee));
+            if (colonne > 0) relacher(grille, courant, courant - 1, distanceCourante,
+                    poidsHeuristique * manhattan(ligne, colonne - 1, ligneArrivee, colonneArrivee));
+        }
+        tas.vider();
+
+        if (arrivee < 0 || marques[arrivee] != numeroRecherche) {
+            dureeDernierChemin = Double.POSITIVE_INFINITY;
+            return null;
+        }
+        dureeDernierChemin = distances[arrivee];
+        return reconstruireChemin(arrivee);
+    }
+
+    /**
+     * Algorithme le plus rapide attendu sur une grille : A* s'il explore au plus
+     * {@link #SEUIL_A_ETOILE} fois les cases de Dijkstra sur quelques recherches témoins, tirées
+     * avec une graine fixe entre cases franchissables proches, Dijkstra sinon. Le choix ne dépend
+     * que de la grille, si bien qu'une simulation reprise d'un instantané fait les mêmes choix ;
+     * il est calculé une fois par grille et les recherches témoins ne comptent pas dans les
+     * compteurs.
+     *
+     * @param grille Les coûts d'entrée dans chaque case pour le robot considéré.
+     * @return {@link AlgorithmeRecherche#A_ETOILE} ou {@link AlgorithmeRecherche#DIJKSTRA}.
+     */
+
+    public AlgorithmeRecherche algorithmeConseille(GrilleCouts grille) {
+        AlgorithmeRecherche algorithme = algorithmesConseilles.get(grille);
+        if (algorithme == null) {
+            algorithme = comparerSurTemoins(grille);
+            algorithmesConseilles.put(grille, algorithme);
+        }
+        return algorithme;
+    }
+
+    // Témoins tirés avec une graine fixe, l'arrivée à moins d'un huitième de la carte du départ
+    private AlgorithmeRecherche comparerSurTemoins(GrilleCouts grille) {
+        Random aleatoire = new Random(GRAINE_TEMOINS);
+        int portee = Math.max(1, Math.min(nbLignes, nbColonnes) / 8);
+        double dureeSauvee = dureeDernierChemin;
+        int noeudsSauves = noeudsExploresDerniereRecherche;
+        long noeudsDijkstra = 0;
+        long noeudsAEtoile = 0;
+        int nbTemoins = 0;
+        for (int essai = 0; essai < 10 * NB_RECHERCHES_TEMOINS && nbTemoins < NB_RECHERCHES_TEMOINS; essai++) {
+            int depart = aleatoire.nextInt(nbLignes * nbColonnes);
+            int ligne = Math.floorMod(depart / nbColonnes + aleatoire.nextInt(2 * portee + 1) - portee, nbLignes);
+            int colonne = Math.floorMod(depart % nbColonnes + aleatoire.nextInt(2 * portee + 1) - portee, nbColonnes);
+            int arrivee = ligne * nbColonnes + colonne;
+            if (!grille.estFranchissable(depart) || !grille.estFranchissable(arrivee)) {
+                continue;
+            }
+            for (boolean heuristique : new boolean[] {false, true}) {
+                noeudsExploresDerniereRecherche = 0;
+                rechercheUnidirectionnelle(grille, depart, arrivee, heuristique, null, 0, Double.POSITIVE_INFINITY);
+                if (heuristique) {
+                    noeudsAEtoile += noeudsExploresDerniereRecherche;
+                } else {
+                    noeudsDijkstra += noeudsExploresDerniereRecherche;
+                }
+            }
+            nbTemoins++;
+        }
+        dureeDernierChemin = dureeSauvee;
+        noeudsExploresDerniereRecherche = noeudsSauves;
+        return noeudsAEtoile <= SEUIL_A_ETOILE * noeudsDijkstra
+                ? AlgorithmeRecherche.A_ETOILE : AlgorithmeRecherche.DIJKSTRA;
+    }
+
+    /**
+     * Dijkstra bidirectionnel : une recherche part du départ, l'autre de l'arrivée en remontant
+     * les arêtes, chacune avançant à tour de rôle. On s'arrête dès que la somme des deux plus
+     * petites distances en attente dépasse le meilleur chemin déjà trouvé par une case commune.
+     */
+
+    private int[] rechercheBidirectionnelle(GrilleCouts grille, int depart, int arrivee) {
+        if (depart == arrivee) {
+            dureeDernierChemin = 0.0;
+            return new int[] { depart };
+        }
+        if (tasArriere == null) {
+            int taille = distances.length;
+            distancesArriere = new double[taille];
+            successeurs = new int[taille];
+            marquesArriere = new int[taille];
+            tasArriere = new TasBinaireIndexe(taille);
+        }
+
+        nouvelleRecherche();
+        atteindre(depart, 0.0, -1);
+        tas.insererOuDiminuer(depart, 0.0);
+        marquesArriere[arrivee] = numeroRecherche;
+        distancesArriere[arrivee] = 0.0;
+        successeurs[arrivee] = -1;
+        tasArriere.insererOuDiminuer(arrivee, 0.0);
+
+        double meilleur = Double.POSITIVE_INFINITY;
+        int rencontre = -1;
+
+        while (!tas.estVide() && !tasArriere.estVide()
+                && tas.cleMin() + tasArriere.cleMin() < meilleur) {
+            boolean avant = tas.cleMin() <= tasArriere.cleMin();
+            int courant = avant ? tas.extraireMin() : tasArriere.extraireMin();
+            noeudsExploresDerniereRecherche++;
+            int ligne = courant / nbColonnes;
+            int colonne = courant - ligne * nbColonnes;
+            voisins[0] = ligne > 0 ? courant - nbColonnes : -1;
+            voisins[1] = ligne < nbLignes - 1 ? courant + nbColonnes : -1;
+            voisins[2] = colonne < nbColonnes - 1 ? courant + 1 : -1;
+            voisins[3] = colonne > 0 ? courant - 1 : -1;
+
+            if (avant) {
+                for (int voisin : voisins) {
+                    if (voisin < 0) continue;
+                    relacher(grille, courant, voisin, distances[courant], 0.0);
+                    if (marquesArriere[voisin] == numeroRecherche && marques[voisin] == numeroRecherche
+                            && distances[voisin] + distancesArriere[voisin] < meilleur) {
+                        meilleur = distances[voisin] + distancesArriere[voisin];
+                        rencontre = voisin;
+                    }
+                }
+            } else {
+                // En arrière, passer de "voisin" à "courant" coûte l'entrée dans "courant"
+                double cout = grille.getCout(courant);
+                if (cout == Double.POSITIVE_INFINITY) continue;
+                double nouvelleDistance = distancesArriere[courant] + cout;
+                for (int voisin : voisins) {
+                    if (voisin < 0 || (voisin != depart && !grille.estFranchissable(voisin))) continue;
+                    if (marquesArriere[voisin] != numeroRecherche || nouvelleDistance < distancesArriere[voisin]) {
+                        marquesArriere[voisin] = numeroRecherche;
+                        distancesArriere[voisin] = nouvelleDistance;
+                        successeurs[voisin] = courant;
+                        tasArriere.insererOuDiminuer(voisin, nouvelleDistance);
+                        if (marques[voisin] == numeroRecherche && distances[voisin] + nouvelleDistance < meilleur) {
+                            meilleur = distances[voisin] + nouvelleDistance;
+                            rencontre = voisin;
+                        }
+                    }
+                }
+            }
+        }
+        tas.vider();
+        tasArriere.vider();
+
+        dureeDernierChemin = meilleur;
+        if (rencontre < 0) {
+            return null;
+        }
+
+        // Chemin avant jusqu'à la case de rencontre, puis chemin arrière jusqu'à l'arrivée
+        int longueurAvant = 0;
+        for (int i = rencontre; i != -1; i = predecesseurs[i]) {
+            longueurAvant++;
+        }
+        int longueur = longueurAvant;
+        for (int i = successeurs[rencontre]; i != -1; i = successeurs[i]) {
+            longueur++;
+        }
+        int[] chemin = new int[longueur];
+        int k = longueurAvant;
+        for (int i = rencontre; i != -1; i = predecesseurs[i]) {
+            chemin[--k] = i;
+        }
+        k = longueurAvant;
+        for (int i = successeurs[rencontre]; i != -1; i = successeurs[i]) {
+            chemin[k++] = i;
+        }
+        return chemin;
+    }
+
+    /**
+     * Calcule les temps de trajet depuis une case vers toutes les cases accessibles (Dijkstra
+     * sans case d'arrivée). Les résultats se lisent ensuite avec {@link #getDistance(int)}.
+     *
+     * @param grille Les coûts d'entrée dans chaque case pour le robot considéré.
+     * @param depart Indice de la case de départ.
+     */
+
+    public void explorerDepuis(GrilleCouts grille, int depart) {
+        explorerDepuis(grille, depart, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Comme {@link #explorerDepuis(GrilleCouts, int)}, en s'arrêtant aux cases situées à plus
+     * d'un temps de trajet donné : seules les distances inférieures ou égales à cette limite
+     * sont alors exactes, les autres sont infinies ou majorées.
+     *
+     * @param grille Les coûts d'entrée dans chaque case pour le robot considéré.
+     * @param depart Indice de la case de départ.
+     * @param distanceMax Temps de trajet maximal exploré, en secondes.
+     */
+
+    public void explorerDepuis(GrilleCouts grille, int depart, double distanceMax) {
+        long debut = System.nanoTime();
+        nbRecherches++;
+        noeudsExploresDerniereRecherche = 0;
+        rechercheUnidirectionnelle(grille, depart, -1, false, null, 0, distanceMax);
+        nbNoeudsExplores += noeudsExploresDerniereRecherche;
+        dureeRecherchesNanos += System.nanoTime() - debut;
+    }
+
+    /**
+     * Comme {@link #explorerDepuis(GrilleCouts, int)}, en s'arrêtant dès que les plus courts
+     * chemins vers un nombre donné de cases cibles sont connus : les distances inférieures ou
+     * égales à celle de la dernière cible atteinte sont alors exactes.
+     *
+     * @param grille Les coûts d'entrée dans chaque case pour le robot considéré.
+     * @param depart Indice de la case de départ.
+     * @param cibles Les indices des cases cibles.
+     * @param nbCibles Nombre de cibles à atteindre avant de s'arrêter.
+     * @return Le temps de trajet vers la dernière cible atteinte, infini si l'exploration a
+     *         épuisé les cases accessibles avant d'en atteindre assez.
+     */
+
+    public double explorerVersCibles(GrilleCouts grille, int depart, BitSet cibles, int nbCibles) {
+        long debut = System.nanoTime();
+        nbRecherches++;
+        noeudsExploresDerniereRecherche = 0;
+        distanceDerniereCible = Double.POSITIVE_INFINITY;
+        rechercheUnidirectionnelle(grille, depart, -1, false, cibles, nbCibles, Double.POSITIVE_INFINITY);
+        nbNoeudsExplores += noeudsExploresDerniereRecherche;
+        dureeRecherchesNanos += System.nanoTime() - debut;
+        return distanceDerniereCible;
+    }
+
+    // Temps de trajet vers une case lors de la dernière recherche unidirectionnelle, infini si non atteinte
+    public double getDistance(int indice) {
+        return marques[indice] == numeroRecherche ? distances[indice] : Double.POSITIVE_INFINITY;
+    }
+
+    // Durée (en secondes) du dernier chemin calculé, infinie s'il n'existait pas
+    public double getDureeDernierChemin() {
+        return dureeDernierChemin;
+    }
+
+    public long getNbRecherches() {
+        return nbRecherches;
+    }
+
+    // Nombre total de cases retirées de la file de priorité depuis la création
+    public long getNbNoeudsExplores() {
+        return nbNoeudsExplores;
+    }
+
+    // Temps de calcul cumulé de toutes les recherches depuis la création
+    public long getDureeRecherchesNanos() {
+        return dureeRecherchesNanos;
+    }
+
+    public int getNoeudsExploresDerniereRecherche() {
+        return noeudsExploresDerniereRecherche;
+    }
+
+    public void reinitialiserCompteurs() {
+        nbRecherches = 0;
+        nbNoeudsExplores = 0;
+        dureeRecherchesNanos = 0;
+    }
+
+    private static int manhattan(int ligne1, int colonne1, int ligne2, int colonne2) {
+        return Math.abs(ligne1 - ligne2) + Math.abs(colonne1 - colonne2);
+    }
+
+    private void relacher(GrilleCouts grille, int courant, int voisin, double distanceCourante, double heuristique) {
+        double cout = grille.getCout(voisin);
+        if (cout == Double.POSITIVE_INFINITY) {
+            return;
+        }
+        double nouvelleDistance = distanceCourante + cout;
+        if (marques[voisin] != numeroRecherche || nouvelleDistance < distances[voisin]) {
+            atteindre(voisin, nouvelleDistance, courant);
+            tas.insererOuDiminuer(voisin, nouvelleDistance + heuristique);
+        }
+    }
+
+    private void atteindre(int indice, double distance, int predecesseur) {
+        marques[indice] = numeroRecherche;
+        distances[indice] = distance;
+        predecesseurs[indice] = predecesseur;
+    }
+
+    // Change de numéro de recherche, ce qui invalide d'un coup les distances précédentes
+    private void nouvelleRecherche() {
+        numeroRecherche++;
+        if (numeroRecherche == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(marques, 0);
+            if (marquesArriere != null) {
+                java.util.Arrays.fill(marquesArriere, 0);
+            }
+            numeroRecherche = 1;
+        }
+    }
+
+    private int[] reconstruireChemin(int arrivee) {
+        int longueur = 0;
+        for (int i = arrivee; i != -1; i = predecesseurs[i]) {
+            longueur++;
+        }
+        int[] chemin = new int[longueur];
+        for (int i = arrivee; i != -1; i = predecesseurs[i]) {
+            chemin[--longueur] = i;
+        }
+        return chemin;
+    }
+}
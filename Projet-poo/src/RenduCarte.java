@@ -0,0 +1,205 @@
+import gui.GraphicalElement;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * La classe RenduCarte est l'unique élément graphique de la simulation : une image de la carte,
+ * mise à jour de façon incrémentale.
+ *
+ * Le terrain, qui ne change jamais, est dessiné une seule fois dans une image de fond. À chaque
+ * pas, seules les cases dont le contenu a changé (apparition ou extinction d'un incendie, arrivée
+ * ou départ d'un robot) sont recopiées depuis le fond puis redessinées ; l'affichage se réduit
+ * ensuite à copier une image. Les images des terrains, des incendies et des robots viennent
+ * d'un {@link AtlasSprites} partagé, déjà à la taille des cases. Les robots en cours de trajet
+ * ne font pas partie de l'image : ils sont dessinés par-dessus, à leur position interpolée.
+ */
+
+public class RenduCarte implements GraphicalElement {
+    // Contenu d'une case : un bit par emplacement de l'atlas (incendie, robots), dans l'ordre de dessin
+    private static final int PREMIER_EMPLACEMENT = AtlasSprites.INCENDIE;
+    private static final int DERNIER_EMPLACEMENT = AtlasSprites.PATTES;
+
+    private final int cellSize;
+    private final int x;
+    private final int y;
+    private final AtlasSprites atlas;
+
+    private Carte carte;
+    private byte[] terrainsDessines;     // terrain du fond actuel, pour le réutiliser après un redémarrage
+    private BufferedImage fond;          // terrain seul
+    private BufferedImage image;         // terrain, incendies et robots
+    // Cases non vides -> contenu affiché ; les deux tables sont échangées à chaque mise à jour
+    private Map<Integer, Integer> contenus = new HashMap<>();
+    private Map<Integer, Integer> nouveaux = new HashMap<>();
+    // Robots en cours de trajet : emplacement, abscisse et ordonnée en pixels dans l'image
+    private int[] robotsMobiles = new int[0];
+    private int nbRobotsMobiles;
+    private final double[] positionRobot = new double[2];
+
+    /**
+     * @param cellSize Taille d'une case en pixels.
+     * @param x Abscisse du centre de la case (0, 0) dans le panneau.
+     * @param y Ordonnée du centre de la case (0, 0) dans le panneau.
+     */
+
+    public RenduCarte(int cellSize, int x, int y) {
+        this.cellSize = cellSize;
+        this.x = x;
+        this.y = y;
+        this.atlas = AtlasSprites.pour(cellSize);
+    }
+
+    /**
+     * Taille de case adaptée à une carte : 50 pixels tant que la carte tient sur environ
+     * 2500 pixels de côté, moins au-delà, jusqu'à 1 pixel par case. L'affichage garde deux
+     * images de 4 octets par pixel : au-delà de quelques milliers de cases de côté, il faut
+     * augmenter la mémoire de la JVM.
+     */
+
+    public static int tailleCasePour(Carte carte) {
+        int cote = Math.max(carte.getNbLignes(), carte.getNbColonnes());
+        return Math.max(1, Math.min(50, 2500 / cote));
+    }
+
+    /**
+     * Met l'image à jour d'après l'état de la simulation. Si la carte a changé (redémarrage), le
+     * fond n'est redessiné que si le terrain diffère ; sinon seules les cases dont les incendies
+     * ou les robots ont changé depuis le dernier appel sont redessinées.
+     *
+     * @param donnees Les données de simulation à afficher.
+     */
+
+    public void mettreAJour(DonneesSimulation donnees) {
+        mettreAJour(donnees, -1);
+    }
+
+    /**
+     * Comme {@link #mettreAJour(DonneesSimulation)}, les robots en cours de trajet étant placés
+     * entre deux cases selon la date.
+     *
+     * @param donnees Les données de simulation à afficher.
+     * @param date La date simulée affichée, -1 pour placer chaque robot sur sa case.
+     */
+
+    public void mettreAJour(DonneesSimulation donnees, long date) {
+        if (donnees.getCarte() != carte) {
+            changerCarte(donnees.getCarte());
+        }
+
+        nouveaux.clear();
+        for (Incendie incendie : donnees.getIncendies()) {
+            if (incendie.getIntensite() > 0) {
+                marquer(carte.getIndice(incendie.getPosition()), AtlasSprites.INCENDIE);
+            }
+        }
+        nbRobotsMobiles = 0;
+        for (Robot robot : donnees.getRobots()) {
+            int emplacement = AtlasSprites.emplacementRobot(robot);
+            if (emplacement < 0) {
+                continue;
+            }
+            if (date >= 0 && robot.getPositionInterpolee(date, positionRobot)) {
+                ajouterRobotMobile(emplacement);
+            } else {
+                marquer(carte.getIndice(robot.getPosition()), emplacement);
+            }
+        }
+
+        Graphics2D g = image.createGraphics();
+        for (Map.Entry<Integer, Integer> ancien : contenus.entrySet()) {
+            if (!nouveaux.containsKey(ancien.getKey())) {
+                redessinerCase(g, ancien.getKey(), 0);
+            }
+        }
+        for (Map.Entry<Integer, Integer> nouveau : nouveaux.entrySet()) {
+            if (!nouveau.getValue().equals(contenus.get(nouveau.getKey()))) {
+                redessinerCase(g, nouveau.getKey(), nouveau.getValue());
+            }
+        }
+        g.dispose();
+        Map<Integer, Integer> anciens = contenus;
+        contenus = nouveaux;
+        nouveaux = anciens;
+    }
+
+    private void ajouterRobotMobile(int emplacement) {
+        if (3 * nbRobotsMobiles + 3 > robotsMobiles.length) {
+            robotsMobiles = Arrays.copyOf(robotsMobiles, Math.max(12, 2 * robotsMobiles.length));
+        }
+        robotsMobiles[3 * nbRobotsMobiles] = emplacement;
+        robotsMobiles[3 * nbRobotsMobiles + 1] = (int) Math.round(positionRobot[1] * cellSize);
+        robotsMobiles[3 * nbRobotsMobiles + 2] = (int) Math.round(positionRobot[0] * cellSize);
+        nbRobotsMobiles++;
+    }
+
+    private void marquer(int indice, int emplacement) {
+        nouveaux.merge(indice, 1 << (emplacement - PREMIER_EMPLACEMENT), (a, b) -> a | b);
+    }
+
+    private void changerCarte(Carte nouvelle) {
+        boolean memeTerrain = carte != null && carte.getNbLignes() == nouvelle.getNbLignes()
+                && carte.getNbColonnes() == nouvelle.getNbColonnes()
+                && Arrays.equals(terrainsDessines, nouvelle.getTerrains());
+        carte = nouvelle;
+        if (!memeTerrain) {
+            dessinerFond();
+        }
+        image = new BufferedImage(fond.getWidth(), fond.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.drawImage(fond, 0, 0, null);
+        g.dispose();
+        contenus.clear();
+    }
+
+    private void dessinerFond() {
+        int nbLignes = carte.getNbLignes();
+        int nbColonnes = carte.getNbColonnes();
+        fond = new BufferedImage(nbColonnes * cellSize, nbLignes * cellSize, BufferedImage.TYPE_INT_RGB);
+        // Copie directe des pixels : un appel de drawImage par case serait trop lent sur les grandes cartes
+        int[] pixels = ((DataBufferInt) fond.getRaster().getDataBuffer()).getData();
+        NatureTerrain[] natures = NatureTerrain.values();
+        int[][] pixelsTerrains = new int[natures.length][];
+        for (NatureTerrain nature : natures) {
+            pixelsTerrains[nature.ordinal()] = atlas.getPixelsTerrain(nature);
+        }
+        int largeur = fond.getWidth();
+        for (int i = 0; i < nbLignes; i++) {
+            for (int j = 0; j < nbColonnes; j++) {
+                int[] terrain = pixelsTerrains[carte.getNature(i, j).ordinal()];
+                for (int ligne = 0; ligne < cellSize; ligne++) {
+                    System.arraycopy(terrain, ligne * cellSize, pixels, (i * cellSize + ligne) * largeur + j * cellSize, cellSize);
+                }
+            }
+        }
+        terrainsDessines = carte.getTerrains().clone();
+    }
+
+    // Recopie le terrain de la case puis dessine son contenu (incendie, puis robots)
+    private void redessinerCase(Graphics2D g, int indice, int contenu) {
+        int gauche = (indice % carte.getNbColonnes()) * cellSize;
+        int haut = (indice / carte.getNbColonnes()) * cellSize;
+        g.drawImage(fond, gauche, haut, gauche + cellSize, haut + cellSize,
+                gauche, haut, gauche + cellSize, haut + cellSize, null);
+        for (int emplacement = PREMIER_EMPLACEMENT; emplacement <= DERNIER_EMPLACEMENT; emplacement++) {
+            if ((contenu & (1 << (emplacement - PREMIER_EMPLACEMENT))) != 0) {
+                atlas.dessiner(g, emplacement, gauche, haut);
+            }
+        }
+    }
+
+    @Override
+    public void paint(Graphics2D g) {
+        if (image != null) {
+            // Comme les éléments centrés de gui, chaque case est centrée sur (x, y) + sa position
+            g.drawImage(image, x - cellSize / 2, y - cellSize / 2, null);
+            for (int i = 0; i < nbRobotsMobiles; i++) {
+                atlas.dessiner(g, robotsMobiles[3 * i], x - cellSize / 2 + robotsMobiles[3 * i + 1],
+                        y - cellSize / 2 + robotsMobiles[3 * i + 2]);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * La classe ResultatSimulation résume une exécution de la simulation sans affichage :
+ * date atteinte (en millisecondes), nombre d'événements traités, état des incendies et durée réelle de calcul.
+ */
+
+public class ResultatSimulation {
+    private long dateFinale;
+    private long nbEvenements;
+    private int nbIncendies;
+    private int nbIncendiesEteints;
+    private long intensiteRestante;
+    private long dureeNanos;
+
+    public ResultatSimulation(long dateFinale, long nbEvenements, int nbIncendies,
+                              int nbIncendiesEteints, long intensiteRestante, long dureeNanos) {
+        this.dateFinale = dateFinale;
+        this.nbEvenements = nbEvenements;
+        this.nbIncendies = nbIncendies;
+        this.nbIncendiesEteints = nbIncendiesEteints;
+        this.intensiteRestante = intensiteRestante;
+        this.dureeNanos = dureeNanos;
+    }
+
+    public long getDateFinale() {
+        return dateFinale;
+    }
+
+    public long getNbEvenements() {
+        return nbEvenements;
+    }
+
+    public int getNbIncendies() {
+        return nbIncendies;
+    }
+
+    public int getNbIncendiesEteints() {
+        return nbIncendiesEteints;
+    }
+
+    public long getIntensiteRestante() {
+        return intensiteRestante;
+    }
+
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    // Vrai si tous les incendies ont été éteints avant l'horizon
+    public boolean estTermine() {
+        return nbIncendiesEteints == nbIncendies;
+    }
+
+    @Override
+    public String toString() {
+        return "Simulation " + (estTermine() ? "terminée" : "interrompue")
+                + " à t = " + Temps.formater(dateFinale) + " s : "
+                + nbIncendiesEteints + "/" + nbIncendies + " incendies éteints, "
+                + "intensité restante = " + intensiteRestante + " L, "
+                + nbEvenements + " événements, "
+                + String.format("%.1f", dureeNanos / 1e6) + " ms de calcul";
+    }
+}
@@ -1,19 +1,18 @@
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.PriorityQueue;
-import java.util.LinkedList;
-import java.util.Comparator;
+import java.util.ArrayList;
 
 /**
  * Classe abstraite représentant un robot.
  *
  * Les robots sont capables de se déplacer sur une carte, d'intervenir sur des incendies
  * et de gérer leur réservoir d'eau. Chaque type de robot hérite de cette classe et définit
- * ses comportements spécifiques.
+ * ses comportements spécifiques. Les dates et les durées sont en millisecondes (voir {@link Temps}).
  */
 
 public abstract class Robot {
+    /** Délai entre deux interventions successives sur le même incendie (en millisecondes) */
+    public static final long PERIODE_INTERVENTION = 5 * Temps.SECONDE;
+
     protected String identifiant;  // Attribut pour l'identifiant unique
     protected Case position;
     protected int reservoir;
@@ -21,7 +20,25 @@ public abstract class Robot {
     protected Carte carte;
     protected boolean enIntervention;
     protected Incendie incendieEnCours;
-    protected Simulateur simulateur;
+    protected MoteurSimulation simulateur;
+
+    // Compteurs d'activité du robot depuis le début de la simulation
+    protected long eauDeversee;           // litres déversés sur des incendies
+    protected double distanceParcourue;   // mètres effectivement parcourus
+    protected long tempsOccupe;           // millisecondes passées en intervention (hors intervention en cours)
+    protected long debutOccupation = -1;  // date d'affectation de l'intervention en cours, -1 si libre
+    protected Case caseAtteinte;          // dernière case effectivement atteinte
+
+    // Trajets programmés et pas encore terminés (deux au plus : aller au point d'eau et retour)
+    protected final List<EvenementTrajet> trajets = new ArrayList<>(2);
+    // Génération du plan en cours : les événements d'un plan antérieur sont ignorés
+    protected int generationPlan;
+    // Date de la dernière intervention programmée (voir EvenementIntervention)
+    protected long dateProchaineIntervention = -1;
+
+    // Grille des coûts de la carte pour ce robot, et vitesse pour laquelle elle a été obtenue
+    private GrilleCouts grilleCouts;
+    private double vitesseGrille;
 
     // Constructeur modifié pour inclure l'identifiant unique
     public Robot(Case position, int vitesse, String identifiant) {
@@ -30,71 +47,58 @@ public abstract class Robot {
         this.identifiant = identifiant;  // Initialiser l'identifiant
         this.enIntervention = false;
         this.incendieEnCours = null;
+        this.caseAtteinte = position;
     }
 
-    public Incendie findNearestAccessibleIncendie(List<Incendie> incendies) {
-        Incendie incendieProche = null;
-        double minDistance = Double.MAX_VALUE;
-
-        // Trie les incendies par proximité croissante
-        incendies.sort(Comparator.comparingDouble(incendie -> this.getPosition().calculerDistance(incendie.getPosition())));
-
-        // Parcourt les incendies triés pour trouver le plus proche accessible
-        for (Incendie incendie : incendies) {
-            if (incendie.getIntensite() > 0 && this.peutSeDeplacerVers(incendie.getPosition())) {  // Vérifie l'intensité et l'accessibilité
-                double distance = this.getPosition().calculerDistance(incendie.getPosition());
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    incendieProche = incendie;
-                }
-                // Sort de la boucle dès qu'un incendie accessible est trouvé
-                break;
-            }
-        }
-        return incendieProche; // Retourne l'incendie le plus proche et accessible, ou null si aucun n'est accessible
+    /**
+     * Cherche l'incendie actif le plus proche en temps de trajet réel, grâce au champ des distances
+     * vers les incendies partagé par les robots de même type.
+     *
+     * @return L'incendie le plus proche accessible, ou null si aucun n'est accessible.
+     */
+
+    public Incendie findNearestAccessibleIncendie() {
+        ChampDistances champ = simulateur.getDonnees().getChampsDistances().getChampIncendies(this);
+        int cible = champ.getCible(carte.getIndice(position));
+        return cible < 0 ? null : carte.getCase(cible).getIncendie();
     }
 
-
-    public Case findNearestAccessibleCaseForRefill(List<Case> casesEau) {
-        Case caseProche = null;
-        double minDistance = Double.MAX_VALUE;
-
-        for (Case caseEau : casesEau) {
-            if (this.peutSeDeplacerVers(caseEau)) {
-                double distance = this.getPosition().calculerDistance(caseEau);
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    caseProche = caseEau;
-                }
-            } else {
-                // Cherche une case voisine praticable si la case d'eau elle-même est inaccessible
-                for (Case voisin : this.getCarte().getVoisins(caseEau)) {
-                    if (this.peutSeDeplacerVers(voisin)) {
-                        double distance = this.getPosition().calculerDistance(voisin);
-                        if (distance < minDistance) {
-                            minDistance = distance;
-                            caseProche = voisin;
-                        }
-                    }
-                }
-            }
-        }
-        return caseProche;
+    // Durée exacte (en millisecondes) du pas vers la case destination, la même que pour les chemins
+    public long tempsDeplacement(Case depart, Case destination) {
+        return getGrilleCouts().getDuree(carte.getIndice(destination));
     }
 
+    /**
+     * Grille des coûts de déplacement du robot sur sa carte (voir {@link Carte#getGrilleCouts(Robot)}).
+     * Elle est gardée par le robot et redemandée à la carte seulement si sa vitesse ou sa carte changent.
+     */
 
-    public long tempsDeplacement(Case depart, Case destination) {
-        return (long) calculerTemps(carte, destination); // Convertissez en long si `calculerTemps` renvoie un `double`
+    public GrilleCouts getGrilleCouts() {
+        if (grilleCouts == null || vitesseGrille != vitesseKmH) {
+            grilleCouts = carte.getGrilleCouts(this);
+            vitesseGrille = vitesseKmH;
+        }
+        return grilleCouts;
     }
 
+    // Durée d'un remplissage complet du réservoir, en millisecondes
     public abstract long tempsRemplissage();
 
+    // Capacité du réservoir en litres
+    public abstract int getCapaciteMax();
+
 
     public void setCarte(Carte carte) {
         this.carte = carte;
+        this.grilleCouts = null;
+    }
+
+    // Date simulée courante pour le journal, -1 si le robot n'est lié à aucun moteur
+    protected long dateJournal() {
+        return simulateur == null ? -1 : simulateur.getDateActuelle();
     }
 
-    public void setSimulateur(Simulateur simulateur) {
+    public void setSimulateur(MoteurSimulation simulateur) {
         this.simulateur = simulateur;
     }
 
@@ -110,7 +114,7 @@ public abstract class Robot {
         return carte;
     }
 
-    public Simulateur getSimulateur() {
+    public MoteurSimulation getSimulateur() {
         return simulateur;
     }
 
@@ -122,6 +126,101 @@ public abstract class Robot {
         return this.reservoir;
     }
 
+    public Incendie getIncendieEnCours() {
+        return incendieEnCours;
+    }
+
+    public double getVitesseKmH() {
+        return vitesseKmH;
+    }
+
+    public long getEauDeversee() {
+        return eauDeversee;
+    }
+
+    public double getDistanceParcourue() {
+        return distanceParcourue;
+    }
+
+    /**
+     * Temps total passé en intervention jusqu'à une date, intervention en cours comprise.
+     *
+     * @param date La date de référence (en général la date courante de la simulation).
+     * @return Le temps d'occupation en millisecondes.
+     */
+
+    public long getTempsOccupe(long date) {
+        return tempsOccupe + (debutOccupation >= 0 ? Math.max(0, date - debutOccupation) : 0);
+    }
+
+    // Appelé quand un déplacement programmé est effectué : compte la distance réellement parcourue
+    public void arriverSur(Case destination) {
+        if (caseAtteinte != null && !caseAtteinte.equals(destination)) {
+            distanceParcourue += carte.getTailleCases();
+        }
+        caseAtteinte = destination;
+    }
+
+    // Remet le robot dans un état sauvegardé (voir InstantaneSimulation)
+    void restaurerEtat(Case position, int reservoir, boolean enIntervention, Incendie incendieEnCours) {
+        this.position = position;
+        this.reservoir = reservoir;
+        this.enIntervention = enIntervention;
+        this.incendieEnCours = incendieEnCours;
+    }
+
+    // Remet les compteurs d'activité dans un état sauvegardé (voir InstantaneSimulation)
+    void restaurerCompteurs(Case caseAtteinte, long eauDeversee, double distanceParcourue,
+                            long tempsOccupe, long debutOccupation) {
+        this.caseAtteinte = caseAtteinte;
+        this.eauDeversee = eauDeversee;
+        this.distanceParcourue = distanceParcourue;
+        this.tempsOccupe = tempsOccupe;
+        this.debutOccupation = debutOccupation;
+    }
+
+    void restaurerGenerationPlan(int generationPlan) {
+        this.generationPlan = generationPlan;
+    }
+
+    /**
+     * Génération du plan en cours du robot. Chaque nouvelle affectation ou annulation en
+     * commence une nouvelle ; les événements programmés pour une génération antérieure
+     * (trajets, remplissages, interventions) sont alors ignorés par la file.
+     */
+
+    public int getGenerationPlan() {
+        return generationPlan;
+    }
+
+    // Appelé quand une intervention est programmée dans le plan en cours
+    void interventionProgrammee(long date) {
+        this.dateProchaineIntervention = date;
+    }
+
+    /**
+     * Date de la prochaine intervention du robot sur son incendie, telle que son plan l'a
+     * programmée : son arrivée, ou son retour d'un remplissage.
+     *
+     * @return La date, ou -1 si le robot n'est engagé sur aucun incendie.
+     */
+
+    public long getDateProchaineIntervention() {
+        return enIntervention && incendieEnCours != null ? dateProchaineIntervention : -1;
+    }
+
+    Case getCaseAtteinte() {
+        return caseAtteinte;
+    }
+
+    long getDebutOccupation() {
+        return debutOccupation;
+    }
+
+    long getTempsOccupeTermine() {
+        return tempsOccupe;
+    }
+
 
     // Nouvelle méthode pour obtenir l'identifiant unique
     public String getIdentifiant() {
@@ -139,6 +238,31 @@ public abstract class Robot {
         return this.getClass().getSimpleName().toUpperCase();
     }
 
+    // Clé identifiant les robots ayant les mêmes coûts de déplacement (même type, même vitesse)
+    public String getCleCouts() {
+        return getType() + ":" + vitesseKmH;
+    }
+
+    /**
+     * Crée un robot du type donné (DRONE, ROUES, CHENILLES ou PATTES).
+     *
+     * @param type Le type du robot.
+     * @param position Sa case de départ.
+     * @param vitesse Sa vitesse en km/h (ignorée pour les robots à pattes).
+     * @param identifiant Son identifiant unique.
+     * @return Le robot, ou null si le type est inconnu.
+     */
+
+    public static Robot creerRobot(String type, Case position, int vitesse, String identifiant) {
+        switch (type) {
+            case "DRONE": return new Drone(position, vitesse, identifiant);
+            case "ROUES": return new Roues(position, vitesse, identifiant);
+            case "CHENILLES": return new Chenilles(position, vitesse, identifiant);
+            case "PATTES": return new Pattes(position, identifiant);  // Pas de vitesse pour PATTES
+            default: return null;
+        }
+    }
+
     public static int getDefaultSpeed(String type) {
         switch (type) {
             case "DRONE": return 150;
@@ -155,47 +279,92 @@ public abstract class Robot {
     public abstract void deverserEau(int volume);
 
     public List<Case> calculerPlusCourtChemin(Carte carte, Case destination) {
-        // Algorithme de Dijkstra pour trouver le plus court chemin
-        Map<Case, Double> distance = new HashMap<>();
-        PriorityQueue<Case> queue = new PriorityQueue<>(Comparator.comparingDouble(distance::get));
-        Map<Case, Case> predecesseur = new HashMap<>();
-
-        distance.put(this.position, 0.0);
-        queue.add(this.position);
-
-        while (!queue.isEmpty()) {
-            Case current = queue.poll();
-            if (current.equals(destination)) break;
-
-            for (Case voisin : this.getCarte().getVoisins(current)) {
-                if (!this.peutSeDeplacerVers(voisin)) continue;
-                double tentativeDistance = distance.get(current) + calculerTemps(carte, voisin);
-
-                if (tentativeDistance < distance.getOrDefault(voisin, Double.POSITIVE_INFINITY)) {
-                    distance.put(voisin, tentativeDistance);
-                    predecesseur.put(voisin, current);
-                    queue.add(voisin);
-                }
-            }
-        }
+        // Dijkstra, ou A* sur les grilles où son heuristique fait gagner du temps
+        return calculerPlusCourtChemin(carte, destination,
+                carte.getRechercheChemin().algorithmeConseille(getGrilleCouts()));
+    }
 
-        List<Case> chemin = new LinkedList<>();
-        Case step = destination;
-        while (step != null) {
-            chemin.add(0, step);
-            step = predecesseur.get(step);
+    public List<Case> calculerPlusCourtChemin(Carte carte, Case destination, AlgorithmeRecherche algorithme) {
+        // Recherche sur la grille des coûts précalculée pour ce type de robot
+        int[] indices = carte.getRechercheChemin().plusCourtChemin(getGrilleCouts(),
+                carte.getIndice(this.position), carte.getIndice(destination), algorithme);
+
+        List<Case> chemin = new ArrayList<>(indices == null ? 1 : indices.length);
+        if (indices == null) {
+            chemin.add(destination); // Destination inaccessible
+            return chemin;
+        }
+        for (int indice : indices) {
+            chemin.add(carte.getCase(indice));
         }
         return chemin;
     }
 
-    public void programmerDeplacements(List<Case> chemin, long dateDebut) {
-        long dateActuelle = dateDebut;
-        for (Case prochaineCase : chemin) {
-            EvenementDeplacement evenement = new EvenementDeplacement(dateActuelle, this, prochaineCase);
-            this.getSimulateur().ajouteEvenement(evenement);
-            dateActuelle += tempsDeplacement(this.position, prochaineCase); // Temps pour aller de case en case
-            this.position = prochaineCase; // Met à jour la position temporaire pour le prochain déplacement
+    /**
+     * Programme le parcours du chemin par un seul {@link EvenementTrajet}, qui amène le robot
+     * de case en case, chaque pas durant exactement {@link #tempsDeplacement(Case, Case)}.
+     *
+     * @return La date de fin du dernier pas, à laquelle le robot est disponible sur place.
+     */
+
+    public long programmerDeplacements(List<Case> chemin, long dateDebut) {
+        if (chemin.isEmpty()) {
+            return dateDebut;
         }
+        CheminCompresse compresse = CheminCompresse.depuis(carte, chemin);
+        EvenementTrajet trajet = new EvenementTrajet(dateDebut, this, compresse, generationPlan);
+        trajetProgramme(trajet);
+        this.getSimulateur().ajouteEvenement(trajet);
+        this.position = chemin.get(chemin.size() - 1); // Position temporaire pour les déplacements suivants
+        return Temps.apres(dateDebut, compresse.getDuree(getGrilleCouts()));
+    }
+
+    void trajetProgramme(EvenementTrajet trajet) {
+        trajets.add(trajet);
+    }
+
+    void trajetTermine(EvenementTrajet trajet) {
+        trajets.remove(trajet);
+    }
+
+    /**
+     * Annule tous les trajets programmés du robot, en temps constant par trajet : le robot
+     * s'arrête sur la dernière case effectivement atteinte.
+     */
+
+    public void annulerDeplacements() {
+        if (trajets.isEmpty()) {
+            return;
+        }
+        for (EvenementTrajet trajet : trajets) {
+            trajet.annuler();
+        }
+        trajets.clear();
+        if (simulateur != null && simulateur.getMetriques() != null) {
+            simulateur.getMetriques().deplacementsAnnules(this);
+        }
+        if (caseAtteinte != null) {
+            position = caseAtteinte;
+        }
+    }
+
+    /**
+     * Position du robot pour l'affichage : entre deux cases pendant un trajet, sur sa case sinon.
+     *
+     * @param date La date d'affichage.
+     * @param position Reçoit la ligne et la colonne (fractionnaires).
+     * @return true si le robot est en cours de trajet.
+     */
+
+    public boolean getPositionInterpolee(long date, double[] position) {
+        for (EvenementTrajet trajet : trajets) {
+            if (trajet.positionInterpolee(date, position)) {
+                return true;
+            }
+        }
+        position[0] = this.position.getLigne();
+        position[1] = this.position.getColonne();
+        return false;
     }
     
 
@@ -203,24 +372,78 @@ public abstract class Robot {
         programmerDeplacements(calculerPlusCourtChemin(carte, destination), dateDebut);
     }
 
+    /**
+     * Annule tout le plan en cours du robot, en temps constant : ses événements restent dans la
+     * file mais n'y font plus rien. Le robot s'arrête sur la dernière case atteinte et redevient
+     * disponible.
+     */
+
+    public void annulerPlan() {
+        generationPlan++;
+        annulerDeplacements();
+        simulateur.getDonnees().getPlanificateurRemplissage().liberer(this);
+        if (enIntervention) {
+            terminerIntervention();
+        }
+    }
+
+    /**
+     * Appelé quand l'incendie du robot a été éteint par un autre : le reste du plan (retour,
+     * interventions) est annulé. Un robot au réservoir vide garde seulement un plan de
+     * remplissage, au terme duquel il redevient disponible ; les autres sont libérés tout de
+     * suite. Un robot déjà sur place n'est pas touché : sa prochaine intervention le libère.
+     */
+
+    public void abandonnerIncendie() {
+        if (incendieEnCours == null
+                || (trajets.isEmpty() && incendieEnCours.getPosition().equals(caseAtteinte))) {
+            return;
+        }
+        annulerPlan();
+        incendieEnCours = null;
+        if (reservoir == 0) {
+            programmerRemplissage();
+        }
+    }
+
+    // Plan réduit à un trajet vers le point d'eau où le remplissage finit le plus tôt, suivi du remplissage
+    private void programmerRemplissage() {
+        PlanificateurRemplissage planificateur = simulateur.getDonnees().getPlanificateurRemplissage();
+        Case caseEau = planificateur.choisirPoste(this, false, simulateur.getDateActuelle());
+        if (caseEau == null) {
+            return;
+        }
+        generationPlan++;
+        this.enIntervention = true;
+        this.debutOccupation = Math.max(0, simulateur.getDateActuelle());
+        List<Case> chemin = calculerPlusCourtChemin(carte, caseEau);
+        long arriveeEau = programmerDeplacements(chemin, simulateur.getDateActuelle());
+        long debutRemplissage = planificateur.reserver(this, caseEau, arriveeEau);
+        simulateur.ajouteEvenement(new EvenementRemplissage(Temps.apres(debutRemplissage, tempsRemplissage()), this, generationPlan));
+    }
+
+    // Appelé après un remplissage programmé dans un plan : termine un plan de remplissage seul
+    void remplissageTermine() {
+        if (enIntervention && incendieEnCours == null) {
+            terminerIntervention();
+        }
+    }
+
     public void affecterIncendie(Incendie incendie) {
         if (estDisponible()) {
+            annulerDeplacements();
+            generationPlan++;
             this.incendieEnCours = incendie;
             this.enIntervention = true;
+            this.debutOccupation = Math.max(0, simulateur.getDateActuelle());
 
             // Programme les déplacements vers l'incendie
             List<Case> chemin = calculerPlusCourtChemin(carte, incendie.getPosition());
             long dateDebut = simulateur.getDateActuelle(); // Utilise la date actuelle de la simulation
-            programmerDeplacements(chemin, dateDebut);
-
-            // Calcule la date d'arrivée pour programmer l'intervention
-            long dateArrivee = dateDebut;
-            for (Case caseSuivante : chemin) {
-                dateArrivee += calculerTemps(carte, caseSuivante);
-            }
+            long dateArrivee = programmerDeplacements(chemin, dateDebut);
 
             // Programme l'événement d'intervention à la date d'arrivée
-            EvenementIntervention evenementIntervention = new EvenementIntervention(dateArrivee, this, incendie.getPosition());
+            EvenementIntervention evenementIntervention = new EvenementIntervention(dateArrivee, this, incendie.getPosition(), generationPlan);
             simulateur.ajouteEvenement(evenementIntervention);
         }
     }
@@ -235,30 +458,45 @@ public abstract class Robot {
         if (reservoir > 0) {
             intervenir(incendieEnCours.getPosition());
     
-            if (incendieEnCours.getIntensite() > 0) {
-                long prochaineIntervention = simulateur.getDateActuelle() + 5;
-                simulateur.ajouteEvenement(new EvenementIntervention(prochaineIntervention, this, incendieEnCours.getPosition()));
+            // L'incendie a pu être éteint, et le plan annulé, pendant l'intervention
+            if (enIntervention && incendieEnCours.getIntensite() > 0) {
+                long prochaineIntervention = simulateur.getDateActuelle() + PERIODE_INTERVENTION;
+                simulateur.ajouteEvenement(new EvenementIntervention(prochaineIntervention, this, incendieEnCours.getPosition(), generationPlan));
             }
         } else {
-            Case caseEauProche = findNearestAccessibleCaseForRefill(simulateur.getDonnees().getCarte().getCasesEau());
-            if (caseEauProche != null) {
-                List<Case> cheminAller = calculerPlusCourtChemin(simulateur.getDonnees().getCarte(), caseEauProche);
-                programmerDeplacements(cheminAller, simulateur.getDateActuelle());
-    
-                long dateRemplissage = simulateur.getDateActuelle() + tempsRemplissage();
-                simulateur.ajouteEvenement(new EvenementRemplissage(dateRemplissage, this));
+            // Point d'eau choisi avec les réservations du reste de la flotte
+            PlanificateurRemplissage planificateur = simulateur.getDonnees().getPlanificateurRemplissage();
+            Case caseEau = planificateur.choisirPoste(this, true, simulateur.getDateActuelle());
+            if (caseEau != null) {
+                List<Case> cheminAller = calculerPlusCourtChemin(simulateur.getDonnees().getCarte(), caseEau);
+                long arriveeEau = programmerDeplacements(cheminAller, simulateur.getDateActuelle());
+
+                // Le remplissage commence dès que le point d'eau est libre
+                long debutRemplissage = planificateur.reserver(this, caseEau, arriveeEau);
+                if (debutRemplissage > arriveeEau) {
+                    Journal.detail(arriveeEau, "remplissage", "Robot {} en attente du point d'eau {}, {} jusqu'à t = {} s",
+                            getIdentifiant(), caseEau.getLigne(), caseEau.getColonne(), Temps.formater(debutRemplissage));
+                }
+                long dateRemplissage = Temps.apres(debutRemplissage, tempsRemplissage());
+                simulateur.ajouteEvenement(new EvenementRemplissage(dateRemplissage, this, generationPlan));
     
                 List<Case> cheminRetour = calculerPlusCourtChemin(simulateur.getDonnees().getCarte(), incendieEnCours.getPosition());
-                programmerDeplacements(cheminRetour, dateRemplissage);
-    
-                long dateRetour = dateRemplissage + cheminRetour.size() * tempsDeplacement(this.position, incendieEnCours.getPosition());
-                simulateur.ajouteEvenement(new EvenementIntervention(dateRetour, this, incendieEnCours.getPosition()));
+                long dateRetour = programmerDeplacements(cheminRetour, dateRemplissage);
+                simulateur.ajouteEvenement(new EvenementIntervention(dateRetour, this, incendieEnCours.getPosition(), generationPlan));
             }
         }
     }
 
     public void terminerIntervention() {
         this.enIntervention = false;
+        if (debutOccupation >= 0) {
+            tempsOccupe += Math.max(0, (simulateur == null ? debutOccupation : simulateur.getDateActuelle()) - debutOccupation);
+            debutOccupation = -1;
+        }
+        // Prévient le chef pompier qu'il peut réaffecter ce robot
+        if (simulateur != null && simulateur.getChefPompier() != null) {
+            simulateur.getChefPompier().signalerRobotLibere(this);
+        }
     }
 
     public boolean estDisponible() {
@@ -16,9 +16,14 @@ public class Roues extends Robot {
         this.reservoir = CAPACITE_MAX;
     }
 
+    @Override
+    public int getCapaciteMax() {
+        return CAPACITE_MAX;
+    }
+
     @Override
     public long tempsRemplissage() {
-        return 10 * 60;
+        return 10 * 60 * Temps.SECONDE;
     }
 
 
@@ -47,7 +52,7 @@ public class Roues extends Robot {
         Incendie incendie = position.getIncendie();
 
         if (incendie == null || incendie.getIntensite() <= 0) {
-            System.out.println("Aucun incendie à éteindre ici.");
+            Journal.avertissement(dateJournal(), "intervention", "Aucun incendie à éteindre ici.");
             return;
         }
 
@@ -57,19 +62,20 @@ public class Roues extends Robot {
         while (incendie.getIntensite() > 0 && reservoir > 0) {
             int eauUtilisee = Math.min(VOLUME_INTERVENTION, incendie.getIntensite());
             reservoir -= eauUtilisee;
+            eauDeversee += eauUtilisee;
             incendie.diminueIntensite(eauUtilisee);
             totalEauUtilisee += eauUtilisee;
         }
 
         // Affichage d'un seul message avec le total de litres utilisés
-        System.out.println("Intervention réussie : incendie réduit de " + totalEauUtilisee + " litres au total.");
+        Journal.info(dateJournal(), "intervention", "Intervention réussie : incendie réduit de {} litres au total.", totalEauUtilisee);
 
         // Vérification si l'incendie est éteint et mise à jour de la carte
         if (incendie.getIntensite() <= 0) {
-            System.out.println("Incendie éteint");
-            this.enIntervention = false;
+            Journal.info(dateJournal(), "extinction", "Incendie éteint");
+            terminerIntervention();
         } else if (reservoir <= 0) {
-            System.out.println("Intervention arrêtée : réservoir vide.");
+            Journal.info(dateJournal(), "intervention", "Intervention arrêtée : réservoir vide.");
         }
     }
 
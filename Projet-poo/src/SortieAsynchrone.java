@@ -0,0 +1,66 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * La classe SortieAsynchrone transmet les messages du {@link Journal} à une autre sortie depuis
+ * un thread dédié : la simulation ne fait que déposer le message dans une file bornée, et
+ * n'attend l'écriture que si la file est pleine. Les messages d'un même thread sont écrits
+ * dans l'ordre. {@link #fermer()} attend que la file soit vidée puis ferme la sortie cible.
+ */
+
+public class SortieAsynchrone implements SortieJournal {
+    private static final int CAPACITE_PAR_DEFAUT = 1 << 14;
+    // Marque de fin déposée par fermer()
+    private static final Journal.Entree FIN = new Journal.Entree(Journal.Niveau.ERREUR, -1, "", "", new Object[0]);
+
+    private final SortieJournal cible;
+    private final BlockingQueue<Journal.Entree> file;
+    private final Thread ecrivain;
+    private boolean fermee;
+
+    public SortieAsynchrone(SortieJournal cible) {
+        this(cible, CAPACITE_PAR_DEFAUT);
+    }
+
+    public SortieAsynchrone(SortieJournal cible, int capacite) {
+        this.cible = cible;
+        this.file = new ArrayBlockingQueue<>(capacite);
+        this.ecrivain = new Thread(this::transmettre, "journal");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+    @Override
+    public void ecrire(Journal.Entree entree) {
+        try {
+            file.put(entree);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void transmettre() {
+        try {
+            for (Journal.Entree entree = file.take(); entree != FIN; entree = file.take()) {
+                cible.ecrire(entree);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void fermer() {
+        if (fermee) {
+            return;
+        }
+        fermee = true;
+        try {
+            file.put(FIN);
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cible.fermer();
+    }
+}
@@ -0,0 +1,82 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * La classe SortieBinaire écrit le {@link Journal} dans une trace binaire compacte, sans mettre
+ * les messages en forme.
+ *
+ * Format (entiers en big endian, comme {@link DataOutputStream}) : l'en-tête "JRNL" puis la
+ * version (int), puis pour chaque message le niveau (octet, ordinal de {@link Journal.Niveau}),
+ * la date en millisecondes (long), le type et le modèle (chaînes indexées), le nombre de valeurs
+ * (octet) et les valeurs, chacune précédée de sa marque : 'I' int, 'J' long, 'D' double, 'S' chaîne indexée.
+ * Une chaîne indexée est l'indice d'une chaîne déjà écrite (int positif), ou -1 suivi de la
+ * chaîne (writeUTF) qui prend alors l'indice suivant.
+ */
+
+public class SortieBinaire implements SortieJournal {
+    // 2 : dates en millisecondes
+    private static final int VERSION = 2;
+
+    private final DataOutputStream sortie;
+    private final Map<String, Integer> indices = new HashMap<>();
+
+    public SortieBinaire(String fichier) throws IOException {
+        this.sortie = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fichier), 1 << 16));
+        sortie.writeBytes("JRNL");
+        sortie.writeInt(VERSION);
+    }
+
+    @Override
+    public synchronized void ecrire(Journal.Entree entree) {
+        try {
+            sortie.writeByte(entree.getNiveau().ordinal());
+            sortie.writeLong(entree.getDate());
+            chaine(entree.getType());
+            chaine(entree.getModele());
+            Object[] valeurs = entree.getValeurs();
+            sortie.writeByte(valeurs.length);
+            for (Object valeur : valeurs) {
+                if (valeur instanceof Integer || valeur instanceof Short || valeur instanceof Byte) {
+                    sortie.writeByte('I');
+                    sortie.writeInt(((Number) valeur).intValue());
+                } else if (valeur instanceof Long) {
+                    sortie.writeByte('J');
+                    sortie.writeLong((Long) valeur);
+                } else if (valeur instanceof Number) {
+                    sortie.writeByte('D');
+                    sortie.writeDouble(((Number) valeur).doubleValue());
+                } else {
+                    sortie.writeByte('S');
+                    chaine(String.valueOf(valeur));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void chaine(String texte) throws IOException {
+        Integer indice = indices.get(texte);
+        if (indice != null) {
+            sortie.writeInt(indice);
+        } else {
+            indices.put(texte, indices.size());
+            sortie.writeInt(-1);
+            sortie.writeUTF(texte);
+        }
+    }
+
+    @Override
+    public synchronized void fermer() {
+        try {
+            sortie.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
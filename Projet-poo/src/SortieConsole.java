@@ -0,0 +1,18 @@
+/**
+ * La classe SortieConsole affiche chaque message du {@link Journal}, mis en forme, sur la
+ * sortie standard. La sortie standard est relue à chaque message, pour suivre
+ * {@link System#setOut(java.io.PrintStream)}.
+ */
+
+public class SortieConsole implements SortieJournal {
+
+    @Override
+    public void ecrire(Journal.Entree entree) {
+        System.out.println(entree.getMessage());
+    }
+
+    @Override
+    public void fermer() {
+        System.out.flush();
+    }
+}
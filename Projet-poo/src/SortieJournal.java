@@ -0,0 +1,17 @@
+/**
+ * L'interface SortieJournal reçoit les messages du {@link Journal}. Une sortie peut être appelée
+ * depuis plusieurs threads (exécution parallèle des événements, Monte Carlo) : les
+ * implémentations qui écrivent dans un fichier sont synchronisées.
+ */
+
+public interface SortieJournal {
+
+    /** Sortie vide : le journal ne construit alors aucun message */
+    SortieJournal AUCUNE = entree -> { };
+
+    void ecrire(Journal.Entree entree);
+
+    // Vide les tampons et libère les ressources de la sortie
+    default void fermer() {
+    }
+}
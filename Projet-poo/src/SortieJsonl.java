@@ -0,0 +1,84 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * La classe SortieJsonl écrit le {@link Journal} dans un fichier JSONL : un objet JSON par ligne,
+ * avec la date, le niveau, le type, le message mis en forme et les valeurs brutes. Par exemple :
+ * <pre>
+ * {"date":12000,"niveau":"INFO","type":"deplacement","message":"Robot DRONE0 déplacé à la case 3, 4","valeurs":["DRONE0",3,4]}
+ * </pre>
+ */
+
+public class SortieJsonl implements SortieJournal {
+    private final Writer sortie;
+    private final StringBuilder ligne = new StringBuilder(256);
+
+    public SortieJsonl(String fichier) throws IOException {
+        this.sortie = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fichier), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    @Override
+    public synchronized void ecrire(Journal.Entree entree) {
+        ligne.setLength(0);
+        ligne.append("{\"date\":").append(entree.getDate());
+        ligne.append(",\"niveau\":\"").append(entree.getNiveau()).append('"');
+        ligne.append(",\"type\":");
+        chaine(entree.getType());
+        ligne.append(",\"message\":");
+        chaine(entree.getMessage());
+        ligne.append(",\"valeurs\":[");
+        Object[] valeurs = entree.getValeurs();
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) {
+                ligne.append(',');
+            }
+            if (valeurs[i] instanceof Number || valeurs[i] instanceof Boolean) {
+                ligne.append(valeurs[i]);
+            } else {
+                chaine(String.valueOf(valeurs[i]));
+            }
+        }
+        ligne.append("]}\n");
+        try {
+            sortie.append(ligne);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Chaîne JSON, avec les caractères spéciaux échappés
+    private void chaine(String texte) {
+        ligne.append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+                case '"': ligne.append("\\\""); break;
+                case '\\': ligne.append("\\\\"); break;
+                case '\n': ligne.append("\\n"); break;
+                case '\r': ligne.append("\\r"); break;
+                case '\t': ligne.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        ligne.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        ligne.append(c);
+                    }
+            }
+        }
+        ligne.append('"');
+    }
+
+    @Override
+    public synchronized void fermer() {
+        try {
+            sortie.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * La classe TasBinaireIndexe est une file de priorité (tas binaire minimum) sur des entiers
+ * compris entre 0 et une taille maximale, avec une clé réelle pour chacun.
+ * Contrairement à {@link java.util.PriorityQueue}, elle permet de diminuer la clé d'un élément
+ * déjà présent (opération "decrease-key"), sans doublons ni objets intermédiaires.
+ */
+
+public class TasBinaireIndexe {
+    private int[] tas;          // éléments rangés en tas
+    private int[] positions;    // position de chaque élément dans le tas, -1 s'il est absent
+    private double[] cles;      // clé de chaque élément
+    private int taille;
+
+    public TasBinaireIndexe(int capacite) {
+        this.tas = new int[capacite];
+        this.positions = new int[capacite];
+        this.cles = new double[capacite];
+        java.util.Arrays.fill(positions, -1);
+    }
+
+    public boolean estVide() {
+        return taille == 0;
+    }
+
+    public boolean contient(int element) {
+        return positions[element] >= 0;
+    }
+
+    public double getCle(int element) {
+        return cles[element];
+    }
+
+    // Clé minimale du tas (le tas ne doit pas être vide)
+    public double cleMin() {
+        return cles[tas[0]];
+    }
+
+    // Vide le tas en ne parcourant que les éléments restants
+    public void vider() {
+        for (int i = 0; i < taille; i++) {
+            positions[tas[i]] = -1;
+        }
+        taille = 0;
+    }
+
+    /**
+     * Insère un élément, ou diminue sa clé s'il est déjà présent avec une clé plus grande.
+     *
+     * @param element L'élément à insérer.
+     * @param cle Sa nouvelle clé.
+     */
+
+    public void insererOuDiminuer(int element, double cle) {
+        int pos = positions[element];
+        if (pos < 0) {
+            cles[element] = cle;
+            tas[taille] = element;
+            positions[element] = taille;
+            remonter(taille++);
+        } else if (cle < cles[element]) {
+            cles[element] = cle;
+            remonter(pos);
+        }
+    }
+
+    // Retire et retourne l'élément de clé minimale
+    public int extraireMin() {
+        int min = tas[0];
+        positions[min] = -1;
+        taille--;
+        if (taille > 0) {
+            tas[0] = tas[taille];
+            positions[tas[0]] = 0;
+            descendre(0);
+        }
+        return min;
+    }
+
+    private void remonter(int i) {
+        int element = tas[i];
+        double cle = cles[element];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (cles[tas[parent]] <= cle) {
+                break;
+            }
+            tas[i] = tas[parent];
+            positions[tas[i]] = i;
+            i = parent;
+        }
+        tas[i] = element;
+        positions[element] = i;
+    }
+
+    private void descendre(int i) {
+        int element = tas[i];
+        double cle = cles[element];
+        while (true) {
+            int fils = 2 * i + 1;
+            if (fils >= taille) {
+                break;
+            }
+            if (fils + 1 < taille && cles[tas[fils + 1]] < cles[tas[fils]]) {
+                fils++;
+            }
+            if (cles[tas[fils]] >= cle) {
+                break;
+            }
+            tas[i] = tas[fils];
+            positions[tas[i]] = i;
+            i = fils;
+        }
+        tas[i] = element;
+        positions[element] = i;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * La classe Temps fixe la base de temps de la simulation : toutes les dates et durées (dates
+ * des événements, date courante du moteur, durées de trajet et de remplissage) sont des entiers
+ * en millisecondes simulées.
+ *
+ * Les durées calculées en secondes réelles ({@link Robot#calculerTemps}) sont arrondies une
+ * seule fois, à la milliseconde, par nature de terrain (voir {@link GrilleCouts#getDuree(int)}) :
+ * un trajet dure exactement la somme des durées de ses pas, quel que soit l'endroit où elle est
+ * calculée. Les fichiers (cartes, scénarios) et les affichages restent en secondes.
+ */
+
+public final class Temps {
+    /** Nombre de millisecondes dans une seconde */
+    public static final long SECONDE = 1000;
+    /** Durée infinie (destination inaccessible) */
+    public static final long INFINI = Long.MAX_VALUE;
+
+    private Temps() {
+    }
+
+    // Durée en millisecondes d'une durée en secondes, arrondie ; INFINI pour une durée infinie
+    public static long depuisSecondes(double secondes) {
+        if (Double.isInfinite(secondes) || secondes >= INFINI / (double) SECONDE) {
+            return INFINI;
+        }
+        return Math.round(secondes * SECONDE);
+    }
+
+    public static long depuisSecondes(long secondes) {
+        return secondes * SECONDE;
+    }
+
+    public static double enSecondes(long millis) {
+        return millis == INFINI ? Double.POSITIVE_INFINITY : millis / (double) SECONDE;
+    }
+
+    // Date atteinte après une durée, sans dépasser INFINI
+    public static long apres(long date, long duree) {
+        return duree >= INFINI - date ? INFINI : date + duree;
+    }
+
+    /**
+     * Texte d'une date ou d'une durée en secondes, avec les millisecondes seulement si elles
+     * ne sont pas nulles : 389000 donne "389", 389500 donne "389.5".
+     */
+
+    public static String formater(long millis) {
+        if (millis % SECONDE == 0) {
+            return Long.toString(millis / SECONDE);
+        }
+        String texte = String.format("%.3f", millis / (double) SECONDE).replace(',', '.');
+        return texte.replaceAll("0+$", "");
+    }
+}
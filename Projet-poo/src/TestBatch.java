@@ -0,0 +1,138 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe TestBatch.
+ *
+ * Cette classe exécute une simulation complète sans interface graphique : la carte est chargée,
+ * la stratégie choisie est appliquée jusqu'à l'extinction de tous les incendies (ou jusqu'à l'horizon),
+ * puis le résumé de l'exécution est affiché. Le journal des événements est affiché sur la console,
+ * sauf s'il est coupé ou écrit dans un fichier.
+ *
+ * Usage :
+ * <pre>
+ * java TestBatch <fichierCarte> [Elementaire|Evoluee|Optimale|Cooperative] [horizon] [pas|evenementiel] [propagation] [parallele]
+ *                [silencieux|journal=fichier.jsonl|journal=fichier.bin] [metriques[=periode]]
+ * </pre>
+ */
+
+public class TestBatch {
+
+    private static final String USAGE = "Usage : java TestBatch <fichierCarte> [Elementaire|Evoluee|Optimale|Cooperative] [horizon] [pas|evenementiel] [propagation] [parallele]"
+            + " [silencieux|journal=fichier.jsonl|journal=fichier.bin] [metriques[=periode]]";
+
+    private static final List<String> STRATEGIES = Arrays.asList("Elementaire", "Evoluee", "Optimale", "Cooperative");
+
+    /**
+     * Point d'entrée du programme.
+     *
+     * @param args Les arguments de la ligne de commande : le chemin vers le fichier de carte, puis
+     *             des options facultatives, reconnues par leur valeur et dans n'importe quel ordre :
+     * <ul>
+     *   <li>le nom de la stratégie à utiliser (Evoluee par défaut) ;</li>
+     *   <li>un entier : l'horizon de simulation en secondes ;</li>
+     *   <li><code>pas</code> (par défaut) ou <code>evenementiel</code> : le mode d'avancement ;</li>
+     *   <li><code>propagation</code> pour que les incendies grandissent et se propagent,
+     *       <code>parallele</code> pour exécuter en parallèle les événements indépendants d'une même
+     *       date, <code>silencieux</code> pour couper le journal, <code>journal=fichier</code> pour
+     *       l'écrire en arrière-plan dans un fichier, en JSONL si son nom finit par .jsonl, en binaire
+     *       sinon, <code>metriques</code> pour afficher le rapport des {@link Metriques} à la fin et
+     *       vérifier l'emploi du temps de chaque robot (<code>metriques=periode</code> pour écrire en
+     *       plus un résumé dans le journal à chaque période).</li>
+     * </ul>
+     * Une option inconnue affiche l'usage.
+     */
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        String fichierCarte = args[0];
+        String strategie = "Evoluee";
+        long horizon = MoteurSimulation.HORIZON_PAR_DEFAUT;
+        boolean evenementiel = false;
+        boolean propagation = false;
+        boolean parallele = false;
+        boolean silencieux = false;
+        String fichierJournal = null;
+        Metriques metriques = null;
+        for (String option : Arrays.asList(args).subList(1, args.length)) {
+            if (STRATEGIES.contains(option)) {
+                strategie = option;
+            } else if (option.matches("\\d{1,12}")) {
+                horizon = Temps.depuisSecondes(Long.parseLong(option));
+            } else if (option.equals("pas") || option.equals("evenementiel")) {
+                evenementiel = option.equals("evenementiel");
+            } else if (option.equals("propagation")) {
+                propagation = true;
+            } else if (option.equals("parallele")) {
+                parallele = true;
+            } else if (option.equals("silencieux")) {
+                silencieux = true;
+            } else if (option.startsWith("journal=") && option.length() > "journal=".length()) {
+                fichierJournal = option.substring("journal=".length());
+            } else if (option.equals("metriques")) {
+                metriques = new Metriques();
+            } else if (option.matches("metriques=\\d{1,12}")) {
+                metriques = new Metriques(Temps.depuisSecondes(Long.parseLong(option.substring("metriques=".length()))));
+            } else {
+                System.out.println("Option inconnue : " + option);
+                System.out.println(USAGE);
+                return;
+            }
+        }
+
+        try {
+            if (fichierJournal != null) {
+                SortieJournal sortie = fichierJournal.endsWith(".jsonl") ? new SortieJsonl(fichierJournal) : new SortieBinaire(fichierJournal);
+                Journal.setSortie(new SortieAsynchrone(sortie));
+            } else if (silencieux) {
+                Journal.setSortie(SortieJournal.AUCUNE);
+            }
+
+            DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
+            MoteurSimulation moteur = new MoteurSimulation(donnees);
+            moteur.setTypeTest(strategie);
+            moteur.setChefPompier(new ChefPompier(donnees));
+            moteur.setModeEvenementiel(evenementiel);
+            moteur.setExecutionParallele(parallele);
+            if (propagation) {
+                moteur.activerPropagation(new PropagationIncendies(donnees));
+            }
+            moteur.setMetriques(metriques);
+
+            ResultatSimulation resultat = moteur.executer(horizon);
+            Journal.fermer();
+            System.out.println(resultat);
+            if (metriques != null) {
+                System.out.println(metriques.rapport());
+                verifierEmploisDuTemps(donnees, metriques, Math.max(moteur.getDateActuelle(), 0));
+            }
+        } catch (Exception e) {
+            System.out.println("Erreur lors de la simulation : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Vérifie pour chaque robot que trajet + remplissage <= occupé <= durée de la simulation
+    private static void verifierEmploisDuTemps(DonneesSimulation donnees, Metriques metriques, long date) {
+        boolean coherents = true;
+        for (Robot robot : donnees.getRobots()) {
+            long trajet = metriques.getTempsTrajet(robot);
+            long remplissage = metriques.getTempsRemplissage(robot);
+            long occupe = robot.getTempsOccupe(date);
+            if (trajet + remplissage > occupe || occupe > date) {
+                coherents = false;
+                System.out.println("ERREUR : " + robot.getIdentifiant() + " : trajet " + Temps.formater(trajet)
+                        + " s + remplissage " + Temps.formater(remplissage) + " s, occupé " + Temps.formater(occupe)
+                        + " s, durée " + Temps.formater(date) + " s");
+            }
+        }
+        if (coherents) {
+            System.out.println("OK : trajet + remplissage <= occupé <= durée pour les "
+                    + donnees.getRobots().size() + " robots.");
+        }
+    }
+}
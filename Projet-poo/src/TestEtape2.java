@@ -12,7 +12,7 @@ import java.awt.Color;
  *
  * Usage :
  * <pre>
- * java TestEtape2 <fichierCarte> [<fichierScenario>]
+ * java TestEtape2 <fichierCarte> [<fichierScenario>] [evenementiel|acceleration=N]
  * </pre>
  */
 
@@ -25,6 +25,7 @@ public class TestEtape2 {
      * <ul>
      *   <li><code>args[0]</code> : Chemin vers le fichier de carte.</li>
      *   <li><code>args[1]</code> (optionnel) : Chemin vers le fichier de scénario.</li>
+     *   <li>Puis, éventuellement, les options d'affichage (voir {@link Simulateur#appliquerOptions(String[])}).</li>
      * </ul>
      */
 
@@ -35,12 +36,13 @@ public class TestEtape2 {
         }
 
         String fichierCarte = args[0];
-        String fichierScenario = args.length > 1 ? args[1] : null;
+        String fichierScenario = args.length > 1 && !Simulateur.estOption(args[1]) ? args[1] : null;
 
         try {
             DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
             Simulateur simulateur = new Simulateur(donnees, fichierCarte, fichierScenario);
             simulateur.setTypeTest("Etape2");
+            simulateur.appliquerOptions(args);
 
             if (fichierScenario != null) {
                 simulateur.chargeScenario(fichierScenario);
@@ -13,7 +13,7 @@
  *
  * Usage :
  * <pre>
- * java TestEtape3 <fichierCarte>
+ * java TestEtape3 <fichierCarte> [evenementiel|acceleration=N]
  * </pre>
  */
 
@@ -26,6 +26,7 @@ public class TestEtape3 {
             DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
             Simulateur simulateur = new Simulateur(donnees, fichierCarte);
             simulateur.setTypeTest("Etape3");
+            simulateur.appliquerOptions(args);
             Carte carte = donnees.getCarte();
 
             // Utiliser un identifiant unique, par exemple "PATTES0"
@@ -0,0 +1,113 @@
+/**
+ * Classe TestGenerateurCarte.
+ *
+ * Cette classe génère, avec {@link GenerateurCarte}, une carte pseudo-aléatoire au format .map,
+ * et éventuellement le scénario et l'instantané binaire correspondants. La même graine et les
+ * mêmes options redonnent toujours les mêmes fichiers.
+ *
+ * Usage :
+ * <pre>
+ * java TestGenerateurCarte [-taille LxC] [-terrain eau,roche,foret,habitat] [-incendies n]
+ *                          [-intensite min,max] [-robots drones,roues,chenilles,pattes] [-graine g]
+ *                          [-scenario fichier] [-instantane fichier] &lt;carte.map&gt;
+ * </pre>
+ */
+
+public class TestGenerateurCarte {
+
+    /**
+     * Point d'entrée du programme.
+     *
+     * @param args Les arguments de la ligne de commande :
+     * <ul>
+     *   <li><code>-taille</code> : Nombre de lignes et de colonnes (100x100 par défaut, 10000x10000 au plus).</li>
+     *   <li><code>-terrain</code> : Proportions d'eau, de roche, de forêt et d'habitat (0.1,0.08,0.25,0.05 par défaut).</li>
+     *   <li><code>-incendies</code> : Nombre d'incendies (20 par défaut).</li>
+     *   <li><code>-intensite</code> : Intensité minimale et maximale des incendies (1000,20000 par défaut).</li>
+     *   <li><code>-robots</code> : Nombre de drones, robots à roues, à chenilles et à pattes (2,2,2,2 par défaut).</li>
+     *   <li><code>-graine</code> : Graine du tirage (1 par défaut).</li>
+     *   <li><code>-scenario</code> : Fichier de scénario à écrire en plus de la carte.</li>
+     *   <li><code>-instantane</code> : Instantané binaire de l'état initial à écrire en plus de la carte.</li>
+     *   <li>Le dernier argument est le fichier de carte à écrire.</li>
+     * </ul>
+     */
+
+    public static void main(String[] args) {
+        GenerateurCarte generateur = new GenerateurCarte();
+        String fichierCarte = null;
+        String fichierScenario = null;
+        String fichierInstantane = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-taille": {
+                        String[] taille = args[++i].split("x");
+                        generateur.setTaille(Integer.parseInt(taille[0]), Integer.parseInt(taille[1]));
+                        break;
+                    }
+                    case "-terrain": {
+                        double[] p = reels(args[++i], 4);
+                        generateur.setProportions(p[0], p[1], p[2], p[3]);
+                        break;
+                    }
+                    case "-incendies": generateur.setNbIncendies(Integer.parseInt(args[++i])); break;
+                    case "-intensite": {
+                        double[] bornes = reels(args[++i], 2);
+                        generateur.setIntensites((int) bornes[0], (int) bornes[1]);
+                        break;
+                    }
+                    case "-robots": {
+                        double[] n = reels(args[++i], 4);
+                        generateur.setRobots((int) n[0], (int) n[1], (int) n[2], (int) n[3]);
+                        break;
+                    }
+                    case "-graine": generateur.setGraine(Long.parseLong(args[++i])); break;
+                    case "-scenario": fichierScenario = args[++i]; break;
+                    case "-instantane": fichierInstantane = args[++i]; break;
+                    default: fichierCarte = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            fichierCarte = null;
+        }
+        if (fichierCarte == null) {
+            System.out.println("Usage : java TestGenerateurCarte [-taille LxC] [-terrain eau,roche,foret,habitat] [-incendies n]"
+                    + " [-intensite min,max] [-robots drones,roues,chenilles,pattes] [-graine g]"
+                    + " [-scenario fichier] [-instantane fichier] <carte.map>");
+            return;
+        }
+
+        try {
+            long debut = System.nanoTime();
+            generateur.generer();
+            generateur.ecrireCarte(fichierCarte);
+            System.out.println("Carte écrite dans " + fichierCarte);
+            if (fichierScenario != null) {
+                generateur.ecrireScenario(fichierScenario);
+                System.out.println("Scénario écrit dans " + fichierScenario);
+            }
+            if (fichierInstantane != null) {
+                generateur.ecrireInstantane(fichierInstantane);
+                System.out.println("Instantané écrit dans " + fichierInstantane);
+            }
+            System.out.println(String.format("Génération en %.0f ms", (System.nanoTime() - debut) / 1e6));
+        } catch (Exception e) {
+            System.out.println("Erreur lors de la génération : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Liste de nombres séparés par des virgules, de longueur imposée
+    private static double[] reels(String liste, int longueur) {
+        String[] morceaux = liste.split(",");
+        if (morceaux.length != longueur) {
+            throw new IllegalArgumentException("Attendu " + longueur + " valeurs : " + liste);
+        }
+        double[] valeurs = new double[longueur];
+        for (int i = 0; i < longueur; i++) {
+            valeurs[i] = Double.parseDouble(morceaux[i].trim());
+        }
+        return valeurs;
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.File;
+
+/**
+ * Classe TestInstantane.
+ *
+ * Cette classe vérifie la sauvegarde et la reprise d'une simulation : la simulation est avancée
+ * jusqu'à une date donnée, son état est sauvegardé dans un fichier binaire puis relu, et la
+ * simulation d'origine et la simulation restaurée sont menées à leur terme. Les deux doivent
+ * finir à la même date après le même nombre d'événements.
+ *
+ * Usage :
+ * <pre>
+ * java TestInstantane <fichierCarte> [Elementaire|Evoluee|Optimale|Cooperative] [dateSauvegarde]
+ * </pre>
+ */
+
+public class TestInstantane {
+
+    /**
+     * Point d'entrée du programme.
+     *
+     * @param args Les arguments de la ligne de commande :
+     * <ul>
+     *   <li><code>args[0]</code> : Chemin vers le fichier de carte.</li>
+     *   <li><code>args[1]</code> (optionnel) : Stratégie à utiliser (Evoluee par défaut).</li>
+     *   <li><code>args[2]</code> (optionnel) : Date de la sauvegarde en secondes (100 par défaut).</li>
+     * </ul>
+     */
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage : java TestInstantane <fichierCarte> [Elementaire|Evoluee|Optimale|Cooperative] [dateSauvegarde]");
+            return;
+        }
+
+        String fichierCarte = args[0];
+        String strategie = args.length > 1 ? args[1] : "Evoluee";
+        long dateSauvegarde = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        try {
+            long debut = System.nanoTime();
+            DonneesSimulation donnees = LecteurDonnees.creeDonnees(fichierCarte);
+            long dureeLecture = System.nanoTime() - debut;
+
+            MoteurSimulation moteur = new MoteurSimulation(donnees);
+            moteur.setTypeTest(strategie);
+            moteur.setChefPompier(new ChefPompier(donnees));
+            moteur.executer(Temps.depuisSecondes(dateSauvegarde));
+
+            File fichier = File.createTempFile("instantane", ".sim");
+            fichier.deleteOnExit();
+            debut = System.nanoTime();
+            InstantaneSimulation.capturer(moteur).sauvegarder(fichier.getPath());
+            long dureeSauvegarde = System.nanoTime() - debut;
+
+            debut = System.nanoTime();
+            MoteurSimulation reprise = InstantaneSimulation.charger(fichier.getPath()).creerMoteur();
+            long dureeChargement = System.nanoTime() - debut;
+
+            ResultatSimulation resultat = moteur.executer();
+            ResultatSimulation resultatReprise = reprise.executer();
+
+            System.out.println("Lecture de la carte texte : " + String.format("%.2f", dureeLecture / 1e6) + " ms");
+            System.out.println("Sauvegarde à t = " + dateSauvegarde + " (" + fichier.length() + " octets) : "
+                    + String.format("%.2f", dureeSauvegarde / 1e6) + " ms");
+            System.out.println("Chargement de l'instantané : " + String.format("%.2f", dureeChargement / 1e6) + " ms");
+            System.out.println("Simulation d'origine : " + resultat);
+            System.out.println("Simulation reprise   : " + resultatReprise);
+
+            boolean identiques = resultat.getDateFinale() == resultatReprise.getDateFinale()
+                    && resultat.getNbEvenements() == resultatReprise.getNbEvenements()
+                    && resultat.getIntensiteRestante() == resultatReprise.getIntensiteRestante();
+            System.out.println(identiques ? "OK : la reprise est identique." : "ERREUR : la reprise diffère.");
+        } catch (Exception e) {
+            System.out.println("Erreur lors du test : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe TestMonteCarlo.
+ *
+ * Cette classe évalue des stratégies sur plusieurs cartes en lançant en parallèle, sans
+ * interface graphique, une simulation par carte, par stratégie et par graine, puis affiche
+ * pour chaque couple (carte, stratégie) la synthèse des tirages : date d'extinction, eau
+ * déversée, distance parcourue et taux d'occupation de chaque robot.
+ *
+ * Usage :
+ * <pre>
+ * java TestMonteCarlo [-s Elementaire,Evoluee,Optimale,Cooperative] [-n nbGraines] [-g premiereGraine] [-t nbThreads] <carte>...
+ * </pre>
+ */
+
+public class TestMonteCarlo {
+
+    /**
+     * Point d'entrée du programme.
+     *
+     * @param args Les arguments de la ligne de commande :
+     * <ul>
+     *   <li><code>-s</code> : Stratégies séparées par des virgules (Elementaire,Evoluee par défaut).</li>
+     *   <li><code>-n</code> : Nombre de graines par carte et par stratégie (8 par défaut).</li>
+     *   <li><code>-g</code> : Première graine (1 par défaut ; la graine 0 est le scénario non perturbé).</li>
+     *   <li><code>-t</code> : Nombre de threads (nombre de processeurs par défaut).</li>
+     *   <li>Les autres arguments sont les fichiers de carte.</li>
+     * </ul>
+     */
+
+    public static void main(String[] args) {
+        List<String> strategies = Arrays.asList("Elementaire", "Evoluee");
+        int nbGraines = 8;
+        long premiereGraine = 1;
+        int nbThreads = Runtime.getRuntime().availableProcessors();
+        List<String> cartes = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-s": strategies = Arrays.asList(args[++i].split(",")); break;
+                    case "-n": nbGraines = Integer.parseInt(args[++i]); break;
+                    case "-g": premiereGraine = Long.parseLong(args[++i]); break;
+                    case "-t": nbThreads = Integer.parseInt(args[++i]); break;
+                    default: cartes.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            cartes.clear();
+        }
+        if (cartes.isEmpty()) {
+            System.out.println("Usage : java TestMonteCarlo [-s Elementaire,Evoluee,Optimale,Cooperative] [-n nbGraines] [-g premiereGraine] [-t nbThreads] <carte>...");
+            return;
+        }
+
+        try {
+            MonteCarlo monteCarlo = new MonteCarlo(nbThreads);
+            long debut = System.nanoTime();
+            List<MonteCarlo.Tirage> tirages = monteCarlo.executer(cartes, strategies, premiereGraine, nbGraines);
+            long duree = System.nanoTime() - debut;
+
+            for (MonteCarlo.Synthese synthese : MonteCarlo.synthetiser(tirages)) {
+                System.out.println(synthese);
+            }
+            System.out.println(tirages.size() + " simulations sur " + nbThreads + " threads en "
+                    + String.format("%.0f", duree / 1e6) + " ms");
+        } catch (Exception e) {
+            System.out.println("Erreur lors des simulations : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Classe TestPerformances.
+ *
+ * Cette classe mesure, avec {@link BancEssai}, les opérations coûteuses de la simulation :
+ * <ul>
+ *   <li><code>lecture</code> : lecture d'une carte par {@link LecteurDonnees#creeDonnees(String)},
+ *       sur les cartes fournies et sur des cartes générées ;</li>
+ *   <li><code>chemin</code> : {@link Robot#calculerPlusCourtChemin(Carte, Case)} entre un robot
+ *       et une case tirée au hasard ;</li>
+ *   <li><code>strategie</code> : un appel de {@link ChefPompier#strategieEvoluee()} sur un état
+ *       initial remis à neuf avant chaque appel ;</li>
+ *   <li><code>champs</code> : ce que coûte une extinction aux champs de distances
+ *       ({@link ChampsDistances}) : ceux vers les incendies sont oubliés, puis recalculés pour
+ *       chaque type de robot ;</li>
+ *   <li><code>propagation</code> : une génération de {@link PropagationIncendies#propager()}
+ *       sur un état initial remis à neuf avant chaque appel ;</li>
+ *   <li><code>evenements</code> : simulation complète par pas, ramenée au temps moyen d'un
+ *       appel de {@link MoteurSimulation#incrementeDate()}.</li>
+ * </ul>
+ * Les mesures sur cartes générées sont répétées pour chaque taille de carte, nombre de robots et
+ * nombre d'incendies demandés. Les résultats de référence sont conservés dans
+ * <code>performances/reference.txt</code> pour comparer avant et après chaque optimisation.
+ *
+ * Usage :
+ * <pre>
+ * java TestPerformances [-mesures lecture,chemin,strategie,champs,propagation,evenements] [-tailles 20,100,300]
+ *                       [-robots 4,16] [-incendies 10,100] [-iterations 5] [-chauffe 3]
+ *                       [-duree millisecondes] [-sortie fichier] [carte...]
+ * </pre>
+ */
+
+public class TestPerformances {
+    private static final long GRAINE = 42;
+
+    /**
+     * Point d'entrée du programme.
+     *
+     * @param args Les options décrites ci-dessus, puis éventuellement les cartes à lire
+     *             (toutes les cartes du répertoire cartes/ par défaut).
+     */
+
+    public static void main(String[] args) {
+        List<String> mesures = Arrays.asList("lecture", "chemin", "strategie", "champs", "propagation", "evenements");
+        int[] tailles = { 20, 100, 300 };
+        int[] nbRobots = { 4, 16 };
+        int[] nbIncendies = { 10, 100 };
+        String fichierSortie = null;
+        List<String> cartes = new ArrayList<>();
+        BancEssai banc = new BancEssai();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-mesures": mesures = Arrays.asList(args[++i].split(",")); break;
+                    case "-tailles": tailles = entiers(args[++i]); break;
+                    case "-robots": nbRobots = entiers(args[++i]); break;
+                    case "-incendies": nbIncendies = entiers(args[++i]); break;
+                    case "-iterations": banc.setNbIterations(Integer.parseInt(args[++i])); break;
+                    case "-chauffe": banc.setNbIterationsChauffe(Integer.parseInt(args[++i])); break;
+                    case "-duree": banc.setDureeIterationMillis(Long.parseLong(args[++i])); break;
+                    case "-sortie": fichierSortie = args[++i]; break;
+                    default: cartes.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println("Usage : java TestPerformances [-mesures lecture,chemin,strategie,champs,propagation,evenements] [-tailles 20,100,300]"
+                    + " [-robots 4,16] [-incendies 10,100] [-iterations 5] [-chauffe 3] [-duree ms] [-sortie fichier] [carte...]");
+            return;
+        }
+        if (cartes.isEmpty()) {
+            File[] fichiers = new File("cartes").listFiles((rep, nom) -> nom.endsWith(".map"));
+            if (fichiers != null) {
+                Arrays.sort(fichiers);
+                for (File fichier : fichiers) {
+                    cartes.add(fichier.getPath());
+                }
+            }
+        }
+
+        // Le journal des événements est coupé pendant les mesures
+        SortieJournal sortieJournal = Journal.getSortie();
+        Journal.setSortie(SortieJournal.AUCUNE);
+        try {
+            if (mesures.contains("lecture")) {
+                mesurerLecture(banc, cartes, tailles);
+            }
+            for (int taille : tailles) {
+                if (mesures.contains("propagation")) {
+                    for (int incendies : nbIncendies) {
+                        mesurerPropagation(banc, taille, incendies);
+                    }
+                }
+                for (int robots : nbRobots) {
+                    if (mesures.contains("chemin")) {
+                        mesurerChemin(banc, taille, robots);
+                    }
+                    for (int incendies : nbIncendies) {
+                        if (mesures.contains("strategie")) {
+                            mesurerStrategie(banc, taille, robots, incendies);
+                        }
+                        if (mesures.contains("champs")) {
+                            mesurerChamps(banc, taille, robots, incendies);
+                        }
+                        if (mesures.contains("evenements")) {
+                            mesurerEvenements(banc, taille, robots, incendies);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Erreur pendant les mesures : " + e.getMessage());
+            e.printStackTrace();
+            return;
+        } finally {
+            Journal.setSortie(sortieJournal);
+        }
+
+        List<String> lignes = new ArrayList<>();
+        lignes.add("# Java " + System.getProperty("java.version") + ", "
+                + Runtime.getRuntime().availableProcessors() + " processeur(s), " + System.getProperty("os.name"));
+        lignes.add(String.format("%-12s %-36s %10s %14s   %10s", "mesure", "parametres", "operations", "moyenne", "ecart-type"));
+        for (BancEssai.Resultat resultat : banc.getResultats()) {
+            lignes.add(resultat.toString());
+        }
+        for (String ligne : lignes) {
+            System.out.println(ligne);
+        }
+        if (fichierSortie != null) {
+            try (PrintWriter sortie = new PrintWriter(new FileWriter(fichierSortie))) {
+                for (String ligne : lignes) {
+                    sortie.println(ligne);
+                }
+            } catch (IOException e) {
+                System.out.println("Impossible d'écrire " + fichierSortie + " : " + e.getMessage());
+            }
+        }
+    }
+
+    // Lecture des cartes fournies, puis de cartes générées de chaque taille
+    private static void mesurerLecture(BancEssai banc, List<String> cartes, int[] tailles) throws IOException {
+        for (String carte : cartes) {
+            banc.mesurer("lecture", new File(carte).getName(), () -> lire(carte));
+        }
+        for (int taille : tailles) {
+            File fichier = File.createTempFile("carte" + taille, ".map");
+            fichier.deleteOnExit();
+            generateur(taille, 4, 10).ecrireCarte(fichier.getPath());
+            banc.mesurer("lecture", "generee " + taille + "x" + taille, () -> lire(fichier.getPath()));
+        }
+    }
+
+    private static long lire(String carte) {
+        try {
+            return LecteurDonnees.creeDonnees(carte).getRobots().size();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Plus court chemin entre un robot et une case au hasard, en faisant tourner les robots
+    private static void mesurerChemin(BancEssai banc, int taille, int nbRobots) {
+        MoteurSimulation moteur = new MoteurSimulation(genererDonnees(taille, nbRobots, 1));
+        Carte carte = moteur.getDonnees().getCarte();
+        List<Robot> robots = moteur.getDonnees().getRobots();
+        Random aleatoire = new Random(GRAINE);
+        banc.mesurer("chemin", taille + "x" + taille + ", " + nbRobots + " robots", () -> {
+            Robot robot = robots.get(aleatoire.nextInt(robots.size()));
+            Case destination = carte.getCase(aleatoire.nextInt(taille * taille));
+            return robot.calculerPlusCourtChemin(carte, destination).size();
+        });
+    }
+
+    // Un appel de la stratégie évoluée sur l'état initial, restauré avant chaque appel
+    private static void mesurerStrategie(BancEssai banc, int taille, int nbRobots, int nbIncendies) {
+        InstantaneSimulation initial = InstantaneSimulation.capturer(
+                new MoteurSimulation(genererDonnees(taille, nbRobots, nbIncendies)));
+        ChefPompier[] chef = new ChefPompier[1];
+        banc.mesurer("strategie", parametres(taille, nbRobots, nbIncendies), () -> {
+            MoteurSimulation moteur = initial.creerMoteur();
+            chef[0] = new ChefPompier(moteur.getDonnees());
+            moteur.setChefPompier(chef[0]);
+        }, () -> {
+            chef[0].strategieEvoluee();
+            return 1;
+        });
+    }
+
+    // Une extinction : les champs vers les incendies sont oubliés puis recalculés pour chaque robot
+    // (une fois par type, les suivants du même type le trouvant en cache)
+    private static void mesurerChamps(BancEssai banc, int taille, int nbRobots, int nbIncendies) {
+        DonneesSimulation donnees = genererDonnees(taille, nbRobots, nbIncendies);
+        ChampsDistances champs = donnees.getChampsDistances();
+        Incendie incendie = donnees.getIncendies().get(0);
+        banc.mesurer("champs", parametres(taille, nbRobots, nbIncendies), () -> {
+            champs.incendieEteint(incendie);
+            for (Robot robot : donnees.getRobots()) {
+                champs.getChampIncendies(robot);
+            }
+            return 1;
+        });
+    }
+
+    // Une génération de la propagation des incendies, depuis l'état initial restauré avant chaque appel
+    private static void mesurerPropagation(BancEssai banc, int taille, int nbIncendies) {
+        InstantaneSimulation initial = InstantaneSimulation.capturer(
+                new MoteurSimulation(genererDonnees(taille, 4, nbIncendies)));
+        PropagationIncendies[] propagation = new PropagationIncendies[1];
+        banc.mesurer("propagation", taille + "x" + taille + ", " + nbIncendies + " inc.", () -> {
+            propagation[0] = new PropagationIncendies(initial.creerMoteur().getDonnees());
+        }, () -> {
+            propagation[0].propager();
+            return 1;
+        });
+    }
+
+    // Simulation complète par pas, ramenée au nombre d'appels de incrementeDate
+    private static void mesurerEvenements(BancEssai banc, int taille, int nbRobots, int nbIncendies) {
+        InstantaneSimulation initial = InstantaneSimulation.capturer(
+                new MoteurSimulation(genererDonnees(taille, nbRobots, nbIncendies)));
+        MoteurSimulation[] moteur = new MoteurSimulation[1];
+        banc.mesurer("evenements", parametres(taille, nbRobots, nbIncendies), () -> {
+            moteur[0] = initial.creerMoteur();
+            moteur[0].setTypeTest("Evoluee");
+            moteur[0].setChefPompier(new ChefPompier(moteur[0].getDonnees()));
+        }, () -> {
+            long debut = moteur[0].getDateActuelle();
+            moteur[0].executer();
+            return (moteur[0].getDateActuelle() - debut) / MoteurSimulation.PAS;
+        });
+    }
+
+    private static String parametres(int taille, int nbRobots, int nbIncendies) {
+        return taille + "x" + taille + ", " + nbRobots + " robots, " + nbIncendies + " inc.";
+    }
+
+    private static DonneesSimulation genererDonnees(int taille, int nbRobots, int nbIncendies) {
+        return generateur(taille, nbRobots, nbIncendies).creerDonnees();
+    }
+
+    // Carte carrée générée avec la graine fixe ; les robots sont répartis entre les quatre types
+    private static GenerateurCarte generateur(int taille, int nbRobots, int nbIncendies) {
+        GenerateurCarte generateur = new GenerateurCarte();
+        generateur.setTaille(taille, taille);
+        generateur.setProportions(0.10, 0.10, 0.20, 0.10);
+        generateur.setNbIncendies(nbIncendies);
+        generateur.setIntensites(1000, 20000);
+        int[] parType = new int[4];
+        for (int i = 0; i < nbRobots; i++) {
+            parType[i % parType.length]++;
+        }
+        generateur.setRobots(parType[0], parType[1], parType[2], parType[3]);
+        generateur.setGraine(GRAINE);
+        return generateur;
+    }
+
+    private static int[] entiers(String liste) {
+        String[] morceaux = liste.split(",");
+        int[] valeurs = new int[morceaux.length];
+        for (int i = 0; i < morceaux.length; i++) {
+            valeurs[i] = Integer.parseInt(morceaux[i].trim());
+        }
+        return valeurs;
+    }
+}
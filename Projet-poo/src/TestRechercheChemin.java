@@ -0,0 +1,95 @@
+import java.util.zip.DataFormatException;
+import java.io.FileNotFoundException;
+
+/**
+ * Classe TestRechercheChemin.
+ *
+ * Cette classe compare les algorithmes de plus court chemin (Dijkstra, A* et bidirectionnel)
+ * sur une carte : pour chaque robot et chaque case de la carte, elle vérifie que les trois
+ * algorithmes trouvent la même durée de trajet, puis affiche le nombre de cases explorées
+ * et le temps de calcul de chacun, mesuré après un premier tour de chauffe, ainsi que celui
+ * de l'algorithme conseillé pour chaque robot ({@link RechercheChemin#algorithmeConseille}),
+ * employé par défaut.
+ *
+ * Usage :
+ * <pre>
+ * java TestRechercheChemin <fichierCarte>
+ * </pre>
+ */
+
+public class TestRechercheChemin {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage : java TestRechercheChemin <fichierCarte>");
+            return;
+        }
+
+        try {
+            DonneesSimulation donnees = LecteurDonnees.creeDonnees(args[0]);
+            Carte carte = donnees.getCarte();
+            RechercheChemin recherche = carte.getRechercheChemin();
+            int nbCases = carte.getNbLignes() * carte.getNbColonnes();
+            int nbDifferences = 0;
+
+            long[] noeuds = new long[AlgorithmeRecherche.values().length];
+            long[] durees = new long[AlgorithmeRecherche.values().length];
+            double[] references = new double[nbCases];
+            long dureeConseillee = 0;
+
+            // Un premier tour, non mesuré, vérifie les durées et laisse la JVM compiler les trois algorithmes
+            for (int tour = 0; tour < 2; tour++) {
+                for (Robot robot : donnees.getRobots()) {
+                    GrilleCouts grille = carte.getGrilleCouts(robot);
+                    int depart = carte.getIndice(robot.getPosition());
+                    AlgorithmeRecherche conseille = recherche.algorithmeConseille(grille);
+
+                    for (AlgorithmeRecherche algorithme : AlgorithmeRecherche.values()) {
+                        long noeudsAvant = recherche.getNbNoeudsExplores();
+                        long debut = System.nanoTime();
+                        for (int arrivee = 0; arrivee < nbCases; arrivee++) {
+                            recherche.plusCourtChemin(grille, depart, arrivee, algorithme);
+                            double duree = recherche.getDureeDernierChemin();
+                            if (algorithme == AlgorithmeRecherche.DIJKSTRA) {
+                                references[arrivee] = duree;
+                            } else if (tour == 0 && !memeDuree(references[arrivee], duree)) {
+                                nbDifferences++;
+                                System.out.println("Différence pour " + robot.getIdentifiant() + " vers la case "
+                                        + arrivee + " : " + references[arrivee] + " (Dijkstra) / " + duree + " (" + algorithme + ")");
+                            }
+                        }
+                        if (tour == 0) {
+                            continue;
+                        }
+                        long duree = System.nanoTime() - debut;
+                        durees[algorithme.ordinal()] += duree;
+                        if (algorithme == conseille) {
+                            dureeConseillee += duree;
+                        }
+                        noeuds[algorithme.ordinal()] += recherche.getNbNoeudsExplores() - noeudsAvant;
+                    }
+                }
+            }
+
+            for (AlgorithmeRecherche algorithme : AlgorithmeRecherche.values()) {
+                System.out.println(algorithme + " : " + noeuds[algorithme.ordinal()] + " cases explorées, "
+                        + String.format("%.1f", durees[algorithme.ordinal()] / 1e6) + " ms");
+            }
+            System.out.println("Conseillé par la grille : " + String.format("%.1f", dureeConseillee / 1e6) + " ms");
+            System.out.println(nbDifferences == 0 ? "Durées identiques pour les trois algorithmes."
+                    : nbDifferences + " durées différentes !");
+
+        } catch (FileNotFoundException e) {
+            System.out.println("fichier " + args[0] + " inconnu ou illisible");
+        } catch (DataFormatException e) {
+            System.out.println("format du fichier " + args[0] + " invalide: " + e.getMessage());
+        }
+    }
+
+    private static boolean memeDuree(double a, double b) {
+        if (Double.isInfinite(a) || Double.isInfinite(b)) {
+            return a == b;
+        }
+        return Math.abs(a - b) <= 1e-6 * Math.max(1.0, Math.abs(a));
+    }
+}